@@ -0,0 +1,139 @@
+package com.leigq.www.jwt.benchmark;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.leigq.www.jwt.bean.CacheLoginUser;
+import com.leigq.www.jwt.bean.Response;
+import com.leigq.www.jwt.bean.UserContext;
+import com.leigq.www.jwt.config.JwtProperties;
+import com.leigq.www.jwt.enums.Platform;
+import com.leigq.www.jwt.service.RedisTokenStore;
+import com.leigq.www.jwt.service.TokenRevocationList;
+import com.leigq.www.jwt.service.UserService;
+import com.leigq.www.jwt.token.TokenClaims;
+import com.leigq.www.jwt.util.JwtUtils;
+import com.leigq.www.jwt.web.AuthenticationInterceptor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.servlet.http.Cookie;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 签发、验证 token 的热点路径：JwtUtils.generate、JwtUtils.parse、JwtUtils.claims、UserContext.genToken，
+ * 以及登录后每个请求都会经过的 AuthenticationInterceptor.preHandle（MockHttpServletRequest + 内存版 RedisTokenStore）
+ * <br/>
+ * 同时输出吞吐量和平均耗时，-prof gc 输出的 gc.alloc.rate.norm 为每次调用分配的字节数
+ * <br/>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="AuthenticationBenchmark -prof gc"
+ *
+ * @author leigq
+ * @date 2026-10-18 22:26:40
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+	private static final long USER_ID = 10010L;
+
+	private static final String USER_NAME = "admin";
+
+	private static final String IP = "127.0.0.1";
+
+	private Map<String, String> customClaim;
+
+	private Date expiresAt;
+
+	private String token;
+
+	private AuthenticationInterceptor interceptor;
+
+	private MockHttpServletRequest request;
+
+	private MockHttpServletResponse response;
+
+	private HandlerMethod handler;
+
+	@Setup
+	public void setup() throws NoSuchMethodException {
+		final AnnotationConfigApplicationContext context = BenchmarkContext.start();
+		final JwtProperties jwtProperties = context.getBean(JwtProperties.class);
+		final RedisTokenStore redisTokenStore = context.getBean(RedisTokenStore.class);
+		final ObjectProvider<TokenRevocationList> revocationList = context.getBeanProvider(TokenRevocationList.class);
+
+		customClaim = Collections.singletonMap("ip", IP);
+		expiresAt = new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(2));
+		token = JwtUtils.generate(customClaim, String.valueOf(USER_ID), expiresAt, USER_NAME);
+		final TokenClaims claims = JwtUtils.decode(token);
+		redisTokenStore.save(CacheLoginUser.builder().userId(USER_ID).userName(USER_NAME).tokenId(claims.getId())
+				.tokenExpiresAt(claims.getExpiresAt() * 1000).build(), Platform.PC, (int) TimeUnit.HOURS.toSeconds(2));
+
+		interceptor = new AuthenticationInterceptor(revocationList, jwtProperties,
+				new UserService(jwtProperties, redisTokenStore, revocationList));
+		handler = new HandlerMethod(this, AuthenticationBenchmark.class.getMethod("securedEndpoint"));
+
+		request = new MockHttpServletRequest("GET", "/user/getMessage");
+		request.setRemoteAddr(IP);
+		request.addHeader("user-agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
+		request.setCookies(new Cookie(jwtProperties.getTokenCookieName(), token));
+		response = new MockHttpServletResponse();
+		// JMH 的 Setup 与 Benchmark 在同一个线程中执行（Scope.Thread）
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+	}
+
+	@TearDown
+	public void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	/**
+	 * 被拦截的接口，没有 @PassToken
+	 *
+	 * @return the response
+	 */
+	public Response securedEndpoint() {
+		return Response.success();
+	}
+
+	@Benchmark
+	public String generate() {
+		return JwtUtils.generate(customClaim, String.valueOf(USER_ID), expiresAt, USER_NAME);
+	}
+
+	@Benchmark
+	public String genToken() {
+		return UserContext.genToken(customClaim, USER_ID, expiresAt, USER_NAME);
+	}
+
+	@Benchmark
+	public DecodedJWT parse() {
+		return JwtUtils.parse(token);
+	}
+
+	@Benchmark
+	public TokenClaims claims() {
+		return JwtUtils.claims(token);
+	}
+
+	@Benchmark
+	public boolean preHandle() {
+		try {
+			return interceptor.preHandle(request, response, handler);
+		} finally {
+			// 每次都从 Cookie 读取、验证 token，和真实请求一致
+			UserContext.clear();
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package com.leigq.www.jwt.benchmark;
+
+import com.leigq.www.jwt.config.JwtProperties;
+import com.leigq.www.jwt.token.BulkTokenIssuer;
+import com.leigq.www.jwt.token.JtiGenerator;
+import com.leigq.www.jwt.token.JwtKeyRegistry;
+import com.leigq.www.jwt.token.TimeBasedJtiGenerator;
+import com.leigq.www.jwt.util.SpringContextHolder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.time.Duration;
+
+/**
+ * 基准测试使用的最小 Spring 上下文，只包含签发、验证 token 所需的 bean，RedisTokenStore 使用内存版，不连接 Redis
+ * <br/>
+ * JwtUtils 等工具类在类初始化时从 SpringContextHolder 获取 bean，所以同一个 JVM 中只启动一次
+ *
+ * @author leigq
+ * @date 2026-10-18 15:48:02
+ */
+public final class BenchmarkContext {
+
+	private static AnnotationConfigApplicationContext context;
+
+	private BenchmarkContext() {
+	}
+
+	/**
+	 * 启动上下文，已启动时直接返回
+	 *
+	 * @return the annotation config application context
+	 */
+	public static synchronized AnnotationConfigApplicationContext start() {
+		if (context == null) {
+			final JwtProperties jwtProperties = new JwtProperties();
+			jwtProperties.setSignSecret("123456");
+			jwtProperties.setIssuer("springboot-jwt");
+			jwtProperties.setExpiresIn(Duration.ofSeconds(7200));
+			jwtProperties.setTokenCookieName("token");
+			jwtProperties.setRefreshTokenCookieName("refreshToken");
+
+			final AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+			ctx.registerBean(JwtProperties.class, () -> jwtProperties);
+			ctx.registerBean(JtiGenerator.class, () -> new TimeBasedJtiGenerator(1));
+			// 直接注册实例，不注入 RedisUtils
+			ctx.getBeanFactory().registerSingleton("redisTokenStore", new InMemoryRedisTokenStore());
+			ctx.register(SpringContextHolder.class, JwtKeyRegistry.class, BulkTokenIssuer.class);
+			ctx.refresh();
+			context = ctx;
+		}
+		return context;
+	}
+}
@@ -0,0 +1,62 @@
+package com.leigq.www.jwt.benchmark;
+
+import com.leigq.www.jwt.token.TokenSpec;
+import com.leigq.www.jwt.util.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量签发与逐个调用 JwtUtils.generate 的吞吐量对比
+ * <br/>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="BulkIssueBenchmark -prof gc"
+ *
+ * @author leigq
+ * @date 2026-10-18 15:55:31
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkIssueBenchmark {
+
+	@Param({"1000", "10000"})
+	private int batchSize;
+
+	private List<TokenSpec> specs;
+
+	@Setup
+	public void setup() {
+		BenchmarkContext.start();
+		final Date expiresAt = new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(2));
+		specs = new ArrayList<>(batchSize);
+		for (int i = 0; i < batchSize; i++) {
+			specs.add(TokenSpec.builder()
+					.subject(String.valueOf(10000 + i))
+					.audience(new String[]{"service-" + i})
+					.expiresAt(expiresAt)
+					.customClaim(Collections.singletonMap("ip", "127.0.0.1"))
+					.build());
+		}
+	}
+
+	@Benchmark
+	public List<String> perCall() {
+		final List<String> tokens = new ArrayList<>(specs.size());
+		for (TokenSpec spec : specs) {
+			tokens.add(JwtUtils.generate(spec.getCustomClaim(), spec.getSubject(), spec.getExpiresAt(), spec.getAudience()));
+		}
+		return tokens;
+	}
+
+	@Benchmark
+	public List<String> bulk() {
+		return JwtUtils.generate(specs);
+	}
+}
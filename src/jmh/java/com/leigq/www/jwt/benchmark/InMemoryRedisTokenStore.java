@@ -0,0 +1,107 @@
+package com.leigq.www.jwt.benchmark;
+
+import com.leigq.www.jwt.bean.CacheLoginUser;
+import com.leigq.www.jwt.enums.Platform;
+import com.leigq.www.jwt.service.RedisTokenStore;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基准测试使用的内存版 RedisTokenStore，排除网络耗时，只测量 token 相关的代码
+ *
+ * @author leigq
+ * @date 2026-10-18 22:20:14
+ */
+public class InMemoryRedisTokenStore extends RedisTokenStore {
+
+	private final Map<String, CacheLoginUser> users = new ConcurrentHashMap<>();
+
+	@Override
+	public boolean save(CacheLoginUser cacheUser, Platform scope, int expiresIn) {
+		users.put(key(cacheUser.getUserId(), scope), cacheUser);
+		return true;
+	}
+
+	@Override
+	public CacheLoginUser login(CacheLoginUser cacheUser, Platform scope, int expiresIn) {
+		return users.put(key(cacheUser.getUserId(), scope), cacheUser);
+	}
+
+	@Override
+	public CacheLoginUser get(long userId, Platform scope) {
+		return users.get(key(userId, scope));
+	}
+
+	@Override
+	public CompletableFuture<CacheLoginUser> getAsync(long userId, Platform scope) {
+		return CompletableFuture.completedFuture(get(userId, scope));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> saveAsync(CacheLoginUser cacheUser, Platform scope, int expiresIn) {
+		return CompletableFuture.completedFuture(save(cacheUser, scope, expiresIn));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> delAsync(long userId, Platform scope) {
+		return CompletableFuture.completedFuture(del(userId, scope));
+	}
+
+	@Override
+	public boolean lockRenewal(long userId, Platform scope, long lockSeconds) {
+		return true;
+	}
+
+	@Override
+	public Boolean del(long userId, Platform scope) {
+		return users.remove(key(userId, scope)) != null;
+	}
+
+	@Override
+	public Map<Platform, CacheLoginUser> getAll(long userId) {
+		final Map<Platform, CacheLoginUser> all = new EnumMap<>(Platform.class);
+		for (Platform platform : Platform.values()) {
+			final CacheLoginUser user = users.get(key(userId, platform));
+			if (user != null) {
+				all.put(platform, user);
+			}
+		}
+		return all;
+	}
+
+	@Override
+	public Boolean delAll(long userId) {
+		boolean deleted = false;
+		for (Platform platform : Platform.values()) {
+			deleted |= users.remove(key(userId, platform)) != null;
+		}
+		return deleted;
+	}
+
+	@Override
+	public Map<Long, Map<Platform, CacheLoginUser>> getAll(Collection<Long> userIds) {
+		final Map<Long, Map<Platform, CacheLoginUser>> all = new LinkedHashMap<>();
+		userIds.forEach(userId -> all.put(userId, getAll(userId)));
+		return all;
+	}
+
+	@Override
+	public Long delAll(Collection<Long> userIds) {
+		long deleted = 0;
+		for (Long userId : userIds) {
+			for (Platform platform : Platform.values()) {
+				deleted += users.remove(key(userId, platform)) != null ? 1 : 0;
+			}
+		}
+		return deleted;
+	}
+
+	private static String key(long userId, Platform scope) {
+		return userId + ":" + scope.getPlatform();
+	}
+}
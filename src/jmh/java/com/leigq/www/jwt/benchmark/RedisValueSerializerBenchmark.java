@@ -0,0 +1,69 @@
+package com.leigq.www.jwt.benchmark;
+
+import com.leigq.www.jwt.bean.CacheLoginUser;
+import com.leigq.www.jwt.config.RedisConfig;
+import com.leigq.www.jwt.config.RedisStoreProperties;
+import com.leigq.www.jwt.token.TokenClaims;
+import com.leigq.www.jwt.util.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存用户在各序列化格式下的编码、解码耗时，Setup 时输出每种格式的字节数（即 Redis 中值的大小）
+ * <br/>
+ * 解码为拦截器每个请求读取缓存用户的开销，-prof gc 输出的 gc.alloc.rate.norm 为每次调用分配的字节数
+ * <br/>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="RedisValueSerializerBenchmark -prof gc"
+ *
+ * @author leigq
+ * @date 2026-10-18 23:58:12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisValueSerializerBenchmark {
+
+	@Param({"JSON", "SMILE", "BINARY"})
+	private RedisStoreProperties.Serializer serializer;
+
+	private RedisSerializer<Object> redisSerializer;
+
+	private CacheLoginUser cacheLoginUser;
+
+	private byte[] serialized;
+
+	@Setup
+	public void setup() {
+		BenchmarkContext.start();
+		final String token = JwtUtils.generate(Collections.singletonMap("ip", "127.0.0.1"), "10010",
+				new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(2)), "admin");
+		final TokenClaims claims = JwtUtils.decode(token);
+		cacheLoginUser = CacheLoginUser.builder()
+				.userId(10010L)
+				.userName("leigq")
+				.mobile("13800000000")
+				.tokenId(claims.getId())
+				.tokenExpiresAt(claims.getExpiresAt() * 1000)
+				.build();
+		redisSerializer = RedisConfig.redisValueSerializer(serializer);
+		serialized = redisSerializer.serialize(cacheLoginUser);
+		System.out.println(serializer + " 缓存用户字节数：" + serialized.length);
+	}
+
+	@Benchmark
+	public byte[] serialize() {
+		return redisSerializer.serialize(cacheLoginUser);
+	}
+
+	@Benchmark
+	public Object deserialize() {
+		return redisSerializer.deserialize(serialized);
+	}
+}
@@ -0,0 +1,42 @@
+package com.leigq.www.jwt.benchmark;
+
+import com.leigq.www.jwt.constant.RedisCacheKey;
+import com.leigq.www.jwt.enums.Platform;
+import com.leigq.www.jwt.service.SessionKeyCodec;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存用户 key 的编码：改造前的 String.format + StringRedisSerializer 与 SessionKeyCodec
+ * <br/>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="SessionKeyBenchmark -prof gc"
+ *
+ * @author leigq
+ * @date 2026-10-19 01:16:33
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionKeyBenchmark {
+
+	private final StringRedisSerializer stringRedisSerializer = new StringRedisSerializer();
+
+	private long userId = 1_318_000_000_000_000_001L;
+
+	private Platform platform = Platform.ANDROID;
+
+	@Benchmark
+	public byte[] stringFormat() {
+		return stringRedisSerializer.serialize(String.format(RedisCacheKey.CACHE_USER_KEY_FORMAT, userId, platform.getPlatform()));
+	}
+
+	@Benchmark
+	public byte[] keyCodec() {
+		return SessionKeyCodec.userKey(userId, platform);
+	}
+}
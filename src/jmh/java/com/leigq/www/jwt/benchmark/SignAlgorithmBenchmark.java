@@ -0,0 +1,83 @@
+package com.leigq.www.jwt.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.leigq.www.jwt.enums.SignAlgorithm;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各签名算法的签名、验证吞吐量对比
+ * <br/>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="SignAlgorithmBenchmark -prof gc"
+ *
+ * @author leigq
+ * @date 2026-10-18 13:52:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignAlgorithmBenchmark {
+
+	@Param({"HS256", "RS256", "ES256"})
+	private SignAlgorithm signAlgorithm;
+
+	private Algorithm algorithm;
+
+	private JWTVerifier verifier;
+
+	private String token;
+
+	private Date expiresAt;
+
+	@Setup
+	public void setup() throws Exception {
+		switch (signAlgorithm) {
+			case RS256: {
+				final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+				generator.initialize(2048);
+				final KeyPair keyPair = generator.generateKeyPair();
+				algorithm = signAlgorithm.create(keyPair.getPublic(), keyPair.getPrivate());
+				break;
+			}
+			case ES256: {
+				final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+				generator.initialize(new ECGenParameterSpec("secp256r1"));
+				final KeyPair keyPair = generator.generateKeyPair();
+				algorithm = signAlgorithm.create(keyPair.getPublic(), keyPair.getPrivate());
+				break;
+			}
+			default:
+				algorithm = signAlgorithm.create("benchmark-secret");
+		}
+		verifier = JWT.require(algorithm).withIssuer("springboot-jwt").build();
+		expiresAt = new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(2));
+		token = sign();
+	}
+
+	@Benchmark
+	public String sign() {
+		return JWT.create()
+				.withIssuer("springboot-jwt")
+				.withSubject("10010")
+				.withAudience("admin")
+				.withExpiresAt(expiresAt)
+				.withClaim("ip", "127.0.0.1")
+				.sign(algorithm);
+	}
+
+	@Benchmark
+	public DecodedJWT verify() {
+		return verifier.verify(token);
+	}
+}
@@ -0,0 +1,63 @@
+package com.leigq.www.jwt.benchmark;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.leigq.www.jwt.config.JwtProperties;
+import com.leigq.www.jwt.enums.TokenFormat;
+import com.leigq.www.jwt.util.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 标准 JWT 与紧凑格式的签发、验证耗时对比，Setup 时输出 token 和 Cookie 请求头的字节数
+ * <br/>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="TokenFormatBenchmark -prof gc"
+ *
+ * @author leigq
+ * @date 2026-10-18 18:05:47
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenFormatBenchmark {
+
+	@Param({"JWT", "COMPACT"})
+	private TokenFormat tokenFormat;
+
+	private Map<String, String> customClaim;
+
+	private Date expiresAt;
+
+	private String token;
+
+	@Setup
+	public void setup() {
+		final JwtProperties jwtProperties = BenchmarkContext.start().getBean(JwtProperties.class);
+		jwtProperties.setTokenFormat(tokenFormat);
+		customClaim = Collections.singletonMap("ip", "127.0.0.1");
+		expiresAt = new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(2));
+		token = generate();
+		final String refreshToken = JwtUtils.generate(customClaim, "10010", new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(4)), "admin");
+		final String cookieHeader = "Cookie: " + jwtProperties.getTokenCookieName() + "=" + token + "; "
+				+ jwtProperties.getRefreshTokenCookieName() + "=" + refreshToken;
+		System.out.printf("%n[%s] token 字节数：%d，Cookie 请求头字节数：%d%n", tokenFormat,
+				token.getBytes(StandardCharsets.US_ASCII).length, cookieHeader.getBytes(StandardCharsets.US_ASCII).length);
+	}
+
+	@Benchmark
+	public String generate() {
+		return JwtUtils.generate(customClaim, "10010", expiresAt, "admin");
+	}
+
+	@Benchmark
+	public DecodedJWT parse() {
+		return JwtUtils.parse(token);
+	}
+}
@@ -0,0 +1,95 @@
+package com.leigq.www.jwt.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.leigq.www.jwt.token.JwtKey;
+import com.leigq.www.jwt.token.JwtKeyRegistry;
+import com.leigq.www.jwt.token.TokenPair;
+import com.leigq.www.jwt.token.TokenWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWTCreator 与 TokenWriter 签发单个 token、登录时签发 token 对的耗时和每次分配的字节数
+ * <br/>
+ * 每个 token 分配的字节数看 -prof gc 输出的 gc.alloc.rate.norm
+ * <br/>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="TokenWriterBenchmark -prof gc"
+ *
+ * @author leigq
+ * @date 2026-10-18 20:41:18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenWriterBenchmark {
+
+	private static final String ISSUER = "springboot-jwt";
+
+	private static final String JTI = "AAABkpXzX2gAAAAB";
+
+	private JwtKey signingKey;
+
+	private Map<String, String> customClaim;
+
+	private Date issuedAt;
+
+	private Date accessExpiresAt;
+
+	private Date refreshExpiresAt;
+
+	@Setup
+	public void setup() {
+		signingKey = BenchmarkContext.start().getBean(JwtKeyRegistry.class).signingKey();
+		customClaim = Collections.singletonMap("ip", "127.0.0.1");
+		issuedAt = new Date();
+		accessExpiresAt = new Date(issuedAt.getTime() + TimeUnit.HOURS.toMillis(2));
+		refreshExpiresAt = new Date(issuedAt.getTime() + TimeUnit.HOURS.toMillis(4));
+	}
+
+	@Benchmark
+	public String jwtCreator() {
+		return create(accessExpiresAt);
+	}
+
+	@Benchmark
+	public String tokenWriter() {
+		return TokenWriter.write(signingKey, ISSUER, JTI, issuedAt, customClaim, "10010", accessExpiresAt, "admin");
+	}
+
+	@Benchmark
+	public String[] jwtCreatorPair() {
+		return new String[]{create(accessExpiresAt), create(refreshExpiresAt)};
+	}
+
+	@Benchmark
+	public TokenPair tokenWriterPair() {
+		return TokenWriter.writePair(signingKey, ISSUER, issuedAt, customClaim, "10010", JTI, accessExpiresAt, JTI,
+				refreshExpiresAt, "admin");
+	}
+
+	/**
+	 * 改造前 JwtUtils 的签发方式
+	 */
+	private String create(Date expiresAt) {
+		final JWTCreator.Builder builder = JWT.create()
+				.withHeader(new HashMap<>())
+				.withJWTId(JTI)
+				.withIssuer(ISSUER)
+				.withSubject("10010")
+				.withNotBefore(issuedAt)
+				.withAudience("admin")
+				.withIssuedAt(issuedAt)
+				.withExpiresAt(expiresAt);
+		customClaim.forEach(builder::withClaim);
+		return builder.withKeyId(signingKey.getKid()).sign(signingKey.getAlgorithm());
+	}
+}
@@ -6,6 +6,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Objects;
 
 /**
  * Redis 缓存用户信息
@@ -40,7 +43,55 @@ public class CacheLoginUser implements Serializable {
 	private String mobile;
 
 	/**
-	 * The Token.
+	 * 当前 token 的 jti，只保存 jti 作为 token 的指纹，不保存完整的 token
+	 * <br/>
+	 * token 的签名在比对前已经验证过，jti 相同即为同一个 token
 	 */
-	private String token;
+	private String tokenId;
+
+	/**
+	 * 当前 token 的过期时间（毫秒），撤销 token 时使用
+	 */
+	private Long tokenExpiresAt;
+
+	/**
+	 * 滑动续期前 token 的 jti，续期后的宽限期内依然有效，避免续期时已发出的请求失败
+	 */
+	private String previousTokenId;
+
+	/**
+	 * previousTokenId 的宽限期截止时间（毫秒）
+	 */
+	private Long previousTokenExpiresAt;
+
+	/**
+	 * 是否是当前的 token，常量时间比较
+	 *
+	 * @param tokenId 已验证 token 的 jti
+	 * @return the boolean
+	 */
+	public boolean matchesToken(String tokenId) {
+		return sameTokenId(this.tokenId, tokenId);
+	}
+
+	/**
+	 * 是否是宽限期内的续期前 token，常量时间比较
+	 *
+	 * @param tokenId 已验证 token 的 jti
+	 * @return the boolean
+	 */
+	public boolean acceptsPreviousToken(String tokenId) {
+		return sameTokenId(previousTokenId, tokenId)
+				&& Objects.nonNull(previousTokenExpiresAt) && System.currentTimeMillis() < previousTokenExpiresAt;
+	}
+
+	/**
+	 * 比较耗时与内容无关，不能通过响应时间逐字节猜出缓存中的 jti
+	 */
+	private static boolean sameTokenId(String expected, String actual) {
+		if (Objects.isNull(expected) || Objects.isNull(actual)) {
+			return false;
+		}
+		return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), actual.getBytes(StandardCharsets.UTF_8));
+	}
 }
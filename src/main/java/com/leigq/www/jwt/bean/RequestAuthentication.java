@@ -0,0 +1,132 @@
+package com.leigq.www.jwt.bean;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.leigq.www.jwt.enums.Platform;
+import com.leigq.www.jwt.token.TokenClaims;
+import com.leigq.www.jwt.util.JwtUtils;
+
+import java.util.Objects;
+
+/**
+ * 当前请求的认证信息，每个请求只构建一次，保存在 request 的 attribute 中，拦截器、UserContext、Controller 共用
+ * <br/>
+ * token 的验证、Redis 缓存用户的读取都是懒加载的，且只执行一次
+ *
+ * @author leigq
+ * @date 2026-10-18 11:48:22
+ */
+public final class RequestAuthentication {
+
+	/**
+	 * 保存在 request attribute 中的名称
+	 */
+	static final String ATTRIBUTE_NAME = RequestAuthentication.class.getName();
+
+	/**
+	 * Cookie 中的 token
+	 */
+	private final String token;
+
+	/**
+	 * 设备平台
+	 */
+	private final Platform platform;
+
+	/**
+	 * 验证后的 jwt
+	 */
+	private DecodedJWT decodedJwt;
+
+	/**
+	 * 验证后的 jwt 负载
+	 */
+	private TokenClaims claims;
+
+	/**
+	 * Redis 缓存用户
+	 */
+	private CacheLoginUser cacheUser;
+
+	/**
+	 * 是否已读取过 Redis 缓存用户，缓存用户可能为 null，所以单独标记
+	 */
+	private boolean cacheUserLoaded;
+
+	RequestAuthentication(String token, Platform platform) {
+		this.token = token;
+		this.platform = platform;
+	}
+
+	/**
+	 * Gets token.
+	 *
+	 * @return the token
+	 */
+	public String getToken() {
+		return token;
+	}
+
+	/**
+	 * Gets platform.
+	 *
+	 * @return the platform
+	 */
+	public Platform getPlatform() {
+		return platform;
+	}
+
+	/**
+	 * 获取验证后的 jwt，首次调用时验证
+	 *
+	 * @return the decoded jwt
+	 * @throws JWTVerificationException the jwt verification exception
+	 */
+	public DecodedJWT getDecodedJwt() throws JWTVerificationException {
+		if (Objects.isNull(decodedJwt)) {
+			decodedJwt = JwtUtils.parse(token);
+		}
+		return decodedJwt;
+	}
+
+	/**
+	 * 获取验证后的 jwt 负载，首次调用时验证，比 {@link #getDecodedJwt()} 更轻量
+	 *
+	 * @return the token claims
+	 * @throws JWTVerificationException the jwt verification exception
+	 */
+	public TokenClaims getClaims() throws JWTVerificationException {
+		if (Objects.isNull(claims)) {
+			claims = JwtUtils.claims(token);
+		}
+		return claims;
+	}
+
+	/**
+	 * 获取 jwt Subject 中存的用户id
+	 *
+	 * @return the user id
+	 * @throws JWTVerificationException the jwt verification exception
+	 */
+	public Long getUserId() throws JWTVerificationException {
+		return Long.parseLong(getClaims().getSubject());
+	}
+
+	CacheLoginUser getCacheUser() {
+		return cacheUser;
+	}
+
+	boolean isCacheUserLoaded() {
+		return cacheUserLoaded;
+	}
+
+	void setCacheUser(CacheLoginUser cacheUser) {
+		this.cacheUser = cacheUser;
+		this.cacheUserLoaded = true;
+	}
+
+	void resetCacheUser() {
+		this.cacheUser = null;
+		this.cacheUserLoaded = false;
+	}
+}
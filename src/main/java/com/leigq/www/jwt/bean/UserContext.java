@@ -2,12 +2,19 @@ package com.leigq.www.jwt.bean;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.leigq.www.jwt.config.JwtProperties;
-import com.leigq.www.jwt.enums.Platform;
 import com.leigq.www.jwt.service.RedisTokenStore;
+import com.leigq.www.jwt.service.TokenRevocationList;
+import com.leigq.www.jwt.token.TokenPair;
+import com.leigq.www.jwt.token.TokenSpec;
 import com.leigq.www.jwt.util.*;
 
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * 用户信息上下文
@@ -27,6 +34,11 @@ public class UserContext {
      */
     private static final RedisTokenStore REDIS_TOKEN_STORE = SpringContextHolder.getBean(RedisTokenStore.class);
 
+    /**
+     * 已撤销 token 列表，未启用时为 null
+     */
+    private static final TokenRevocationList TOKEN_REVOCATION_LIST = SpringContextHolder.getBeanIfAvailable(TokenRevocationList.class);
+
 
     /**
      * Generate token string.
@@ -44,14 +56,68 @@ public class UserContext {
     }
 
 
+    /**
+     * 生成 access token 和 refresh token
+     *
+     * @param customClaim      自定义负载
+     * @param userId           用户id
+     * @param accessExpiresAt  access token 过期时间
+     * @param refreshExpiresAt refresh token 过期时间
+     * @param audience         接受 jwt 的一方，类似用户名
+     * @return the token pair
+     * @see JwtUtils#generatePair(Map, String, Date, Date, String...) JwtUtils#generatePair(Map, String, Date, Date, String...)
+     */
+    public static TokenPair genTokenPair(Map<String, String> customClaim, Long userId, Date accessExpiresAt, Date refreshExpiresAt,
+                                         String... audience) {
+        return JwtUtils.generatePair(customClaim, userId + "", accessExpiresAt, refreshExpiresAt, audience);
+    }
+
+
+    /**
+     * 批量生成 token，用于批处理任务、服务账号等集中签发的场景
+     *
+     * @param specs 每个 token 的内容
+     * @return 与 specs 顺序一致的 token
+     * @see JwtUtils#generate(List) JwtUtils#generate(List)
+     */
+    public static List<String> genTokens(List<TokenSpec> specs) {
+        return JwtUtils.generate(specs);
+    }
+
+
+    /**
+     * 获取当前请求的认证信息，每个请求只构建一次
+     *
+     * @return the request authentication
+     */
+    public static RequestAuthentication current() {
+        final HttpServletRequest request = WebUtils.getRequest();
+        RequestAuthentication authentication = (RequestAuthentication) request.getAttribute(RequestAuthentication.ATTRIBUTE_NAME);
+        if (Objects.isNull(authentication)) {
+            // 从 Cookie 中取出 token
+            final String token = CookieUtils.getCookieValue(request, JWT_PROPERTIES.getTokenCookieName());
+            authentication = new RequestAuthentication(token, DeviceUtils.platform(request));
+            request.setAttribute(RequestAuthentication.ATTRIBUTE_NAME, authentication);
+        }
+        return authentication;
+    }
+
+
+    /**
+     * 清除当前请求的认证信息，如登录、刷新 token 后 Cookie 和缓存都已变化
+     */
+    public static void clear() {
+        WebUtils.getRequest().removeAttribute(RequestAuthentication.ATTRIBUTE_NAME);
+    }
+
+
     /**
      * 获取用户 token 信息
      *
      * @return the user
      */
     public static String getToken() {
-        // 从 Cookie 中取出 token
-        return CookieUtils.getCookieValue(WebUtils.getRequest(), JWT_PROPERTIES.getTokenCookieName());
+        return current().getToken();
     }
 
 
@@ -82,9 +148,12 @@ public class UserContext {
      * @throws JWTVerificationException the jwt verification exception
      */
     public static CacheLoginUser getCacheUser() throws JWTVerificationException {
-        // Subject 中存的 用户id
-        final String userId = JwtUtils.subject(getToken());
-        return REDIS_TOKEN_STORE.get(Long.parseLong(userId), getPlatform());
+        final RequestAuthentication authentication = current();
+        if (!authentication.isCacheUserLoaded()) {
+            // Subject 中存的 用户id
+            authentication.setCacheUser(REDIS_TOKEN_STORE.get(authentication.getUserId(), authentication.getPlatform()));
+        }
+        return authentication.getCacheUser();
     }
 
 
@@ -96,8 +165,7 @@ public class UserContext {
      */
     public static Boolean delCacheUser() throws JWTVerificationException {
         // Subject 中存的 用户id
-        final String userId = JwtUtils.subject(getToken());
-        return delCacheUser(Long.parseLong(userId));
+        return delCacheUser(current().getUserId());
     }
 
 
@@ -108,16 +176,48 @@ public class UserContext {
      * @return the user
      */
     public static Boolean delCacheUser(Long userId) {
-        return REDIS_TOKEN_STORE.del(userId, getPlatform());
+        final RequestAuthentication authentication = current();
+        if (Objects.nonNull(TOKEN_REVOCATION_LIST)) {
+            // 启用撤销列表后拦截器不再比对缓存中的 token，删除前先撤销缓存中的 token
+            TOKEN_REVOCATION_LIST.revokeSession(REDIS_TOKEN_STORE.get(userId, authentication.getPlatform()));
+        }
+        final Boolean deleted = REDIS_TOKEN_STORE.del(userId, authentication.getPlatform());
+        // 缓存用户已变化，下次使用时重新读取
+        authentication.resetCacheUser();
+        return deleted;
     }
 
 
     /**
-     * Gets platform.
+     * 删除用户所有平台的缓存用户，即踢下线所有设备
      *
-     * @return the platform
+     * @param userId the user id
+     * @return 至少删除了一个平台时返回 true
+     */
+    public static Boolean delAllCacheUsers(Long userId) {
+        if (Objects.nonNull(TOKEN_REVOCATION_LIST)) {
+            TOKEN_REVOCATION_LIST.revokeSessions(REDIS_TOKEN_STORE.getAll(userId).values());
+        }
+        return REDIS_TOKEN_STORE.delAll(userId);
+    }
+
+
+    /**
+     * 批量踢下线多个用户的所有设备，读取、删除缓存用户各一次网络往返
+     *
+     * @param userIds the user ids
+     * @return 删除的 key 数
      */
-    private static Platform getPlatform() {
-        return DeviceUtils.platform(WebUtils.getRequest());
+    public static Long delAllCacheUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return 0L;
+        }
+        if (Objects.nonNull(TOKEN_REVOCATION_LIST)) {
+            final List<CacheLoginUser> cacheUsers = new ArrayList<>();
+            REDIS_TOKEN_STORE.getAll(userIds).values().forEach(platformUsers -> cacheUsers.addAll(platformUsers.values()));
+            TOKEN_REVOCATION_LIST.revokeSessions(cacheUsers);
+        }
+        return REDIS_TOKEN_STORE.delAll(userIds);
     }
+
 }
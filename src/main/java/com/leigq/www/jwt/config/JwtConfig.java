@@ -1,10 +1,21 @@
 package com.leigq.www.jwt.config;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.leigq.www.jwt.enums.JtiStrategy;
+import com.leigq.www.jwt.token.JtiGenerator;
+import com.leigq.www.jwt.token.RandomJtiGenerator;
+import com.leigq.www.jwt.token.TimeBasedJtiGenerator;
+import com.leigq.www.jwt.token.TokenClaims;
+import com.leigq.www.jwt.token.VerifiedTokenCache;
 import lombok.Data;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.Objects;
 
 /**
  * JwtProperties
@@ -18,4 +29,44 @@ import java.io.Serializable;
 public class JwtConfig implements Serializable {
 	private static final long serialVersionUID = 6653274237419642531L;
 
+	/**
+	 * 按 jwt.jti.strategy 创建 jti 生成器，没有自定义的 JtiGenerator bean 时 JwtUtils 使用
+	 * <br/>
+	 * 不注册为 bean：普通配置类上的 @ConditionalOnMissingBean 取决于 bean 的注册顺序，自定义的 JtiGenerator 可能被忽略或重复
+	 *
+	 * @param jti jwt.jti 配置
+	 * @return the jti generator
+	 */
+	public static JtiGenerator defaultJtiGenerator(JwtProperties.Jti jti) {
+		if (jti.getStrategy() == JtiStrategy.RANDOM) {
+			return new RandomJtiGenerator();
+		}
+		final Integer nodeId = jti.getNodeId();
+		return new TimeBasedJtiGenerator(Objects.nonNull(nodeId) ? nodeId : new SecureRandom().nextInt());
+	}
+
+	/**
+	 * 已验证 token 缓存，jwt.verify-cache.enabled = true 时启用
+	 *
+	 * @param jwtProperties the jwt properties
+	 * @return the verified token cache
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "jwt.verify-cache", name = "enabled", havingValue = "true")
+	public VerifiedTokenCache<DecodedJWT> verifiedTokenCache(JwtProperties jwtProperties) {
+		return new VerifiedTokenCache<>(jwtProperties.getVerifyCache().getMaximumSize(), DecodedJWT::getExpiresAt);
+	}
+
+	/**
+	 * 已验证 token 负载缓存，jwt.verify-cache.enabled = true 时启用
+	 *
+	 * @param jwtProperties the jwt properties
+	 * @return the verified token cache
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "jwt.verify-cache", name = "enabled", havingValue = "true")
+	public VerifiedTokenCache<TokenClaims> verifiedClaimsCache(JwtProperties jwtProperties) {
+		return new VerifiedTokenCache<>(jwtProperties.getVerifyCache().getMaximumSize(), TokenClaims::getExpiresAtDate);
+	}
+
 }
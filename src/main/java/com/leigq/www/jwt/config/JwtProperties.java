@@ -1,10 +1,14 @@
 package com.leigq.www.jwt.config;
 
+import com.leigq.www.jwt.enums.JtiStrategy;
+import com.leigq.www.jwt.enums.SignAlgorithm;
+import com.leigq.www.jwt.enums.TokenFormat;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import java.io.Serializable;
 import java.time.Duration;
+import java.util.List;
 
 /**
  * JwtProperties
@@ -21,10 +25,50 @@ public class JwtProperties implements Serializable {
 	private static final long serialVersionUID = 6653274237419642531L;
 
 	/**
-	 * jwt 签名密钥
+	 * 签名算法，默认 HS256
+	 */
+	private SignAlgorithm algorithm = SignAlgorithm.HS256;
+
+	/**
+	 * jwt 签名密钥，HS256 使用
 	 */
 	private String signSecret;
 
+	/**
+	 * PEM 格式的私钥文件位置（PKCS#8），RS256、ES256 使用，支持 classpath:、file: 前缀
+	 */
+	private String privateKey;
+
+	/**
+	 * PEM 格式的公钥文件位置（X.509），RS256、ES256 使用，支持 classpath:、file: 前缀
+	 */
+	private String publicKey;
+
+	/**
+	 * 已退役的签名密钥，只用于验证轮换前签发的 token，不再用于签名
+	 */
+	private List<String> retiredSignSecrets;
+
+	/**
+	 * 已退役的公钥文件位置，只用于验证轮换前签发的 token
+	 */
+	private List<String> retiredPublicKeys;
+
+	/**
+	 * 即将启用的公钥文件位置，提前在 JWKS 中发布，下游缓存到新公钥后再切换签名密钥
+	 */
+	private List<String> nextPublicKeys;
+
+	/**
+	 * JWKS 的 HTTP 缓存时间
+	 */
+	private Duration jwksMaxAge = Duration.ofMinutes(10);
+
+	/**
+	 * token 编码格式，默认标准 JWT，两种格式的 token 都可以验证，可以平滑切换
+	 */
+	private TokenFormat tokenFormat = TokenFormat.JWT;
+
 	/**
 	 * 发行者
 	 */
@@ -45,4 +89,179 @@ public class JwtProperties implements Serializable {
 	 */
 	private String refreshTokenCookieName;
 
+	/**
+	 * 已验证 token 缓存
+	 */
+	private VerifyCache verifyCache = new VerifyCache();
+
+	/**
+	 * 验证失败 token 缓存
+	 */
+	private RejectCache rejectCache = new RejectCache();
+
+	/**
+	 * 已撤销 token 列表
+	 */
+	private Revocation revocation = new Revocation();
+
+	/**
+	 * 滑动续期
+	 */
+	private Renewal renewal = new Renewal();
+
+	/**
+	 * 批量签发
+	 */
+	private Bulk bulk = new Bulk();
+
+	/**
+	 * jwt ID（jti）生成
+	 */
+	private Jti jti = new Jti();
+
+
+	/**
+	 * 已验证 token 缓存配置
+	 */
+	@Data
+	public static class VerifyCache implements Serializable {
+
+		private static final long serialVersionUID = -2915392036553287104L;
+
+		/**
+		 * 是否启用，默认不启用
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * 最大缓存数量
+		 */
+		private long maximumSize = 10000;
+	}
+
+
+	/**
+	 * 验证失败 token 缓存配置
+	 */
+	@Data
+	public static class RejectCache implements Serializable {
+
+		private static final long serialVersionUID = 7760391874612358910L;
+
+		/**
+		 * 是否启用，默认启用
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * 最大缓存数量
+		 */
+		private long maximumSize = 10000;
+
+		/**
+		 * 缓存有效期
+		 */
+		private Duration ttl = Duration.ofMinutes(1);
+
+		/**
+		 * 统计输出间隔，支持 1m、PT1M 等 Duration 写法
+		 */
+		private Duration reportInterval = Duration.ofMinutes(1);
+	}
+
+
+	/**
+	 * 已撤销 token 列表配置
+	 */
+	@Data
+	public static class Revocation implements Serializable {
+
+		private static final long serialVersionUID = -1849227031746593610L;
+
+		/**
+		 * 是否启用，默认不启用；启用后拦截器不再读取 Redis 中的缓存用户，只在本地判断 token 是否已撤销
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * 从 Redis 重建的间隔，也是 pub/sub 消息丢失时撤销生效的最长延迟
+		 */
+		private Duration rebuildInterval = Duration.ofMinutes(5);
+
+		/**
+		 * 布隆过滤器最小容量
+		 */
+		private long minCapacity = 10000;
+
+		/**
+		 * 布隆过滤器误判率，误判时会去 Redis 确认
+		 */
+		private double fpp = 0.01;
+	}
+
+
+	/**
+	 * 滑动续期配置
+	 */
+	@Data
+	public static class Renewal implements Serializable {
+
+		private static final long serialVersionUID = 2408756193054471829L;
+
+		/**
+		 * 是否启用，默认不启用；启用后 token 剩余有效时间低于 threshold 时，拦截器在正常响应中写入新的 token Cookie
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * 剩余有效时间低于该值时续期
+		 */
+		private Duration threshold = Duration.ofMinutes(30);
+
+		/**
+		 * 续期前的 token 在续期后依然有效的宽限期，同时也是续期锁的时间
+		 */
+		private Duration grace = Duration.ofSeconds(30);
+	}
+
+
+	/**
+	 * 批量签发配置
+	 */
+	@Data
+	public static class Bulk implements Serializable {
+
+		private static final long serialVersionUID = 5303470160245069862L;
+
+		/**
+		 * 签名线程数，默认 CPU 核数
+		 */
+		private int parallelism = Runtime.getRuntime().availableProcessors();
+
+		/**
+		 * 单次最多签发数量
+		 */
+		private int maxBatchSize = 100000;
+	}
+
+
+	/**
+	 * jwt ID（jti）生成配置
+	 */
+	@Data
+	public static class Jti implements Serializable {
+
+		private static final long serialVersionUID = -4682051617360958215L;
+
+		/**
+		 * 生成策略，默认 TIME
+		 */
+		private JtiStrategy strategy = JtiStrategy.TIME;
+
+		/**
+		 * 节点 id，TIME 策略使用，集群中各节点应不同，不配置时启动时随机生成
+		 */
+		private Integer nodeId;
+	}
+
 }
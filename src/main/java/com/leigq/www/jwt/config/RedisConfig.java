@@ -8,16 +8,28 @@ import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.leigq.www.jwt.config.redis.CacheLoginUserRedisValueFormat;
+import com.leigq.www.jwt.config.redis.JacksonRedisValueFormat;
+import com.leigq.www.jwt.config.redis.MigratingRedisSerializer;
+import com.leigq.www.jwt.config.redis.RedisValueFormat;
 import com.leigq.www.jwt.util.JacksonUtils;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.util.Arrays;
+
 /**
  * Redis配置
  * <p>
@@ -30,6 +42,7 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
  * </p>
  */
 @Configuration
+@EnableConfigurationProperties(value = RedisStoreProperties.class)
 public class RedisConfig extends CachingConfigurerSupport {
 
     /**
@@ -52,23 +65,29 @@ public class RedisConfig extends CachingConfigurerSupport {
      * <br>创建时间： 2018-11-08 10:12
      * <br>
      *
+     * <br/>
+     * 值的格式由 redis-store.serializer 决定，见 {@link #redisValueSerializer(RedisStoreProperties.Serializer)}
+     *
      * @param redisConnectionFactory redis连接工厂
+     * @param redisStoreProperties   the redis store properties
      * @return RedisTemplate
      */
     @Bean
     @Primary
-    public RedisTemplate<Object, Object> getRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+    public RedisTemplate<Object, Object> getRedisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                          RedisStoreProperties redisStoreProperties) {
         RedisTemplate<Object, Object> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(redisConnectionFactory);
 
         // 使用 Jackson2JsonRedisSerialize 替换默认序列化
         // 以下代码为将 RedisTemplate 的 Value 序列化方式由 JdkSerializationRedisSerializer更换为 Jackson2JsonRedisSerializer
         // 此种序列化方式结果清晰、容易阅读、存储字节少、速度快，所以推荐更换
-        redisTemplate.setValueSerializer(jackson2JsonRedisSerializer());
+        RedisSerializer<Object> valueSerializer = redisValueSerializer(redisStoreProperties.getSerializer());
+        redisTemplate.setValueSerializer(valueSerializer);
         // 设置 key 的序列化规则
         redisTemplate.setKeySerializer(new StringRedisSerializer());
         redisTemplate.setHashKeySerializer(new StringRedisSerializer());
-        redisTemplate.setHashValueSerializer(jackson2JsonRedisSerializer());
+        redisTemplate.setHashValueSerializer(valueSerializer);
         redisTemplate.setStringSerializer(new StringRedisSerializer());
         // 是否启用事务
         // redisTemplate.setEnableTransactionSupport(true);
@@ -78,17 +97,118 @@ public class RedisConfig extends CachingConfigurerSupport {
 
 
     /**
-     * Jackson 2 json redis serializer jackson 2 json redis serializer.
+     * 缓存用户专用的 redisTemplate，key 为已编码好的 byte[]，值的序列化方式与 {@link #getRedisTemplate} 相同
+     * <br/>
+     * 每个请求都要读取缓存用户，key 由 SessionKeyCodec 直接编码，省去 String.format 和 StringRedisSerializer 的开销
      *
-     * @return the jackson 2 json redis serializer
-     * @author leiguoqing
-     * @date 2020 -07-25 14:31:07
+     * @param redisConnectionFactory redis连接工厂
+     * @param redisStoreProperties   the redis store properties
+     * @return the redis template
      */
-    private Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer() {
-        // 使用 Jackson2JsonRedisSerialize 替换默认序列化
-        Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer = new Jackson2JsonRedisSerializer<>(Object.class);
-        jackson2JsonRedisSerializer.setObjectMapper(SingletonEnum.INSTANCE.objectMapper);
-        return jackson2JsonRedisSerializer;
+    @Bean
+    public RedisTemplate<byte[], Object> sessionRedisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                              RedisStoreProperties redisStoreProperties) {
+        RedisTemplate<byte[], Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(redisConnectionFactory);
+        RedisSerializer<Object> valueSerializer = redisValueSerializer(redisStoreProperties.getSerializer());
+        redisTemplate.setValueSerializer(valueSerializer);
+        redisTemplate.setKeySerializer(RedisSerializer.byteArray());
+        redisTemplate.setHashKeySerializer(RedisSerializer.byteArray());
+        redisTemplate.setHashValueSerializer(valueSerializer);
+        redisTemplate.setStringSerializer(new StringRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+        return redisTemplate;
+    }
+
+
+    /**
+     * 非阻塞的 redisTemplate，基于 Lettuce 的 reactive API，序列化方式与 {@link #getRedisTemplate} 相同
+     * <br/>
+     * 与 Spring Boot 自动配置的同名 bean（使用 JDK 序列化）不同，这里覆盖它，保证两者读写的值互通
+     *
+     * @param reactiveRedisConnectionFactory redis连接工厂
+     * @param redisStoreProperties           the redis store properties
+     * @return the reactive redis template
+     */
+    @Bean
+    @SuppressWarnings("unchecked")
+    public ReactiveRedisTemplate<Object, Object> reactiveRedisTemplate(ReactiveRedisConnectionFactory reactiveRedisConnectionFactory,
+                                                                       RedisStoreProperties redisStoreProperties) {
+        RedisSerializer<Object> valueSerializer = redisValueSerializer(redisStoreProperties.getSerializer());
+        // key 都是 String，与 redisTemplate 的 StringRedisSerializer 一致
+        RedisSerializer<Object> keySerializer = (RedisSerializer<Object>) (RedisSerializer<?>) new StringRedisSerializer();
+        RedisSerializationContext<Object, Object> serializationContext = RedisSerializationContext
+                .newSerializationContext()
+                .key(keySerializer)
+                .value(valueSerializer)
+                .hashKey(keySerializer)
+                .hashValue(valueSerializer)
+                .build();
+        return new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, serializationContext);
+    }
+
+
+    /**
+     * 缓存用户专用的非阻塞 redisTemplate，key 为 SessionKeyCodec 编码好的 byte[]
+     *
+     * @param reactiveRedisConnectionFactory redis连接工厂
+     * @param redisStoreProperties           the redis store properties
+     * @return the reactive redis template
+     */
+    @Bean
+    public ReactiveRedisTemplate<byte[], Object> reactiveSessionRedisTemplate(ReactiveRedisConnectionFactory reactiveRedisConnectionFactory,
+                                                                              RedisStoreProperties redisStoreProperties) {
+        RedisSerializer<Object> valueSerializer = redisValueSerializer(redisStoreProperties.getSerializer());
+        RedisSerializationContext<byte[], Object> serializationContext = RedisSerializationContext
+                .<byte[], Object>newSerializationContext()
+                .key(RedisSerializer.byteArray())
+                .value(valueSerializer)
+                .hashKey(RedisSerializer.byteArray())
+                .hashValue(valueSerializer)
+                .build();
+        return new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, serializationContext);
+    }
+
+
+    /**
+     * Redis pub/sub 监听容器，没有注册监听器时不会建立订阅连接
+     *
+     * @param redisConnectionFactory redis连接工厂
+     * @return the redis message listener container
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
+
+
+    /**
+     * Redis 值的序列化器，写入使用指定的格式，读取时识别所有格式，切换格式时 Redis 中已有的值依然能读取
+     * <br/>
+     * 基准测试也通过这里创建，与应用使用的配置一致
+     *
+     * @param serializer 写入使用的格式
+     * @return the redis serializer
+     */
+    public static RedisSerializer<Object> redisValueSerializer(RedisStoreProperties.Serializer serializer) {
+        RedisValueFormat json = new JacksonRedisValueFormat(SingletonEnum.INSTANCE.objectMapper, new byte[0]);
+        RedisValueFormat smile = new JacksonRedisValueFormat(SingletonEnum.INSTANCE.smileObjectMapper, JacksonRedisValueFormat.SMILE_HEADER);
+        RedisValueFormat binary = new CacheLoginUserRedisValueFormat(smile);
+        RedisValueFormat writer;
+        switch (serializer) {
+            case SMILE:
+                writer = smile;
+                break;
+            case BINARY:
+                writer = binary;
+                break;
+            default:
+                writer = json;
+        }
+        // JSON 没有固定的头，放在最后兜底
+        return new MigratingRedisSerializer(writer, Arrays.asList(binary, json));
     }
 
 
@@ -109,12 +229,20 @@ public class RedisConfig extends CachingConfigurerSupport {
          */
         private final ObjectMapper objectMapper;
 
+        /**
+         * 配置相同，输出 Smile 二进制格式
+         */
+        private final ObjectMapper smileObjectMapper;
+
         /**
          * 在枚举构造方法里面初始化自定义的 objectMapper，以实现单例
          */
         SingletonEnum() {
-            objectMapper = JacksonUtils.CustomObjectMapper.newInstance();
+            objectMapper = configure(JacksonUtils.CustomObjectMapper.newInstance());
+            smileObjectMapper = configure(JacksonUtils.CustomObjectMapper.newInstance(new SmileFactory()));
+        }
 
+        private static ObjectMapper configure(ObjectMapper objectMapper) {
             // 重写一些配置
             objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
             // 序列化时允许非常量字段均输出类型 (此项必须配置，否则会报java.lang.ClassCastException: java.util.LinkedHashMap cannot be cast to XXX)
@@ -124,6 +252,7 @@ public class RedisConfig extends CachingConfigurerSupport {
             objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
             objectMapper.disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
             objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+            return objectMapper;
         }
     }
 }
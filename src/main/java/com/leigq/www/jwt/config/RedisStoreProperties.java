@@ -0,0 +1,154 @@
+package com.leigq.www.jwt.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Redis 缓存用户存储配置
+ *
+ * @author leigq
+ * @date 2026-10-18 22:48:31
+ */
+@Data
+@ConfigurationProperties(prefix = "redis-store")
+public class RedisStoreProperties implements Serializable {
+
+	private static final long serialVersionUID = -3392684160237719254L;
+
+	/**
+	 * 缓存用户的存储结构
+	 */
+	private Layout layout = Layout.KEY;
+
+	/**
+	 * 本地近端缓存
+	 */
+	private NearCache nearCache = new NearCache();
+
+	/**
+	 * Redis 服务端协助的客户端缓存
+	 */
+	private Tracking tracking = new Tracking();
+
+	/**
+	 * 值的序列化格式，只影响写入，读取时自动识别，切换后已有的值依然能读取
+	 */
+	private Serializer serializer = Serializer.JSON;
+
+
+	/**
+	 * 缓存用户的存储结构
+	 */
+	public enum Layout {
+
+		/**
+		 * 每个用户每个平台一个 key：login_user:{userId}:平台
+		 */
+		KEY,
+
+		/**
+		 * 每个用户一个 hash：login_users:{userId}，field 为平台，见 SessionHashStore
+		 */
+		HASH
+	}
+
+	/**
+	 * 值的序列化格式
+	 */
+	public enum Serializer {
+
+		/**
+		 * JSON，带完整类名，便于阅读，体积最大
+		 */
+		JSON,
+
+		/**
+		 * Smile，二进制 JSON，依然带类名和字段名
+		 */
+		SMILE,
+
+		/**
+		 * 缓存用户使用手写的二进制格式，不带类名和字段名，其他值使用 Smile
+		 */
+		BINARY
+	}
+
+	/**
+	 * 本地近端缓存配置
+	 */
+	@Data
+	public static class NearCache implements Serializable {
+
+		private static final long serialVersionUID = 5512047328163940177L;
+
+		/**
+		 * 是否启用，默认不启用
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * 最大缓存数量
+		 */
+		private long maximumSize = 10000;
+
+		/**
+		 * 缓存有效期，即 pub/sub 失效消息丢失时，其他节点修改缓存用户后本节点最多读到旧值的时间
+		 */
+		private Duration ttl = Duration.ofSeconds(5);
+
+		/**
+		 * 统计输出间隔，支持 1m、PT1M 等 Duration 写法
+		 */
+		private Duration reportInterval = Duration.ofMinutes(1);
+
+		/**
+		 * 异步方法（RedisTokenStore#saveAsync 等）发布失效消息的线程数，发布是阻塞的，不在 Lettuce 的 I/O 线程中执行
+		 */
+		private int asyncPublishThreads = 1;
+
+		/**
+		 * 异步发布失效消息的队列长度，队列满时丢弃消息，其他节点最多在 ttl 后读到新值
+		 */
+		private int asyncPublishQueueCapacity = 10000;
+	}
+
+	/**
+	 * Redis 服务端协助的客户端缓存（CLIENT TRACKING）配置，需要 Redis 6 及以上，与近端缓存二选一
+	 */
+	@Data
+	public static class Tracking implements Serializable {
+
+		private static final long serialVersionUID = -6208154743180923357L;
+
+		/**
+		 * 是否启用，默认不启用
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * 追踪的 key 前缀，只有这些前缀的 key 走本地缓存
+		 */
+		private List<String> prefixes = new ArrayList<>(Collections.singletonList("login_user:"));
+
+		/**
+		 * 最大缓存数量
+		 */
+		private long maximumSize = 10000;
+
+		/**
+		 * 缓存有效期，失效通知丢失时最多读到这段时间内的旧值（如已退出登录的 token 依然有效），不宜设置过长
+		 */
+		private Duration ttl = Duration.ofSeconds(30);
+
+		/**
+		 * 追踪断开后重新建立的间隔，支持 5s、PT5S 等 Duration 写法
+		 */
+		private Duration retryInterval = Duration.ofSeconds(5);
+	}
+}
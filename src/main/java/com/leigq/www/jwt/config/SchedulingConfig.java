@@ -0,0 +1,31 @@
+package com.leigq.www.jwt.config;
+
+import org.springframework.boot.task.TaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * 定时任务配置
+ * <br/>
+ * 定时任务的间隔是绑定为 Duration 的配置项（1m、PT1M 等写法），@Scheduled 的 fixedDelayString 只能解析毫秒数或 ISO-8601 格式，
+ * 所以 RejectedTokenCache 等通过 SchedulingConfigurer 按绑定后的 Duration 注册定时任务。而容器中存在 SchedulingConfigurer 时 Spring Boot 不再自动配置
+ * TaskScheduler，定时任务会退化为单线程执行器、spring.task.scheduling 配置也不再生效，所以这里用 Spring Boot 的 TaskSchedulerBuilder 显式声明
+ *
+ * @author leigq
+ * @date 2026-10-19 11:02:45
+ */
+@Configuration
+public class SchedulingConfig {
+
+	/**
+	 * 定时任务、延迟任务共用的调度器，按 spring.task.scheduling 配置创建
+	 *
+	 * @param builder the builder
+	 * @return the thread pool task scheduler
+	 */
+	@Bean
+	public ThreadPoolTaskScheduler taskScheduler(TaskSchedulerBuilder builder) {
+		return builder.build();
+	}
+}
@@ -0,0 +1,226 @@
+package com.leigq.www.jwt.config.redis;
+
+import com.leigq.www.jwt.bean.CacheLoginUser;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 缓存用户的手写二进制格式，其他类型的值交给 delegate
+ * <br/>
+ * 不写类名和字段名，也不经过反射。格式为：
+ * <p>1. 2 字节头 0xC7 'U'（JSON 以 ASCII 字符开头、Smile 以 ':' 开头，不会冲突）和 1 字节版本号；</p>
+ * <p>2. 1 字节标记，每一位表示对应字段是否为 null；</p>
+ * <p>3. 依次为非 null 的字段，数字为 zigzag 变长整数，字符串为变长整数长度加 UTF-8 字节。</p>
+ * 增加字段时追加在末尾并升级版本号，读取时兼容旧版本。
+ * <br/>
+ * 版本 2 起只保存 token 的 jti 和过期时间；版本 1 没有发布过，不再读取。
+ *
+ * @author leigq
+ * @date 2026-10-18 23:51:24
+ */
+public class CacheLoginUserRedisValueFormat implements RedisValueFormat {
+
+	private static final byte MAGIC_0 = (byte) 0xC7;
+
+	private static final byte MAGIC_1 = 'U';
+
+	private static final byte VERSION = 2;
+
+	private static final int USER_ID = 1;
+
+	private static final int USER_NAME = 1 << 1;
+
+	private static final int MOBILE = 1 << 2;
+
+	private static final int TOKEN_ID = 1 << 3;
+
+	private static final int PREVIOUS_TOKEN_ID = 1 << 4;
+
+	private static final int PREVIOUS_TOKEN_EXPIRES_AT = 1 << 5;
+
+	private static final int TOKEN_EXPIRES_AT = 1 << 6;
+
+	private final RedisValueFormat delegate;
+
+	/**
+	 * Instantiates a new Cache login user redis value format.
+	 *
+	 * @param delegate 其他类型的值使用的格式
+	 */
+	public CacheLoginUserRedisValueFormat(RedisValueFormat delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public boolean recognizes(byte[] bytes) {
+		return isCacheLoginUser(bytes) || delegate.recognizes(bytes);
+	}
+
+	@Override
+	public byte[] serialize(Object value) throws SerializationException {
+		// 子类可能有额外的字段，交给 delegate
+		if (value == null || value.getClass() != CacheLoginUser.class) {
+			return delegate.serialize(value);
+		}
+		final CacheLoginUser user = (CacheLoginUser) value;
+		final byte[] userName = utf8(user.getUserName());
+		final byte[] mobile = utf8(user.getMobile());
+		final byte[] tokenId = utf8(user.getTokenId());
+		final byte[] previousTokenId = utf8(user.getPreviousTokenId());
+		int flags = 0;
+		flags |= user.getUserId() != null ? USER_ID : 0;
+		flags |= userName != null ? USER_NAME : 0;
+		flags |= mobile != null ? MOBILE : 0;
+		flags |= tokenId != null ? TOKEN_ID : 0;
+		flags |= previousTokenId != null ? PREVIOUS_TOKEN_ID : 0;
+		flags |= user.getPreviousTokenExpiresAt() != null ? PREVIOUS_TOKEN_EXPIRES_AT : 0;
+		flags |= user.getTokenExpiresAt() != null ? TOKEN_EXPIRES_AT : 0;
+
+		// 每个字段最多 10 字节长度前缀
+		final Writer writer = new Writer(4 + 7 * 10 + length(userName) + length(mobile) + length(tokenId) + length(previousTokenId));
+		writer.buffer[writer.position++] = MAGIC_0;
+		writer.buffer[writer.position++] = MAGIC_1;
+		writer.buffer[writer.position++] = VERSION;
+		writer.buffer[writer.position++] = (byte) flags;
+		if (user.getUserId() != null) {
+			writer.writeLong(user.getUserId());
+		}
+		writer.writeBytes(userName);
+		writer.writeBytes(mobile);
+		writer.writeBytes(tokenId);
+		writer.writeBytes(previousTokenId);
+		if (user.getPreviousTokenExpiresAt() != null) {
+			writer.writeLong(user.getPreviousTokenExpiresAt());
+		}
+		if (user.getTokenExpiresAt() != null) {
+			writer.writeLong(user.getTokenExpiresAt());
+		}
+		return Arrays.copyOf(writer.buffer, writer.position);
+	}
+
+	@Override
+	public Object deserialize(byte[] bytes) throws SerializationException {
+		if (bytes == null || bytes.length == 0) {
+			return null;
+		}
+		if (!isCacheLoginUser(bytes)) {
+			return delegate.deserialize(bytes);
+		}
+		if (bytes[2] != VERSION) {
+			throw new SerializationException("不支持的缓存用户格式版本：" + bytes[2]);
+		}
+		try {
+			final Reader reader = new Reader(bytes, 4);
+			final int flags = bytes[3];
+			final CacheLoginUser user = new CacheLoginUser();
+			if ((flags & USER_ID) != 0) {
+				user.setUserId(reader.readLong());
+			}
+			if ((flags & USER_NAME) != 0) {
+				user.setUserName(reader.readString());
+			}
+			if ((flags & MOBILE) != 0) {
+				user.setMobile(reader.readString());
+			}
+			if ((flags & TOKEN_ID) != 0) {
+				user.setTokenId(reader.readString());
+			}
+			if ((flags & PREVIOUS_TOKEN_ID) != 0) {
+				user.setPreviousTokenId(reader.readString());
+			}
+			if ((flags & PREVIOUS_TOKEN_EXPIRES_AT) != 0) {
+				user.setPreviousTokenExpiresAt(reader.readLong());
+			}
+			if ((flags & TOKEN_EXPIRES_AT) != 0) {
+				user.setTokenExpiresAt(reader.readLong());
+			}
+			return user;
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new SerializationException("缓存用户数据不完整", e);
+		}
+	}
+
+	private static boolean isCacheLoginUser(byte[] bytes) {
+		return bytes.length >= 4 && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1;
+	}
+
+	private static byte[] utf8(String value) {
+		return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static int length(byte[] value) {
+		return value == null ? 0 : value.length;
+	}
+
+	/**
+	 * 写入，容量在创建时已算好
+	 */
+	private static final class Writer {
+
+		private final byte[] buffer;
+
+		private int position;
+
+		private Writer(int capacity) {
+			this.buffer = new byte[capacity];
+		}
+
+		private void writeLong(long value) {
+			// zigzag，负数也只占少量字节
+			long zigzag = (value << 1) ^ (value >> 63);
+			while ((zigzag & ~0x7FL) != 0L) {
+				buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+				zigzag >>>= 7;
+			}
+			buffer[position++] = (byte) zigzag;
+		}
+
+		private void writeBytes(byte[] value) {
+			if (value == null) {
+				return;
+			}
+			writeLong(value.length);
+			System.arraycopy(value, 0, buffer, position, value.length);
+			position += value.length;
+		}
+	}
+
+	/**
+	 * 读取
+	 */
+	private static final class Reader {
+
+		private final byte[] buffer;
+
+		private int position;
+
+		private Reader(byte[] buffer, int position) {
+			this.buffer = buffer;
+			this.position = position;
+		}
+
+		private long readLong() {
+			long zigzag = 0L;
+			for (int shift = 0; shift < 64; shift += 7) {
+				final byte b = buffer[position++];
+				zigzag |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return (zigzag >>> 1) ^ -(zigzag & 1L);
+				}
+			}
+			throw new SerializationException("缓存用户数据格式错误：变长整数过长");
+		}
+
+		private String readString() {
+			final long length = readLong();
+			if (length < 0 || length > buffer.length - position) {
+				throw new SerializationException("缓存用户数据格式错误：字符串长度 " + length);
+			}
+			final String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+			position += (int) length;
+			return value;
+		}
+	}
+}
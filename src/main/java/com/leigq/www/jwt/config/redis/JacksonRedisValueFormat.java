@@ -0,0 +1,60 @@
+package com.leigq.www.jwt.config.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 基于 Jackson 的格式，JSON 或 Smile（二进制 JSON），取决于 ObjectMapper 的 JsonFactory
+ * <br/>
+ * Smile 会写入固定的头 ":)\n"，按头识别；JSON 没有固定的头，头为空时识别所有值，只能作为最后的兜底
+ *
+ * @author leigq
+ * @date 2026-10-18 23:44:02
+ */
+public class JacksonRedisValueFormat implements RedisValueFormat {
+
+	/**
+	 * Smile 的头
+	 */
+	public static final byte[] SMILE_HEADER = {':', ')', '\n'};
+
+	private final Jackson2JsonRedisSerializer<Object> serializer;
+
+	private final byte[] header;
+
+	/**
+	 * Instantiates a new Jackson redis value format.
+	 *
+	 * @param objectMapper the object mapper
+	 * @param header       值的固定头，没有时传空数组
+	 */
+	public JacksonRedisValueFormat(ObjectMapper objectMapper, byte[] header) {
+		this.serializer = new Jackson2JsonRedisSerializer<>(Object.class);
+		this.serializer.setObjectMapper(objectMapper);
+		this.header = header.clone();
+	}
+
+	@Override
+	public boolean recognizes(byte[] bytes) {
+		if (bytes.length < header.length) {
+			return false;
+		}
+		for (int i = 0; i < header.length; i++) {
+			if (bytes[i] != header[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public byte[] serialize(Object value) throws SerializationException {
+		return serializer.serialize(value);
+	}
+
+	@Override
+	public Object deserialize(byte[] bytes) throws SerializationException {
+		return serializer.deserialize(bytes);
+	}
+}
@@ -0,0 +1,51 @@
+package com.leigq.www.jwt.config.redis;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 写入使用配置的格式，读取时按值的头识别格式，切换 redis-store.serializer 后 Redis 中已有的值依然能读取
+ * <br/>
+ * 已有的值在下次保存时改为新格式，缓存用户最迟在 token 过期后全部迁移完成
+ *
+ * @author leigq
+ * @date 2026-10-18 23:46:37
+ */
+public class MigratingRedisSerializer implements RedisSerializer<Object> {
+
+	private final RedisValueFormat writer;
+
+	private final List<RedisValueFormat> readers;
+
+	/**
+	 * Instantiates a new Migrating redis serializer.
+	 *
+	 * @param writer  写入使用的格式
+	 * @param readers 读取时依次尝试识别的格式，没有固定头的 JSON 放在最后
+	 */
+	public MigratingRedisSerializer(RedisValueFormat writer, List<RedisValueFormat> readers) {
+		this.writer = writer;
+		this.readers = new ArrayList<>(readers);
+	}
+
+	@Override
+	public byte[] serialize(Object value) throws SerializationException {
+		return writer.serialize(value);
+	}
+
+	@Override
+	public Object deserialize(byte[] bytes) throws SerializationException {
+		if (bytes == null || bytes.length == 0) {
+			return null;
+		}
+		for (RedisValueFormat reader : readers) {
+			if (reader.recognizes(bytes)) {
+				return reader.deserialize(bytes);
+			}
+		}
+		throw new SerializationException("无法识别的 Redis 值格式，首字节：" + (bytes[0] & 0xFF));
+	}
+}
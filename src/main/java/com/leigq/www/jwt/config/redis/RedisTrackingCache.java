@@ -0,0 +1,295 @@
+package com.leigq.www.jwt.config.redis;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.leigq.www.jwt.config.RedisStoreProperties;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateAdapter;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.output.IntegerOutput;
+import io.lettuce.core.output.StatusOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Redis 服务端协助的客户端缓存（CLIENT TRACKING），Redis 在缓存的 key 被修改时通知本节点移除
+ * <br/>
+ * 当前使用的 Lettuce 5.3 不支持 RESP3，所以使用 RESP2 的重定向模式：
+ * <p>1. 一个独立的连接订阅 __redis__:invalidate 频道，接收失效通知；</p>
+ * <p>2. 另一个独立的连接执行 CLIENT TRACKING on REDIRECT &lt;订阅连接 id&gt;，使用默认模式，Redis 只追踪这个连接读过的 key，
+ * 所以本地未命中时前缀内的 key 在这个连接上读取。</p>
+ * 不使用广播模式（BCAST）：广播模式下同一轮事件循环内修改的多个 key 合并成一条通知，Lettuce 5.3 按 RESP2 解析时只保留其中一个，
+ * 其余 key 的失效会丢失；默认模式下每个 key 单独通知。
+ * <br/>
+ * 两个连接关闭自动重连，任一连接断开时清空本地缓存并停止使用，直到定时任务重新建立追踪。
+ * 本地缓存的有效期只在失效通知丢失、而连接断开未被发现时起作用，此时最多读到 ttl 时间内的旧值，所以 ttl 不宜设置过长。
+ *
+ * @author leigq
+ * @date 2026-10-18 23:18:44
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "redis-store.tracking", name = "enabled", havingValue = "true")
+public class RedisTrackingCache implements DisposableBean, SchedulingConfigurer {
+
+	/**
+	 * RESP2 重定向模式下的失效通知频道
+	 */
+	static final String INVALIDATE_CHANNEL = "__redis__:invalidate";
+
+	/**
+	 * 追踪连接的编解码，key 按 UTF-8 编码，与 RedisTemplate 的 StringRedisSerializer 一致，值由调用方反序列化
+	 */
+	private static final RedisCodec<String, byte[]> TRACKING_CODEC = RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE);
+
+	private final RedisClient client;
+
+	private final List<String> prefixes;
+
+	private final Cache<String, Object> cache;
+
+	/**
+	 * 追踪断开后重新建立的间隔
+	 */
+	private final Duration retryInterval;
+
+	private volatile StatefulRedisPubSubConnection<String, String> invalidationConnection;
+
+	/**
+	 * 开启了追踪的连接，前缀内的 key 在这个连接上读取
+	 */
+	private volatile StatefulRedisConnection<String, byte[]> trackingConnection;
+
+	/**
+	 * 追踪是否可用，不可用时直接读取 Redis
+	 */
+	private volatile boolean tracking;
+
+	public RedisTrackingCache(RedisProperties redisProperties, RedisStoreProperties redisStoreProperties) {
+		this(redisUri(redisProperties), redisStoreProperties.getTracking());
+	}
+
+	RedisTrackingCache(RedisURI redisUri, RedisStoreProperties.Tracking properties) {
+		this.prefixes = properties.getPrefixes();
+		this.retryInterval = properties.getRetryInterval();
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(properties.getMaximumSize())
+				.expireAfterWrite(properties.getTtl())
+				.recordStats()
+				.build();
+		this.client = RedisClient.create(redisUri);
+		this.client.setOptions(ClientOptions.builder().autoReconnect(false).build());
+		this.client.addListener(new RedisConnectionStateAdapter() {
+			@Override
+			public void onRedisDisconnected(RedisChannelHandler<?, ?> connection) {
+				// 在 Netty 线程中回调，不加锁，只停止使用本地缓存；已主动关闭的旧连接不处理
+				if (connection != trackingConnection && connection != invalidationConnection) {
+					return;
+				}
+				if (tracking) {
+					log.warn("Redis 追踪连接已断开，清空本地缓存，等待重新建立");
+				}
+				tracking = false;
+				cache.invalidateAll();
+			}
+		});
+		start();
+	}
+
+	/**
+	 * key 是否在追踪的前缀中
+	 *
+	 * @param key the key
+	 * @return the boolean
+	 */
+	public boolean matches(String key) {
+		if (!tracking) {
+			return false;
+		}
+		for (String prefix : prefixes) {
+			if (key.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 获取，本地未命中时在追踪连接上读取 Redis，Redis 从此追踪这个 key，不存在时不缓存
+	 *
+	 * @param key        the key
+	 * @param serializer 值的反序列化方式，与写入时一致
+	 * @param loader     追踪不可用时直接读取 Redis
+	 * @return the object
+	 */
+	public Object get(String key, RedisSerializer<?> serializer, Function<String, Object> loader) {
+		final StatefulRedisConnection<String, byte[]> connection = trackingConnection;
+		if (!tracking || Objects.isNull(connection)) {
+			return loader.apply(key);
+		}
+		// Caffeine 在加载期间收到的失效会等加载完成后再移除，不会留下旧值
+		return cache.get(key, k -> serializer.deserialize(connection.sync().get(k)));
+	}
+
+	/**
+	 * 本节点修改了 key，立即移除，不等 Redis 的通知
+	 *
+	 * @param key the key
+	 */
+	public void invalidate(String key) {
+		cache.invalidate(key);
+	}
+
+	/**
+	 * 命中率等统计
+	 *
+	 * @return the cache stats
+	 */
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	/**
+	 * 追踪是否可用
+	 *
+	 * @return the boolean
+	 */
+	public boolean isTracking() {
+		return tracking;
+	}
+
+	/**
+	 * 注册定时重新建立追踪
+	 *
+	 * @param taskRegistrar the task registrar
+	 */
+	@Override
+	public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+		taskRegistrar.addFixedDelayTask(this::retry, retryInterval.toMillis());
+	}
+
+	/**
+	 * 追踪不可用时定时重新建立
+	 */
+	public void retry() {
+		if (!tracking) {
+			start();
+		}
+	}
+
+	/**
+	 * 建立订阅连接和追踪连接
+	 */
+	synchronized void start() {
+		if (tracking) {
+			return;
+		}
+		closeConnections();
+		try {
+			invalidationConnection = client.connectPubSub();
+			// 订阅后只能执行订阅相关的命令，先取连接 id
+			final Long clientId = invalidationConnection.sync().dispatch(CommandType.CLIENT, new IntegerOutput<>(StringCodec.UTF8),
+					new CommandArgs<>(StringCodec.UTF8).add("ID"));
+			invalidationConnection.addListener(new RedisPubSubAdapter<String, String>() {
+				@Override
+				public void message(String channel, String message) {
+					if (!INVALIDATE_CHANNEL.equals(channel)) {
+						return;
+					}
+					// 消息为 null 表示 Redis 执行了 FLUSHALL / FLUSHDB
+					if (Objects.isNull(message)) {
+						cache.invalidateAll();
+					} else {
+						cache.invalidate(message);
+					}
+				}
+			});
+			invalidationConnection.sync().subscribe(INVALIDATE_CHANNEL);
+
+			trackingConnection = client.connect(TRACKING_CODEC);
+			trackingConnection.sync().dispatch(CommandType.CLIENT, new StatusOutput<>(TRACKING_CODEC),
+					new CommandArgs<>(TRACKING_CODEC).add("TRACKING").add("on").add("REDIRECT").add(clientId));
+
+			// 追踪建立前读到的值可能已经过期
+			cache.invalidateAll();
+			tracking = true;
+			log.info("Redis 客户端缓存追踪已建立，前缀：{}", prefixes);
+		} catch (RuntimeException e) {
+			log.warn("Redis 客户端缓存追踪建立失败，暂时直接读取 Redis：{}", e.getMessage());
+			stop();
+		}
+	}
+
+	/**
+	 * 停止使用本地缓存并关闭连接
+	 */
+	synchronized void stop() {
+		tracking = false;
+		cache.invalidateAll();
+		closeConnections();
+	}
+
+	private void closeConnections() {
+		final StatefulRedisConnection<String, byte[]> oldTracking = trackingConnection;
+		final StatefulRedisPubSubConnection<String, String> oldInvalidation = invalidationConnection;
+		// 先置空，关闭时触发的断开回调不再处理
+		trackingConnection = null;
+		invalidationConnection = null;
+		if (Objects.nonNull(oldTracking)) {
+			oldTracking.closeAsync();
+		}
+		if (Objects.nonNull(oldInvalidation)) {
+			oldInvalidation.closeAsync();
+		}
+	}
+
+	@Override
+	public void destroy() {
+		stop();
+		client.shutdown();
+	}
+
+	private static RedisURI redisUri(RedisProperties redisProperties) {
+		// 集群下需要在每个节点上开启追踪并订阅失效消息，这里只支持单节点
+		final RedisProperties.Cluster cluster = redisProperties.getCluster();
+		if (Objects.nonNull(cluster) && Objects.nonNull(cluster.getNodes()) && !cluster.getNodes().isEmpty()) {
+			throw new IllegalStateException("Redis Cluster 不支持 redis-store.tracking，请关闭或改用 redis-store.near-cache");
+		}
+		final RedisURI.Builder builder = RedisURI.builder()
+				.withHost(redisProperties.getHost())
+				.withPort(redisProperties.getPort())
+				.withDatabase(redisProperties.getDatabase())
+				.withSsl(redisProperties.isSsl());
+		if (StringUtils.hasText(redisProperties.getPassword())) {
+			builder.withPassword(redisProperties.getPassword());
+		}
+		final Duration timeout = redisProperties.getTimeout();
+		if (Objects.nonNull(timeout)) {
+			builder.withTimeout(timeout);
+		}
+		return builder.build();
+	}
+}
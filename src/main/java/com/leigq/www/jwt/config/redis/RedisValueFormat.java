@@ -0,0 +1,23 @@
+package com.leigq.www.jwt.config.redis;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Redis 值的序列化格式，通过 redis-store.serializer 选择写入使用的格式
+ * <br/>
+ * 读取时不依赖配置，按 {@link #recognizes(byte[])} 识别值是哪种格式写入的，切换格式后旧格式的值依然能读取，
+ * 见 {@link MigratingRedisSerializer}
+ *
+ * @author leigq
+ * @date 2026-10-18 23:42:15
+ */
+public interface RedisValueFormat extends RedisSerializer<Object> {
+
+	/**
+	 * 是否是本格式写入的值
+	 *
+	 * @param bytes 非空的值
+	 * @return the boolean
+	 */
+	boolean recognizes(byte[] bytes);
+}
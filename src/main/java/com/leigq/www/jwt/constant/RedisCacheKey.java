@@ -2,6 +2,9 @@ package com.leigq.www.jwt.constant;
 
 /**
  * Redis Cache Key
+ * <br/>
+ * 与用户相关的 key 中 userId 放在 {} 中（hash tag），Redis Cluster 只按 {} 中的内容计算槽位，
+ * 同一用户的 key 都在同一个槽位，多 key 命令和 Lua 脚本可以同时操作它们
  *
  * @author leigq
  * @date 2021-04-12 12:30:32
@@ -12,6 +15,39 @@ public interface RedisCacheKey {
 	 * 第一个 %s = userId
 	 * 第二个 %s = Scope
 	 */
-	String CACHE_USER_KEY_FORMAT = "login_user:%s:%s";
+	String CACHE_USER_KEY_FORMAT = "login_user:{%s}:%s";
+
+	/**
+	 * redis-store.layout = hash 时每个用户一个 hash，field 为平台
+	 * %s = userId
+	 */
+	String CACHE_USERS_KEY_FORMAT = "login_users:{%s}";
+
+	/**
+	 * 缓存用户失效的 pub/sub 频道，消息为 节点id|userId|Platform 枚举名
+	 */
+	String CACHE_USER_INVALIDATE_CHANNEL = "login_user:invalidate";
+
+	/**
+	 * 同一平台重新登录、之前的登录被踢下线的 pub/sub 频道，消息为 userId|Platform 枚举名
+	 */
+	String CACHE_USER_KICK_CHANNEL = "login_user:kick";
+
+	/**
+	 * 滑动续期锁，同一用户同一平台同时只有一个请求续期
+	 * 第一个 %s = userId
+	 * 第二个 %s = Scope
+	 */
+	String RENEW_LOCK_KEY_FORMAT = "renew_lock:{%s}:%s";
+
+	/**
+	 * 已撤销的 jti，ZSET，score 为 token 过期时间（毫秒）
+	 */
+	String REVOKED_JTI_KEY = "revoked_jti";
+
+	/**
+	 * 撤销 jti 的 pub/sub 频道，消息为 jti|过期时间（毫秒）
+	 */
+	String REVOKED_JTI_CHANNEL = "revoked_jti";
 
 }
@@ -0,0 +1,51 @@
+package com.leigq.www.jwt.controller;
+
+import com.leigq.www.jwt.annotation.PassToken;
+import com.leigq.www.jwt.config.JwtProperties;
+import com.leigq.www.jwt.token.JwtKey;
+import com.leigq.www.jwt.token.JwtKeyRegistry;
+import com.leigq.www.jwt.token.Jwks;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * JWKS Controller，发布验证 token 所需的公钥，下游服务按 kid 取公钥在本地验证 token
+ *
+ * @author leigq
+ * @date 2026-10-18 14:45:37
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+	private final JwtKeyRegistry jwtKeyRegistry;
+
+	private final JwtProperties jwtProperties;
+
+	/**
+	 * 公钥集合 @PassToken 注解，不会被拦截器拦截
+	 * <br/>
+	 * 响应带 Cache-Control 和 ETag，密钥未变化时条件请求返回 304
+	 *
+	 * @return the jwk set
+	 */
+	@PassToken
+	@GetMapping("/.well-known/jwks.json")
+	public ResponseEntity<Map<String, Object>> jwks() {
+		final List<JwtKey> keys = jwtKeyRegistry.publishedKeys();
+		final String kids = keys.stream().map(JwtKey::getKid).collect(Collectors.joining(","));
+		return ResponseEntity.ok()
+				.cacheControl(CacheControl.maxAge(jwtProperties.getJwksMaxAge()).cachePublic())
+				.eTag(DigestUtils.md5DigestAsHex(kids.getBytes(StandardCharsets.UTF_8)))
+				.body(Jwks.toJwkSet(keys));
+	}
+}
@@ -1,12 +1,12 @@
 package com.leigq.www.jwt.controller;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
-import com.auth0.jwt.interfaces.DecodedJWT;
 import com.leigq.www.jwt.annotation.PassToken;
 import com.leigq.www.jwt.bean.Response;
 import com.leigq.www.jwt.bean.UserContext;
 import com.leigq.www.jwt.entity.User;
 import com.leigq.www.jwt.service.UserService;
+import com.leigq.www.jwt.token.TokenClaims;
 import com.leigq.www.jwt.util.IpUtils;
 import com.leigq.www.jwt.util.JwtUtils;
 import lombok.extern.slf4j.Slf4j;
@@ -66,6 +66,8 @@ public class UserController {
 
 	/**
 	 * 刷新 token @PassToken 注解，不会被拦截器拦截
+	 * <br/>
+	 * 启用滑动续期（jwt.renewal.enabled）后，token 在有效期内的请求中就会自动续期，只有长时间未访问、token 已过期时才需要调用
 	 *
 	 * @return the user
 	 */
@@ -87,16 +89,16 @@ public class UserController {
 			}
 
 			// 解析 refreshToken
-			final DecodedJWT decodedJwt = JwtUtils.parse(refreshToken);
+			final TokenClaims claims = JwtUtils.claims(refreshToken);
 
 			// 获取用户id
-			final String userId = decodedJwt.getSubject();
+			final String userId = claims.getSubject();
 
 			// 获取 userName
-			final String userName = decodedJwt.getAudience().get(0);
+			final String userName = claims.getAudience();
 
 			// 获取ip
-			final String ip = decodedJwt.getClaims().get("ip").asString();
+			final String ip = claims.getIp();
 
 			if (!IpUtils.realIp(request).equals(ip)) {
 				return Response.fail("refreshToken无效，请重新登录");
@@ -0,0 +1,21 @@
+package com.leigq.www.jwt.enums;
+
+/**
+ * jwt ID（jti）生成策略
+ *
+ * @author leigq
+ * @date 2026-10-18 16:20:13
+ */
+public enum JtiStrategy {
+
+	/**
+	 * 时间 + 节点 id + 序号，无锁，不依赖 SecureRandom，默认使用
+	 */
+	TIME,
+
+	/**
+	 * 128 位强随机数，不暴露签发时间和节点信息
+	 */
+	RANDOM,
+	;
+}
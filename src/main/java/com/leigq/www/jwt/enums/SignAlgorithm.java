@@ -0,0 +1,102 @@
+package com.leigq.www.jwt.enums;
+
+import com.auth0.jwt.algorithms.Algorithm;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+
+/**
+ * jwt 签名算法
+ * <br/>
+ * HS256 使用共享密钥，验证方也必须持有签名密钥；RS256、ES256 使用公私钥，验证方只需持有公钥
+ *
+ * @author leigq
+ * @date 2026-10-18 13:05:40
+ */
+@AllArgsConstructor
+@Getter
+public enum SignAlgorithm {
+
+	/**
+	 * HMAC + SHA256，共享密钥
+	 */
+	HS256(null),
+
+	/**
+	 * RSASSA-PKCS1-v1_5 + SHA256
+	 */
+	RS256("RSA"),
+
+	/**
+	 * ECDSA P-256 + SHA256
+	 */
+	ES256("EC"),
+	;
+
+	/**
+	 * 密钥类型，用于 KeyFactory，HS256 没有公私钥为 null
+	 */
+	private final String keyType;
+
+	/**
+	 * 是否是非对称算法
+	 *
+	 * @return the boolean
+	 */
+	public boolean isAsymmetric() {
+		return keyType != null;
+	}
+
+	/**
+	 * 根据公钥类型获取对应的非对称算法
+	 *
+	 * @param publicKey 公钥
+	 * @return the sign algorithm
+	 */
+	public static SignAlgorithm of(PublicKey publicKey) {
+		if (publicKey instanceof RSAPublicKey) {
+			return RS256;
+		}
+		if (publicKey instanceof ECPublicKey) {
+			return ES256;
+		}
+		throw new IllegalArgumentException("不支持的公钥类型：" + publicKey.getAlgorithm());
+	}
+
+	/**
+	 * 根据公私钥构建签名算法
+	 *
+	 * @param publicKey  公钥
+	 * @param privateKey 私钥，只用于验证时可以为 null
+	 * @return the algorithm
+	 */
+	public Algorithm create(PublicKey publicKey, PrivateKey privateKey) {
+		switch (this) {
+			case RS256:
+				return Algorithm.RSA256((RSAPublicKey) publicKey, (RSAPrivateKey) privateKey);
+			case ES256:
+				return Algorithm.ECDSA256((ECPublicKey) publicKey, (ECPrivateKey) privateKey);
+			default:
+				throw new IllegalArgumentException(this + " 不是非对称算法");
+		}
+	}
+
+	/**
+	 * 根据共享密钥构建签名算法
+	 *
+	 * @param secret 密钥
+	 * @return the algorithm
+	 */
+	public Algorithm create(String secret) {
+		if (this != HS256) {
+			throw new IllegalArgumentException(this + " 不是对称算法");
+		}
+		return Algorithm.HMAC256(secret);
+	}
+}
@@ -0,0 +1,21 @@
+package com.leigq.www.jwt.enums;
+
+/**
+ * token 编码格式
+ *
+ * @author leigq
+ * @date 2026-10-18 17:02:36
+ */
+public enum TokenFormat {
+
+	/**
+	 * 标准 JWT，JSON 头部和负载
+	 */
+	JWT,
+
+	/**
+	 * 紧凑二进制格式，c1.负载.签名，负载为定长字段的二进制编码，体积更小、解析更快，只有本服务能解析
+	 */
+	COMPACT,
+	;
+}
@@ -1,15 +1,39 @@
 package com.leigq.www.jwt.service;
 
 import com.leigq.www.jwt.bean.CacheLoginUser;
+import com.leigq.www.jwt.config.redis.RedisTrackingCache;
 import com.leigq.www.jwt.constant.RedisCacheKey;
 import com.leigq.www.jwt.enums.Platform;
 import com.leigq.www.jwt.util.RedisUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 /**
  * RedisTokenStore
+ * <br/>
+ * 同步方法与 xxxAsync 方法对客户端缓存（redis-store.tracking）的处理不对称：getAsync 不读客户端缓存，直接读 Redis；
+ * saveAsync、delAsync 与同步方法一样移除本节点客户端缓存中的值，保证之后的同步读取不会读到旧值。
+ * 只使用异步方法读取时客户端缓存没有作用，可改用近端缓存（redis-store.near-cache），异步读取会先读近端缓存。
  *
  * @author leigq
  * @date 2021-04-12 12:42:26
@@ -18,9 +42,63 @@ import org.springframework.stereotype.Service;
 @Service
 public class RedisTokenStore {
 
+	/**
+	 * KEYS[1] = 缓存用户，ARGV[1] = 缓存用户，ARGV[2] = 有效期（毫秒），0 为不过期，
+	 * 之前的缓存用户存在时向 ARGV[3] 频道发布 ARGV[4]（踢下线消息），ARGV[5] 不为空时向其发布 ARGV[6]（近端缓存失效消息）
+	 */
+	private static final RedisScript<byte[]> LOGIN_SCRIPT = new DefaultRedisScript<>(
+			"local previous = redis.call('GET', KEYS[1])\n" +
+			"if tonumber(ARGV[2]) > 0 then\n" +
+			"  redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])\n" +
+			"else\n" +
+			"  redis.call('SET', KEYS[1], ARGV[1])\n" +
+			"end\n" +
+			"if previous then redis.call('PUBLISH', ARGV[3], ARGV[4]) end\n" +
+			"if ARGV[5] ~= '' then redis.call('PUBLISH', ARGV[5], ARGV[6]) end\n" +
+			"return previous", byte[].class);
+
+	private static final byte[] EMPTY = new byte[0];
+
+	private static final byte[] KICK_CHANNEL = utf8(RedisCacheKey.CACHE_USER_KICK_CHANNEL);
+
+	private static final byte[] INVALIDATE_CHANNEL = utf8(RedisCacheKey.CACHE_USER_INVALIDATE_CHANNEL);
+
 	@Autowired
 	private RedisUtils redisUtils;
 
+	/**
+	 * key 为 byte[] 的 redisTemplate，缓存用户的读写使用 SessionKeyCodec 编码的 key
+	 */
+	@Autowired
+	@Qualifier("sessionRedisTemplate")
+	private RedisTemplate<byte[], Object> sessionRedisTemplate;
+
+	/**
+	 * 非阻塞版本，xxxAsync 方法使用
+	 */
+	@Autowired
+	@Qualifier("reactiveSessionRedisTemplate")
+	private ReactiveRedisTemplate<byte[], Object> reactiveSessionRedisTemplate;
+
+	/**
+	 * Redis 服务端协助的客户端缓存，redis-store.tracking.enabled = true 时启用，
+	 * 客户端缓存以 String 为 key，此时缓存用户的读写改为经过 RedisUtils
+	 */
+	@Autowired(required = false)
+	private RedisTrackingCache trackingCache;
+
+	/**
+	 * 本地近端缓存，redis-store.near-cache.enabled = true 时启用
+	 */
+	@Autowired(required = false)
+	private SessionNearCache nearCache;
+
+	/**
+	 * 每个用户一个 hash 的存储结构，redis-store.layout = hash 时启用
+	 */
+	@Autowired(required = false)
+	private SessionHashStore hashStore;
+
 
 	/**
 	 * Save boolean.
@@ -31,7 +109,56 @@ public class RedisTokenStore {
 	 * @return the boolean
 	 */
 	public boolean save(CacheLoginUser cacheUser, Platform scope, int expiresIn) {
-		return redisUtils.string.set(String.format(RedisCacheKey.CACHE_USER_KEY_FORMAT, cacheUser.getUserId(), scope.getPlatform()), cacheUser, expiresIn);
+		final Boolean saved;
+		if (Objects.nonNull(hashStore)) {
+			hashStore.save(cacheUser, scope, expiresIn);
+			saved = true;
+		} else {
+			saved = setUser(cacheUser, scope, expiresIn);
+		}
+		if (Objects.nonNull(nearCache)) {
+			nearCache.saved(cacheUser, scope);
+		}
+		return saved;
+	}
+
+
+	/**
+	 * 登录：保存并返回同一平台之前的缓存用户，一个 Lua 脚本完成，一次网络往返
+	 * <br/>
+	 * 取出旧值和写入新值是原子的，同一平台并发登录时只有一个能取到之前的缓存用户，不会丢失更新；
+	 * 之前的缓存用户存在时发布踢下线消息（{@link RedisCacheKey#CACHE_USER_KICK_CHANNEL}），
+	 * 启用近端缓存时近端缓存的失效消息也在脚本中发布。
+	 *
+	 * @param cacheUser the cache user
+	 * @param scope     the scope
+	 * @param expiresIn the expires in
+	 * @return 之前的缓存用户，不存在则返回 null
+	 */
+	public CacheLoginUser login(CacheLoginUser cacheUser, Platform scope, int expiresIn) {
+		final String invalidation = Objects.nonNull(nearCache) ? nearCache.invalidation(cacheUser.getUserId(), scope) : null;
+		final CacheLoginUser previous;
+		if (Objects.nonNull(hashStore)) {
+			previous = hashStore.login(cacheUser, scope, expiresIn, invalidation);
+		} else {
+			invalidateTracked(cacheUser.getUserId(), scope);
+			previous = loginUser(cacheUser, scope, expiresIn, invalidation);
+		}
+		if (Objects.nonNull(nearCache)) {
+			nearCache.loggedIn(cacheUser, scope);
+		}
+		return previous;
+	}
+
+	@SuppressWarnings("unchecked")
+	private CacheLoginUser loginUser(CacheLoginUser cacheUser, Platform scope, int expiresIn, String invalidation) {
+		final RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) sessionRedisTemplate.getValueSerializer();
+		final byte[] previous = sessionRedisTemplate.execute(LOGIN_SCRIPT, RedisSerializer.byteArray(), RedisSerializer.byteArray(),
+				Collections.singletonList(SessionKeyCodec.userKey(cacheUser.getUserId(), scope)),
+				valueSerializer.serialize(cacheUser), utf8(Long.toString(Math.max(0, expiresIn) * 1000L)),
+				KICK_CHANNEL, utf8(cacheUser.getUserId() + "|" + scope.name()),
+				Objects.isNull(invalidation) ? EMPTY : INVALIDATE_CHANNEL, Objects.isNull(invalidation) ? EMPTY : utf8(invalidation));
+		return (CacheLoginUser) valueSerializer.deserialize(previous);
 	}
 
 
@@ -43,10 +170,203 @@ public class RedisTokenStore {
 	 * @return the boolean
 	 */
 	public CacheLoginUser get(long userId, Platform scope) {
-		return redisUtils.string.get(String.format(RedisCacheKey.CACHE_USER_KEY_FORMAT, userId, scope.getPlatform()));
+		if (Objects.nonNull(nearCache)) {
+			return nearCache.get(userId, scope, () -> load(userId, scope));
+		}
+		return load(userId, scope);
+	}
+
+	private CacheLoginUser load(long userId, Platform scope) {
+		if (Objects.nonNull(hashStore)) {
+			return hashStore.get(userId, scope);
+		}
+		if (Objects.nonNull(trackingCache)) {
+			return redisUtils.string.get(SessionKeyCodec.userKeyString(userId, scope));
+		}
+		return (CacheLoginUser) sessionRedisTemplate.opsForValue().get(SessionKeyCodec.userKey(userId, scope));
+	}
+
+	private boolean setUser(CacheLoginUser cacheUser, Platform scope, int expiresIn) {
+		if (Objects.nonNull(trackingCache)) {
+			return redisUtils.string.set(SessionKeyCodec.userKeyString(cacheUser.getUserId(), scope), cacheUser, expiresIn);
+		}
+		try {
+			final byte[] key = SessionKeyCodec.userKey(cacheUser.getUserId(), scope);
+			if (expiresIn > 0) {
+				sessionRedisTemplate.opsForValue().set(key, cacheUser, expiresIn, TimeUnit.SECONDS);
+			} else {
+				sessionRedisTemplate.opsForValue().set(key, cacheUser);
+			}
+			return true;
+		} catch (Exception ex) {
+			log.error("缓存用户放入异常：", ex);
+			return false;
+		}
+	}
+
+	/**
+	 * 异步获取，基于 Lettuce 的非阻塞 API，调用线程不等待 Redis 响应
+	 * <br/>
+	 * 近端缓存命中时直接返回；未命中时加载结果不放入近端缓存，避免加载期间收到的失效消息被覆盖。
+	 * 不经过客户端缓存（redis-store.tracking）。回调在 Lettuce 的 I/O 线程中执行，不要在回调中执行阻塞操作。
+	 *
+	 * @param userId the user id
+	 * @param scope  the scope
+	 * @return 不存在时为 null
+	 */
+	public CompletableFuture<CacheLoginUser> getAsync(long userId, Platform scope) {
+		if (Objects.nonNull(nearCache)) {
+			final CacheLoginUser cached = nearCache.getIfPresent(userId, scope);
+			if (Objects.nonNull(cached)) {
+				return CompletableFuture.completedFuture(cached);
+			}
+		}
+		if (Objects.nonNull(hashStore)) {
+			return hashStore.getAsync(userId, scope);
+		}
+		return reactiveSessionRedisTemplate.opsForValue().get(SessionKeyCodec.userKey(userId, scope))
+				.cast(CacheLoginUser.class)
+				.toFuture();
+	}
+
+
+	/**
+	 * 异步保存，见 {@link #getAsync(long, Platform)}
+	 *
+	 * @param cacheUser the cache user
+	 * @param scope     the scope
+	 * @param expiresIn the expires in
+	 * @return 是否成功
+	 */
+	public CompletableFuture<Boolean> saveAsync(CacheLoginUser cacheUser, Platform scope, int expiresIn) {
+		final CompletableFuture<Boolean> saved;
+		if (Objects.nonNull(hashStore)) {
+			saved = hashStore.saveAsync(cacheUser, scope, expiresIn);
+		} else {
+			invalidateTracked(cacheUser.getUserId(), scope);
+			final byte[] key = SessionKeyCodec.userKey(cacheUser.getUserId(), scope);
+			saved = (expiresIn > 0
+					? reactiveSessionRedisTemplate.opsForValue().set(key, cacheUser, Duration.ofSeconds(expiresIn))
+					: reactiveSessionRedisTemplate.opsForValue().set(key, cacheUser)).toFuture();
+		}
+		if (Objects.nonNull(nearCache)) {
+			// 通知其他节点会阻塞，交给近端缓存的发布线程，不在 Lettuce 的 I/O 线程中执行
+			return saved.thenApply(result -> {
+				nearCache.savedAsync(cacheUser, scope);
+				return result;
+			});
+		}
+		return saved;
+	}
+
+
+	/**
+	 * 异步删除，见 {@link #getAsync(long, Platform)}
+	 *
+	 * @param userId the user id
+	 * @param scope  the scope
+	 * @return 存在并已删除时为 true
+	 */
+	public CompletableFuture<Boolean> delAsync(long userId, Platform scope) {
+		final CompletableFuture<Boolean> deleted;
+		if (Objects.nonNull(hashStore)) {
+			deleted = hashStore.delAsync(userId, scope);
+		} else {
+			invalidateTracked(userId, scope);
+			deleted = reactiveSessionRedisTemplate.delete(SessionKeyCodec.userKey(userId, scope))
+					.map(count -> count > 0)
+					.toFuture();
+		}
+		if (Objects.nonNull(nearCache)) {
+			return deleted.thenApply(result -> {
+				nearCache.deletedAsync(userId, scope);
+				return result;
+			});
+		}
+		return deleted;
+	}
+
+	private void invalidateTracked(long userId, Platform scope) {
+		if (Objects.nonNull(trackingCache)) {
+			trackingCache.invalidate(SessionKeyCodec.userKeyString(userId, scope));
+		}
+	}
+
+
+	/**
+	 * 获取用户所有平台的缓存用户，一条命令（HGETALL 或 MGET），不经过近端缓存
+	 *
+	 * @param userId the user id
+	 * @return 平台 -> 缓存用户，不包含不存在的平台
+	 */
+	public Map<Platform, CacheLoginUser> getAll(long userId) {
+		if (Objects.nonNull(hashStore)) {
+			return hashStore.getAll(userId);
+		}
+		final Platform[] platforms = Platform.values();
+		final List<Object> values = multiGet(SessionKeyCodec.userKeys(userId));
+		final Map<Platform, CacheLoginUser> users = new EnumMap<>(Platform.class);
+		for (int i = 0; i < values.size() && i < platforms.length; i++) {
+			if (Objects.nonNull(values.get(i))) {
+				users.put(platforms[i], (CacheLoginUser) values.get(i));
+			}
+		}
+		return users;
+	}
+
+
+	/**
+	 * 批量获取多个用户所有平台的缓存用户，一次网络往返（MGET 或管道中的 HGETALL），不经过近端缓存
+	 *
+	 * @param userIds the user ids
+	 * @return userId -> (平台 -> 缓存用户)，与 userIds 顺序一致
+	 */
+	public Map<Long, Map<Platform, CacheLoginUser>> getAll(Collection<Long> userIds) {
+		if (Objects.nonNull(hashStore)) {
+			return hashStore.getAll(userIds);
+		}
+		final Platform[] platforms = Platform.values();
+		final List<byte[]> cacheKeys = new ArrayList<>(userIds.size() * platforms.length);
+		userIds.forEach(userId -> cacheKeys.addAll(SessionKeyCodec.userKeys(userId)));
+		final List<Object> values = multiGet(cacheKeys);
+		final Map<Long, Map<Platform, CacheLoginUser>> users = new LinkedHashMap<>(userIds.size() * 2);
+		int i = 0;
+		for (Long userId : userIds) {
+			final Map<Platform, CacheLoginUser> platformUsers = new EnumMap<>(Platform.class);
+			for (Platform platform : platforms) {
+				final CacheLoginUser value = i < values.size() ? (CacheLoginUser) values.get(i) : null;
+				i++;
+				if (Objects.nonNull(value)) {
+					platformUsers.put(platform, value);
+				}
+			}
+			users.put(userId, platformUsers);
+		}
+		return users;
+	}
+
+	private List<Object> multiGet(List<byte[]> cacheKeys) {
+		if (cacheKeys.isEmpty()) {
+			return Collections.emptyList();
+		}
+		final List<Object> values = sessionRedisTemplate.opsForValue().multiGet(cacheKeys);
+		return Objects.isNull(values) ? Collections.emptyList() : values;
 	}
 
 
+    /**
+     * 获取滑动续期锁，锁在 lockSeconds 后自动释放
+     *
+     * @param userId      the user id
+     * @param scope       the scope
+     * @param lockSeconds 锁定时间，单位：秒
+     * @return 获取成功返回 true
+     */
+    public boolean lockRenewal(long userId, Platform scope, long lockSeconds) {
+        return redisUtils.string.setIfAbsent(String.format(RedisCacheKey.RENEW_LOCK_KEY_FORMAT, userId, scope.getPlatform()), 1, lockSeconds);
+    }
+
+
     /**
      * delete
      *
@@ -55,7 +375,78 @@ public class RedisTokenStore {
      * @return the boolean
      */
     public Boolean del(long userId, Platform scope) {
-        return redisUtils.common.delete(String.format(RedisCacheKey.CACHE_USER_KEY_FORMAT, userId, scope.getPlatform()));
+        final Boolean deleted;
+        if (Objects.nonNull(hashStore)) {
+            deleted = hashStore.del(userId, scope);
+        } else if (Objects.nonNull(trackingCache)) {
+            deleted = redisUtils.common.delete(SessionKeyCodec.userKeyString(userId, scope));
+        } else {
+            deleted = sessionRedisTemplate.delete(SessionKeyCodec.userKey(userId, scope));
+        }
+        if (Objects.nonNull(nearCache)) {
+            nearCache.deleted(userId, scope);
+        }
+        return deleted;
+    }
+
+
+    /**
+     * 删除用户所有平台的缓存用户，即踢下线所有设备，一条 DEL，启用近端缓存时再发布一条失效消息
+     *
+     * @param userId the user id
+     * @return 至少删除了一个平台时返回 true
+     */
+    public Boolean delAll(long userId) {
+        final Boolean deleted;
+        if (Objects.nonNull(hashStore)) {
+            deleted = hashStore.delAll(userId);
+        } else {
+            final Long count = deleteUsers(Collections.singletonList(userId));
+            deleted = Objects.nonNull(count) && count > 0;
+        }
+        if (Objects.nonNull(nearCache)) {
+            nearCache.deletedAll(Collections.singletonList(userId));
+        }
+        return deleted;
+    }
+
+
+    /**
+     * 删除多个用户所有平台的缓存用户，如批量踢下线，一条 DEL，启用近端缓存时再发布一条失效消息
+     *
+     * @param userIds the user ids
+     * @return 删除的 key 数（hash 结构下为用户数）
+     */
+    public Long delAll(Collection<Long> userIds) {
+        final Long deleted;
+        if (Objects.nonNull(hashStore)) {
+            deleted = hashStore.delAll(userIds);
+        } else {
+            deleted = deleteUsers(userIds);
+        }
+        if (Objects.nonNull(nearCache)) {
+            nearCache.deletedAll(userIds);
+        }
+        return deleted;
+    }
+
+
+    /**
+     * 一条 DEL 删除用户所有平台的 key，启用客户端缓存时先移除本节点的缓存，不等 Redis 的失效通知
+     */
+    private Long deleteUsers(Collection<Long> userIds) {
+        final List<byte[]> cacheKeys = new ArrayList<>(userIds.size() * Platform.values().length);
+        for (Long userId : userIds) {
+            cacheKeys.addAll(SessionKeyCodec.userKeys(userId));
+            for (Platform platform : Platform.values()) {
+                invalidateTracked(userId, platform);
+            }
+        }
+        return cacheKeys.isEmpty() ? Long.valueOf(0L) : sessionRedisTemplate.delete(cacheKeys);
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
     }
 
 }
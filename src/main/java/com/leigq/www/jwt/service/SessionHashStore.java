@@ -0,0 +1,332 @@
+package com.leigq.www.jwt.service;
+
+import com.leigq.www.jwt.bean.CacheLoginUser;
+import com.leigq.www.jwt.constant.RedisCacheKey;
+import com.leigq.www.jwt.enums.Platform;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 每个用户一个 hash 保存所有平台的缓存用户，redis-store.layout = hash 时 RedisTokenStore 使用
+ * <br/>
+ * key 为 login_users:{userId}，每个平台两个 field：平台名为缓存用户，平台名:exp 为过期时间（毫秒），0 表示不过期。
+ * Redis 7.4 之前 hash 的 field 不能单独设置过期时间，所以：
+ * <p>1. 读取时同时取过期时间 field，已过期的视为不存在；</p>
+ * <p>2. 保存时顺便删除已过期的平台，并把整个 hash 的过期时间设为各平台中最晚的过期时间，有不过期的平台时 hash 不过期。</p>
+ * 取出、踢下线某个用户的所有设备都只需一条命令（HGETALL / DEL）。
+ * <br/>
+ * 登录时同一个脚本还会返回同一平台之前的缓存用户、发布踢下线消息和近端缓存失效消息，一次网络往返。
+ *
+ * @author leigq
+ * @date 2026-10-19 00:12:36
+ */
+@Component
+@ConditionalOnProperty(prefix = "redis-store", name = "layout", havingValue = "hash")
+public class SessionHashStore {
+
+	private static final String EXPIRES_AT_SUFFIX = ":exp";
+
+	/**
+	 * KEYS[1] = hash，ARGV[1] = 平台，ARGV[2] = 缓存用户，ARGV[3] = 过期时间（毫秒，0 表示不过期），ARGV[4] = 当前时间（毫秒），
+	 * ARGV[5] = 1 时返回之前未过期的缓存用户，并在存在时向 ARGV[6] 频道发布 ARGV[7]（踢下线消息），
+	 * ARGV[8] 不为空时向其发布 ARGV[9]（近端缓存失效消息）
+	 */
+	private static final RedisScript<byte[]> SAVE_SCRIPT = new DefaultRedisScript<>(
+			"local previous = false\n" +
+			"if ARGV[5] == '1' then\n" +
+			"  local old = redis.call('HMGET', KEYS[1], ARGV[1], ARGV[1] .. '" + EXPIRES_AT_SUFFIX + "')\n" +
+			"  if old[1] and old[2] and (tonumber(old[2]) == 0 or tonumber(old[2]) > tonumber(ARGV[4])) then previous = old[1] end\n" +
+			"end\n" +
+			"redis.call('HSET', KEYS[1], ARGV[1], ARGV[2], ARGV[1] .. '" + EXPIRES_AT_SUFFIX + "', ARGV[3])\n" +
+			"local latest = 0\n" +
+			"local persistent = false\n" +
+			"local fields = redis.call('HGETALL', KEYS[1])\n" +
+			"for i = 1, #fields, 2 do\n" +
+			"  local field = fields[i]\n" +
+			"  if string.sub(field, -" + EXPIRES_AT_SUFFIX.length() + ") == '" + EXPIRES_AT_SUFFIX + "' then\n" +
+			"    local expiresAt = tonumber(fields[i + 1])\n" +
+			"    if expiresAt == 0 then\n" +
+			"      persistent = true\n" +
+			"    elseif expiresAt <= tonumber(ARGV[4]) then\n" +
+			"      redis.call('HDEL', KEYS[1], field, string.sub(field, 1, -" + (EXPIRES_AT_SUFFIX.length() + 1) + "))\n" +
+			"    elseif expiresAt > latest then\n" +
+			"      latest = expiresAt\n" +
+			"    end\n" +
+			"  end\n" +
+			"end\n" +
+			"if persistent then redis.call('PERSIST', KEYS[1]) else redis.call('PEXPIREAT', KEYS[1], latest) end\n" +
+			"if previous then redis.call('PUBLISH', ARGV[6], ARGV[7]) end\n" +
+			"if ARGV[8] ~= '' then redis.call('PUBLISH', ARGV[8], ARGV[9]) end\n" +
+			"return previous", byte[].class);
+
+	private static final byte[] EMPTY = new byte[0];
+
+	private static final byte[] KICK_CHANNEL = utf8(RedisCacheKey.CACHE_USER_KICK_CHANNEL);
+
+	private static final byte[] INVALIDATE_CHANNEL = utf8(RedisCacheKey.CACHE_USER_INVALIDATE_CHANNEL);
+
+	/**
+	 * 每个平台预先编码好的 field：平台名、平台名:exp
+	 */
+	private static final Map<Platform, byte[]> FIELDS = new EnumMap<>(Platform.class);
+
+	private static final Map<Platform, byte[]> EXPIRES_AT_FIELDS = new EnumMap<>(Platform.class);
+
+	static {
+		for (Platform platform : Platform.values()) {
+			FIELDS.put(platform, utf8(platform.getPlatform()));
+			EXPIRES_AT_FIELDS.put(platform, utf8(platform.getPlatform() + EXPIRES_AT_SUFFIX));
+		}
+	}
+
+	private final RedisTemplate<byte[], Object> redisTemplate;
+
+	private final ReactiveRedisTemplate<byte[], Object> reactiveRedisTemplate;
+
+	private final RedisSerializer<Object> valueSerializer;
+
+	@SuppressWarnings("unchecked")
+	public SessionHashStore(@Qualifier("sessionRedisTemplate") RedisTemplate<byte[], Object> redisTemplate,
+							@Qualifier("reactiveSessionRedisTemplate") ReactiveRedisTemplate<byte[], Object> reactiveRedisTemplate) {
+		this.redisTemplate = redisTemplate;
+		this.reactiveRedisTemplate = reactiveRedisTemplate;
+		this.valueSerializer = (RedisSerializer<Object>) redisTemplate.getHashValueSerializer();
+	}
+
+	/**
+	 * 保存
+	 *
+	 * @param cacheUser the cache user
+	 * @param scope     the scope
+	 * @param expiresIn 有效期，单位：秒，小于等于 0 时不过期
+	 */
+	public void save(CacheLoginUser cacheUser, Platform scope, int expiresIn) {
+		final List<byte[]> args = args(cacheUser, scope, expiresIn, false, null);
+		redisTemplate.execute(SAVE_SCRIPT, RedisSerializer.byteArray(), RedisSerializer.byteArray(),
+				Collections.singletonList(SessionKeyCodec.usersKey(cacheUser.getUserId())), args.toArray());
+	}
+
+	/**
+	 * 登录：保存并返回同一平台之前的缓存用户，之前的缓存用户存在时发布踢下线消息，一次网络往返
+	 *
+	 * @param cacheUser    the cache user
+	 * @param scope        the scope
+	 * @param expiresIn    有效期，单位：秒，小于等于 0 时不过期
+	 * @param invalidation 近端缓存失效消息，未启用近端缓存时为 null
+	 * @return 之前未过期的缓存用户，不存在则返回 null
+	 */
+	public CacheLoginUser login(CacheLoginUser cacheUser, Platform scope, int expiresIn, String invalidation) {
+		final List<byte[]> args = args(cacheUser, scope, expiresIn, true, invalidation);
+		final byte[] previous = redisTemplate.execute(SAVE_SCRIPT, RedisSerializer.byteArray(), RedisSerializer.byteArray(),
+				Collections.singletonList(SessionKeyCodec.usersKey(cacheUser.getUserId())), args.toArray());
+		return (CacheLoginUser) valueSerializer.deserialize(previous);
+	}
+
+	/**
+	 * 异步保存，见 {@link #save(CacheLoginUser, Platform, int)}
+	 *
+	 * @param cacheUser the cache user
+	 * @param scope     the scope
+	 * @param expiresIn 有效期，单位：秒
+	 * @return 完成时为 true
+	 */
+	public CompletableFuture<Boolean> saveAsync(CacheLoginUser cacheUser, Platform scope, int expiresIn) {
+		return reactiveRedisTemplate.execute(SAVE_SCRIPT, Collections.singletonList(SessionKeyCodec.usersKey(cacheUser.getUserId())),
+				args(cacheUser, scope, expiresIn, false, null),
+				RedisElementWriter.from(RedisSerializer.byteArray()), RedisElementReader.from(RedisSerializer.byteArray()))
+				.then(Mono.just(Boolean.TRUE))
+				.toFuture();
+	}
+
+	private List<byte[]> args(CacheLoginUser cacheUser, Platform scope, int expiresIn, boolean login, String invalidation) {
+		final long now = System.currentTimeMillis();
+		// 与 key 结构一致，有效期小于等于 0 时不过期
+		final long expiresAt = expiresIn > 0 ? now + expiresIn * 1000L : 0L;
+		return Arrays.asList(FIELDS.get(scope), valueSerializer.serialize(cacheUser), utf8(Long.toString(expiresAt)),
+				utf8(Long.toString(now)), utf8(login ? "1" : "0"),
+				KICK_CHANNEL, login ? utf8(cacheUser.getUserId() + "|" + scope.name()) : EMPTY,
+				Objects.isNull(invalidation) ? EMPTY : INVALIDATE_CHANNEL, Objects.isNull(invalidation) ? EMPTY : utf8(invalidation));
+	}
+
+	/**
+	 * 获取某个平台的缓存用户
+	 *
+	 * @param userId the user id
+	 * @param scope  the scope
+	 * @return 不存在或已过期时返回 null
+	 */
+	public CacheLoginUser get(long userId, Platform scope) {
+		final byte[] key = SessionKeyCodec.usersKey(userId);
+		final List<byte[]> values = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+				connection.hMGet(key, FIELDS.get(scope), EXPIRES_AT_FIELDS.get(scope)));
+		if (Objects.isNull(values) || Objects.isNull(values.get(0)) || isExpired(values.get(1), System.currentTimeMillis())) {
+			return null;
+		}
+		return (CacheLoginUser) valueSerializer.deserialize(values.get(0));
+	}
+
+	/**
+	 * 异步获取某个平台的缓存用户
+	 *
+	 * @param userId the user id
+	 * @param scope  the scope
+	 * @return 不存在或已过期时为 null
+	 */
+	public CompletableFuture<CacheLoginUser> getAsync(long userId, Platform scope) {
+		final ByteBuffer key = ByteBuffer.wrap(SessionKeyCodec.usersKey(userId));
+		final List<ByteBuffer> fields = Arrays.asList(ByteBuffer.wrap(FIELDS.get(scope)), ByteBuffer.wrap(EXPIRES_AT_FIELDS.get(scope)));
+		return reactiveRedisTemplate.execute(connection -> connection.hashCommands().hMGet(key, fields))
+				.next()
+				.flatMap(values -> {
+					final byte[] value = Objects.isNull(values.get(0)) ? null : ByteUtils.getBytes(values.get(0));
+					final byte[] expiresAt = Objects.isNull(values.get(1)) ? null : ByteUtils.getBytes(values.get(1));
+					if (Objects.isNull(value) || isExpired(expiresAt, System.currentTimeMillis())) {
+						return Mono.empty();
+					}
+					return Mono.just((CacheLoginUser) valueSerializer.deserialize(value));
+				})
+				.toFuture();
+	}
+
+	/**
+	 * 获取用户所有平台的缓存用户，一条 HGETALL
+	 *
+	 * @param userId the user id
+	 * @return 未过期的缓存用户
+	 */
+	public Map<Platform, CacheLoginUser> getAll(long userId) {
+		final byte[] key = SessionKeyCodec.usersKey(userId);
+		return toUsers(redisTemplate.execute((RedisCallback<Map<byte[], byte[]>>) connection -> connection.hGetAll(key)),
+				System.currentTimeMillis());
+	}
+
+	/**
+	 * 批量获取多个用户所有平台的缓存用户，管道中逐个 HGETALL，一次发送
+	 *
+	 * @param userIds the user ids
+	 * @return userId -> 未过期的缓存用户，与 userIds 顺序一致
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<Long, Map<Platform, CacheLoginUser>> getAll(Collection<Long> userIds) {
+		// 不用 executePipelined：它用 hashValueSerializer 反序列化 hash 的所有值，过期时间 field 也会被当作缓存值解析
+		final List<Object> results = redisTemplate.execute((RedisCallback<List<Object>>) connection -> {
+			connection.openPipeline();
+			userIds.forEach(userId -> connection.hGetAll(SessionKeyCodec.usersKey(userId)));
+			return connection.closePipeline();
+		});
+		final Map<Long, Map<Platform, CacheLoginUser>> users = new LinkedHashMap<>(userIds.size() * 2);
+		final long now = System.currentTimeMillis();
+		int i = 0;
+		for (Long userId : userIds) {
+			users.put(userId, toUsers((Map<byte[], byte[]>) results.get(i++), now));
+		}
+		return users;
+	}
+
+	private Map<Platform, CacheLoginUser> toUsers(Map<byte[], byte[]> fields, long now) {
+		final Map<Platform, CacheLoginUser> users = new EnumMap<>(Platform.class);
+		if (Objects.isNull(fields) || fields.isEmpty()) {
+			return users;
+		}
+		final Map<String, byte[]> byName = new HashMap<>(fields.size() * 2);
+		fields.forEach((field, value) -> byName.put(new String(field, StandardCharsets.UTF_8), value));
+		for (Platform platform : Platform.values()) {
+			final byte[] value = byName.get(platform.getPlatform());
+			if (Objects.nonNull(value) && !isExpired(byName.get(platform.getPlatform() + EXPIRES_AT_SUFFIX), now)) {
+				users.put(platform, (CacheLoginUser) valueSerializer.deserialize(value));
+			}
+		}
+		return users;
+	}
+
+	/**
+	 * 删除某个平台的缓存用户
+	 *
+	 * @param userId the user id
+	 * @param scope  the scope
+	 * @return 存在并已删除时返回 true
+	 */
+	public Boolean del(long userId, Platform scope) {
+		final byte[] key = SessionKeyCodec.usersKey(userId);
+		final Long deleted = redisTemplate.execute((RedisCallback<Long>) connection ->
+				connection.hDel(key, FIELDS.get(scope), EXPIRES_AT_FIELDS.get(scope)));
+		return Objects.nonNull(deleted) && deleted > 0;
+	}
+
+	/**
+	 * 异步删除某个平台的缓存用户
+	 *
+	 * @param userId the user id
+	 * @param scope  the scope
+	 * @return 存在并已删除时为 true
+	 */
+	public CompletableFuture<Boolean> delAsync(long userId, Platform scope) {
+		final ByteBuffer key = ByteBuffer.wrap(SessionKeyCodec.usersKey(userId));
+		final List<ByteBuffer> fields = Arrays.asList(ByteBuffer.wrap(FIELDS.get(scope)), ByteBuffer.wrap(EXPIRES_AT_FIELDS.get(scope)));
+		return reactiveRedisTemplate.execute(connection -> connection.hashCommands().hDel(key, fields))
+				.next()
+				.map(deleted -> deleted > 0)
+				.defaultIfEmpty(Boolean.FALSE)
+				.toFuture();
+	}
+
+	/**
+	 * 删除用户所有平台的缓存用户，即踢下线所有设备，一条 DEL
+	 *
+	 * @param userId the user id
+	 * @return 存在并已删除时返回 true
+	 */
+	public Boolean delAll(long userId) {
+		return redisTemplate.delete(SessionKeyCodec.usersKey(userId));
+	}
+
+	/**
+	 * 删除多个用户所有平台的缓存用户，一条 DEL
+	 *
+	 * @param userIds the user ids
+	 * @return 删除的用户数
+	 */
+	public Long delAll(Collection<Long> userIds) {
+		final List<byte[]> keys = new ArrayList<>(userIds.size());
+		userIds.forEach(userId -> keys.add(SessionKeyCodec.usersKey(userId)));
+		return redisTemplate.delete(keys);
+	}
+
+	private static boolean isExpired(byte[] expiresAt, long now) {
+		// 没有过期时间 field 的视为已过期，保存时两个 field 总是一起写入
+		if (Objects.isNull(expiresAt)) {
+			return true;
+		}
+		final long value = Long.parseLong(new String(expiresAt, StandardCharsets.US_ASCII));
+		return value != 0L && value <= now;
+	}
+
+	private static byte[] utf8(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,145 @@
+package com.leigq.www.jwt.service;
+
+import com.leigq.www.jwt.constant.RedisCacheKey;
+import com.leigq.www.jwt.enums.Platform;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存用户 key 的编码，每个请求都会用到，直接编码为 byte[]
+ * <br/>
+ * 启动时按 {@link RedisCacheKey} 中的格式拆出 userId 前后的固定部分，每个平台预先编码好，
+ * 编码时只拼接字节和 userId 的十进制数字，不解析格式字符串、不装箱、不经过 StringRedisSerializer。
+ * 结果与 String.format 后按 UTF-8 编码完全一致。
+ *
+ * @author leigq
+ * @date 2026-10-19 01:02:47
+ */
+public final class SessionKeyCodec {
+
+	private static final String PLACEHOLDER = "%s";
+
+	/**
+	 * login_user:{userId}:平台 中 userId 前的部分
+	 */
+	private static final byte[] USER_KEY_PREFIX;
+
+	/**
+	 * login_user:{userId}:平台 中 userId 后的部分，每个平台一个
+	 */
+	private static final Map<Platform, byte[]> USER_KEY_SUFFIXES = new EnumMap<>(Platform.class);
+
+	/**
+	 * 同上，String 形式
+	 */
+	private static final String USER_KEY_PREFIX_STRING;
+
+	private static final Map<Platform, String> USER_KEY_SUFFIX_STRINGS = new EnumMap<>(Platform.class);
+
+	private static final byte[] USERS_KEY_PREFIX;
+
+	private static final byte[] USERS_KEY_SUFFIX;
+
+	static {
+		final String userKeyFormat = RedisCacheKey.CACHE_USER_KEY_FORMAT;
+		final int first = userKeyFormat.indexOf(PLACEHOLDER);
+		final int second = userKeyFormat.indexOf(PLACEHOLDER, first + PLACEHOLDER.length());
+		USER_KEY_PREFIX_STRING = userKeyFormat.substring(0, first);
+		USER_KEY_PREFIX = utf8(USER_KEY_PREFIX_STRING);
+		final String middle = userKeyFormat.substring(first + PLACEHOLDER.length(), second);
+		final String end = userKeyFormat.substring(second + PLACEHOLDER.length());
+		for (Platform platform : Platform.values()) {
+			USER_KEY_SUFFIX_STRINGS.put(platform, middle + platform.getPlatform() + end);
+			USER_KEY_SUFFIXES.put(platform, utf8(USER_KEY_SUFFIX_STRINGS.get(platform)));
+		}
+
+		final String usersKeyFormat = RedisCacheKey.CACHE_USERS_KEY_FORMAT;
+		final int placeholder = usersKeyFormat.indexOf(PLACEHOLDER);
+		USERS_KEY_PREFIX = utf8(usersKeyFormat.substring(0, placeholder));
+		USERS_KEY_SUFFIX = utf8(usersKeyFormat.substring(placeholder + PLACEHOLDER.length()));
+	}
+
+	private SessionKeyCodec() {
+	}
+
+	/**
+	 * login_user:{userId}:平台
+	 *
+	 * @param userId the user id
+	 * @param scope  the scope
+	 * @return the byte [ ]
+	 */
+	public static byte[] userKey(long userId, Platform scope) {
+		return encode(USER_KEY_PREFIX, userId, USER_KEY_SUFFIXES.get(scope));
+	}
+
+	/**
+	 * login_user:{userId}:平台 的 String 形式，客户端缓存（redis-store.tracking）以 String 为 key，读写经过 RedisUtils 时使用
+	 *
+	 * @param userId the user id
+	 * @param scope  the scope
+	 * @return the string
+	 */
+	public static String userKeyString(long userId, Platform scope) {
+		return USER_KEY_PREFIX_STRING + userId + USER_KEY_SUFFIX_STRINGS.get(scope);
+	}
+
+	/**
+	 * 用户所有平台的 login_user:{userId}:平台，与 Platform.values() 顺序一致
+	 *
+	 * @param userId the user id
+	 * @return the list
+	 */
+	public static List<byte[]> userKeys(long userId) {
+		final Platform[] platforms = Platform.values();
+		final List<byte[]> keys = new ArrayList<>(platforms.length);
+		for (Platform platform : platforms) {
+			keys.add(userKey(userId, platform));
+		}
+		return keys;
+	}
+
+	/**
+	 * login_users:{userId}
+	 *
+	 * @param userId the user id
+	 * @return the byte [ ]
+	 */
+	public static byte[] usersKey(long userId) {
+		return encode(USERS_KEY_PREFIX, userId, USERS_KEY_SUFFIX);
+	}
+
+	private static byte[] encode(byte[] prefix, long userId, byte[] suffix) {
+		final int digits = digits(userId);
+		final byte[] key = new byte[prefix.length + digits + suffix.length];
+		System.arraycopy(prefix, 0, key, 0, prefix.length);
+		System.arraycopy(suffix, 0, key, prefix.length + digits, suffix.length);
+		// 从个位往前写，负数按负数取余，避免 Long.MIN_VALUE 取反溢出
+		long value = userId;
+		int position = prefix.length + digits;
+		do {
+			key[--position] = (byte) ('0' + Math.abs(value % 10));
+			value /= 10;
+		} while (value != 0);
+		if (userId < 0) {
+			key[--position] = '-';
+		}
+		return key;
+	}
+
+	private static int digits(long value) {
+		int digits = value < 0 ? 2 : 1;
+		while ((value /= 10) != 0) {
+			digits++;
+		}
+		return digits;
+	}
+
+	private static byte[] utf8(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,319 @@
+package com.leigq.www.jwt.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.leigq.www.jwt.bean.CacheLoginUser;
+import com.leigq.www.jwt.config.RedisStoreProperties;
+import com.leigq.www.jwt.constant.RedisCacheKey;
+import com.leigq.www.jwt.enums.Platform;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 缓存用户的本地近端缓存，放在 RedisTokenStore 前面，命中时不访问 Redis
+ * <br/>
+ * 缓存用户被保存、删除时，本节点直接更新本地缓存，并通过 Redis pub/sub 通知其他节点移除；
+ * 失效消息丢失时（如订阅连接断开），最多读到 redis-store.near-cache.ttl 时间内的旧值。
+ *
+ * @author leigq
+ * @date 2026-10-18 22:52:06
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "redis-store.near-cache", name = "enabled", havingValue = "true")
+public class SessionNearCache implements MessageListener, SchedulingConfigurer, DisposableBean {
+
+	private static final char SEPARATOR = '|';
+
+	/**
+	 * 批量失效消息中用户 id 之间的分隔符
+	 */
+	private static final char USER_ID_SEPARATOR = ',';
+
+	/**
+	 * 批量失效消息的平台部分，表示所有平台
+	 */
+	private static final String ALL_PLATFORMS = "*";
+
+	/**
+	 * 节点 id，忽略自己发出的失效消息
+	 */
+	private final String nodeId = UUID.randomUUID().toString();
+
+	private final StringRedisTemplate stringRedisTemplate;
+
+	private final Cache<SessionKey, CacheLoginUser> cache;
+
+	/**
+	 * 统计输出间隔
+	 */
+	private final Duration reportInterval;
+
+	/**
+	 * 异步方法的失效消息在这里发布，线程数和队列长度有界，不占用 ForkJoinPool.commonPool()
+	 */
+	private final ThreadPoolExecutor publishExecutor;
+
+	/**
+	 * 上次输出统计时的请求次数
+	 */
+	private long reportedRequests;
+
+	public SessionNearCache(StringRedisTemplate stringRedisTemplate, RedisMessageListenerContainer listenerContainer,
+							RedisStoreProperties redisStoreProperties) {
+		final RedisStoreProperties.NearCache nearCache = redisStoreProperties.getNearCache();
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.reportInterval = nearCache.getReportInterval();
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(nearCache.getMaximumSize())
+				.expireAfterWrite(nearCache.getTtl())
+				.recordStats()
+				.build();
+		final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("near-cache-publish-");
+		threadFactory.setDaemon(true);
+		this.publishExecutor = new ThreadPoolExecutor(nearCache.getAsyncPublishThreads(), nearCache.getAsyncPublishThreads(),
+				0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(nearCache.getAsyncPublishQueueCapacity()), threadFactory,
+				(task, executor) -> log.warn("缓存用户失效消息发布队列已满，丢弃失效消息"));
+		listenerContainer.addMessageListener(this, new ChannelTopic(RedisCacheKey.CACHE_USER_INVALIDATE_CHANNEL));
+	}
+
+	/**
+	 * 获取缓存用户，本地未命中时调用 loader 从 Redis 读取，Redis 中不存在时不缓存
+	 *
+	 * @param userId the user id
+	 * @param scope  the scope
+	 * @param loader 从 Redis 读取
+	 * @return the cache login user
+	 */
+	public CacheLoginUser get(long userId, Platform scope, Supplier<CacheLoginUser> loader) {
+		return cache.get(new SessionKey(userId, scope), key -> loader.get());
+	}
+
+	/**
+	 * 只读本地缓存，未命中时返回 null，用于异步读取：异步加载期间可能收到失效消息，加载结果不放入本地缓存
+	 *
+	 * @param userId the user id
+	 * @param scope  the scope
+	 * @return the cache login user
+	 */
+	public CacheLoginUser getIfPresent(long userId, Platform scope) {
+		return cache.getIfPresent(new SessionKey(userId, scope));
+	}
+
+	/**
+	 * 缓存用户已保存，更新本地缓存并通知其他节点移除
+	 *
+	 * @param cacheUser the cache user
+	 * @param scope     the scope
+	 */
+	public void saved(CacheLoginUser cacheUser, Platform scope) {
+		cache.put(new SessionKey(cacheUser.getUserId(), scope), cacheUser);
+		publish(cacheUser.getUserId(), scope);
+	}
+
+	/**
+	 * 同 {@link #saved(CacheLoginUser, Platform)}，失效消息交给发布线程，不阻塞调用线程，可以在 Lettuce 的 I/O 线程中调用
+	 *
+	 * @param cacheUser the cache user
+	 * @param scope     the scope
+	 */
+	public void savedAsync(CacheLoginUser cacheUser, Platform scope) {
+		cache.put(new SessionKey(cacheUser.getUserId(), scope), cacheUser);
+		publishExecutor.execute(() -> publish(cacheUser.getUserId(), scope));
+	}
+
+	/**
+	 * 登录脚本已保存缓存用户并发布了失效消息（见 {@link #invalidation(long, Platform)}），只更新本地缓存
+	 *
+	 * @param cacheUser the cache user
+	 * @param scope     the scope
+	 */
+	public void loggedIn(CacheLoginUser cacheUser, Platform scope) {
+		cache.put(new SessionKey(cacheUser.getUserId(), scope), cacheUser);
+	}
+
+	/**
+	 * 失效消息，交给登录脚本与保存一起发布，省去一次网络往返
+	 *
+	 * @param userId the user id
+	 * @param scope  the scope
+	 * @return the string
+	 */
+	public String invalidation(long userId, Platform scope) {
+		return nodeId + SEPARATOR + userId + SEPARATOR + scope.name();
+	}
+
+	/**
+	 * 缓存用户已删除，移除本地缓存并通知其他节点移除
+	 *
+	 * @param userId the user id
+	 * @param scope  the scope
+	 */
+	public void deleted(long userId, Platform scope) {
+		cache.invalidate(new SessionKey(userId, scope));
+		publish(userId, scope);
+	}
+
+	/**
+	 * 同 {@link #deleted(long, Platform)}，失效消息交给发布线程，不阻塞调用线程，可以在 Lettuce 的 I/O 线程中调用
+	 *
+	 * @param userId the user id
+	 * @param scope  the scope
+	 */
+	public void deletedAsync(long userId, Platform scope) {
+		cache.invalidate(new SessionKey(userId, scope));
+		publishExecutor.execute(() -> publish(userId, scope));
+	}
+
+	/**
+	 * 多个用户所有平台的缓存用户已删除，移除本地缓存，并用一条消息通知其他节点移除：nodeId|userId1,userId2,...|*
+	 *
+	 * @param userIds the user ids
+	 */
+	public void deletedAll(Collection<Long> userIds) {
+		if (userIds.isEmpty()) {
+			return;
+		}
+		final List<SessionKey> keys = new ArrayList<>(userIds.size() * Platform.values().length);
+		final StringBuilder message = new StringBuilder(nodeId.length() + userIds.size() * 12).append(nodeId).append(SEPARATOR);
+		for (Long userId : userIds) {
+			for (Platform platform : Platform.values()) {
+				keys.add(new SessionKey(userId, platform));
+			}
+			message.append(userId).append(USER_ID_SEPARATOR);
+		}
+		cache.invalidateAll(keys);
+		message.setCharAt(message.length() - 1, SEPARATOR);
+		publish(message.append(ALL_PLATFORMS).toString());
+	}
+
+	/**
+	 * 命中率等统计
+	 *
+	 * @return the cache stats
+	 */
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		// nodeId|userId|platform，批量删除时为 nodeId|userId1,userId2,...|*
+		final String body = new String(message.getBody(), StandardCharsets.UTF_8);
+		final int first = body.indexOf(SEPARATOR);
+		final int second = body.indexOf(SEPARATOR, first + 1);
+		if (first < 0 || second < 0 || nodeId.equals(body.substring(0, first))) {
+			return;
+		}
+		try {
+			final String platform = body.substring(second + 1);
+			final Platform[] scopes = ALL_PLATFORMS.equals(platform) ? Platform.values() : new Platform[]{Platform.valueOf(platform)};
+			final String[] userIds = body.substring(first + 1, second).split(String.valueOf(USER_ID_SEPARATOR));
+			final List<SessionKey> keys = new ArrayList<>(userIds.length * scopes.length);
+			for (String userId : userIds) {
+				for (Platform scope : scopes) {
+					keys.add(new SessionKey(Long.parseLong(userId), scope));
+				}
+			}
+			cache.invalidateAll(keys);
+		} catch (IllegalArgumentException e) {
+			log.warn("忽略格式错误的缓存用户失效消息：{}", body);
+		}
+	}
+
+	/**
+	 * 注册定时输出命中率
+	 *
+	 * @param taskRegistrar the task registrar
+	 */
+	@Override
+	public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+		taskRegistrar.addFixedDelayTask(this::report, reportInterval.toMillis());
+	}
+
+	@Override
+	public void destroy() {
+		publishExecutor.shutdown();
+	}
+
+	/**
+	 * 定时输出命中率，期间没有请求时不输出
+	 */
+	public synchronized void report() {
+		final CacheStats stats = cache.stats();
+		if (stats.requestCount() == reportedRequests) {
+			return;
+		}
+		log.info("缓存用户近端缓存：命中率 {}，命中 {}，未命中 {}，淘汰 {}，当前缓存 {} 个", String.format("%.4f", stats.hitRate()),
+				stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.estimatedSize());
+		reportedRequests = stats.requestCount();
+	}
+
+	private void publish(long userId, Platform scope) {
+		publish(invalidation(userId, scope));
+	}
+
+	private void publish(String message) {
+		try {
+			stringRedisTemplate.convertAndSend(RedisCacheKey.CACHE_USER_INVALIDATE_CHANNEL, message);
+		} catch (RuntimeException e) {
+			// 其他节点最多在 ttl 后读到新值
+			log.warn("发布缓存用户失效消息失败：{}", e.getMessage());
+		}
+	}
+
+	/**
+	 * 本地缓存 key
+	 */
+	private static final class SessionKey {
+
+		private final long userId;
+
+		private final Platform scope;
+
+		private SessionKey(long userId, Platform scope) {
+			this.userId = userId;
+			this.scope = scope;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof SessionKey)) {
+				return false;
+			}
+			final SessionKey that = (SessionKey) o;
+			return userId == that.userId && scope == that.scope;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(userId, scope);
+		}
+	}
+}
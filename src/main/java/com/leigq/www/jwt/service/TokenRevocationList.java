@@ -0,0 +1,251 @@
+package com.leigq.www.jwt.service;
+
+import com.leigq.www.jwt.bean.CacheLoginUser;
+import com.leigq.www.jwt.config.JwtProperties;
+import com.leigq.www.jwt.constant.RedisCacheKey;
+import com.leigq.www.jwt.token.JtiBloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.IntervalTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 已撤销 token 列表（退出登录、被踢下线），每个节点在内存中持有一份，拦截器不用每次请求都读 Redis
+ * <br/>
+ * 已撤销的 jti 保存在 Redis 的 ZSET 中，score 为 token 的过期时间，过期后清除。本地结构为：
+ * <p>1. 布隆过滤器：启动时、以及每隔 jwt.revocation.rebuild-interval 从 ZSET 重建；</p>
+ * <p>2. 精确集合：上次重建之后通过 pub/sub 收到的撤销，下次重建后清空。</p>
+ * 精确集合命中即为已撤销；布隆过滤器命中时可能是误判，再用 ZSCORE 确认，所以绝大多数请求不访问 Redis。
+ * pub/sub 消息丢失时（如订阅连接断开），最迟在下次重建后生效。
+ *
+ * @author leigq
+ * @date 2026-10-18 21:41:09
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "jwt.revocation", name = "enabled", havingValue = "true")
+public class TokenRevocationList implements MessageListener, InitializingBean, SchedulingConfigurer {
+
+	private static final char SEPARATOR = '|';
+
+	private final StringRedisTemplate stringRedisTemplate;
+
+	private final JwtProperties.Revocation revocation;
+
+	private volatile Snapshot snapshot;
+
+	/**
+	 * 重建期间收到的撤销，重建完成后作为新的精确集合
+	 */
+	private volatile ConcurrentMap<String, Long> pending;
+
+	/**
+	 * 布隆过滤器命中后去 Redis 确认的次数、确认为误判的次数
+	 */
+	private final LongAdder confirmations = new LongAdder();
+
+	private final LongAdder falsePositives = new LongAdder();
+
+	public TokenRevocationList(StringRedisTemplate stringRedisTemplate, RedisMessageListenerContainer listenerContainer,
+							   JwtProperties jwtProperties) {
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.revocation = jwtProperties.getRevocation();
+		this.snapshot = new Snapshot(new JtiBloomFilter(revocation.getMinCapacity(), revocation.getFpp()), new ConcurrentHashMap<>());
+		listenerContainer.addMessageListener(this, new ChannelTopic(RedisCacheKey.REVOKED_JTI_CHANNEL));
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		rebuild();
+	}
+
+	/**
+	 * 撤销缓存用户当前的 token，如在同一平台重新登录时撤销之前的 token
+	 *
+	 * @param cacheUser the cache user
+	 */
+	public void revokeSession(CacheLoginUser cacheUser) {
+		if (Objects.nonNull(cacheUser) && Objects.nonNull(cacheUser.getTokenExpiresAt())) {
+			revoke(cacheUser.getTokenId(), cacheUser.getTokenExpiresAt());
+		}
+	}
+
+	/**
+	 * 批量撤销缓存用户当前的 token，如批量踢下线，ZADD 和 PUBLISH 在管道中一次发送
+	 *
+	 * @param cacheUsers the cache users
+	 */
+	public void revokeSessions(Collection<CacheLoginUser> cacheUsers) {
+		final long now = System.currentTimeMillis();
+		final Map<String, Long> revoked = new LinkedHashMap<>(cacheUsers.size() * 2);
+		for (CacheLoginUser cacheUser : cacheUsers) {
+			if (StringUtils.isNotBlank(cacheUser.getTokenId()) && Objects.nonNull(cacheUser.getTokenExpiresAt())
+					&& cacheUser.getTokenExpiresAt() > now) {
+				revoked.put(cacheUser.getTokenId(), cacheUser.getTokenExpiresAt());
+			}
+		}
+		revokeAll(revoked);
+	}
+
+	private void revokeAll(Map<String, Long> revoked) {
+		if (revoked.isEmpty()) {
+			return;
+		}
+		stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			final byte[] key = RedisCacheKey.REVOKED_JTI_KEY.getBytes(StandardCharsets.UTF_8);
+			final byte[] channel = RedisCacheKey.REVOKED_JTI_CHANNEL.getBytes(StandardCharsets.UTF_8);
+			revoked.forEach((jti, expiresAt) -> {
+				connection.zAdd(key, expiresAt, jti.getBytes(StandardCharsets.UTF_8));
+				connection.publish(channel, (jti + SEPARATOR + expiresAt).getBytes(StandardCharsets.UTF_8));
+			});
+			return null;
+		});
+		revoked.forEach(this::addLocal);
+	}
+
+	/**
+	 * 撤销 jti
+	 *
+	 * @param jti       the jti
+	 * @param expiresAt token 过期时间（毫秒），过期后从撤销列表中清除
+	 */
+	public void revoke(String jti, long expiresAt) {
+		if (StringUtils.isBlank(jti) || expiresAt <= System.currentTimeMillis()) {
+			return;
+		}
+		stringRedisTemplate.opsForZSet().add(RedisCacheKey.REVOKED_JTI_KEY, jti, expiresAt);
+		stringRedisTemplate.convertAndSend(RedisCacheKey.REVOKED_JTI_CHANNEL, jti + SEPARATOR + expiresAt);
+		addLocal(jti, expiresAt);
+	}
+
+	/**
+	 * 是否已撤销
+	 *
+	 * @param jti the jti
+	 * @return the boolean
+	 */
+	public boolean isRevoked(String jti) {
+		if (Objects.isNull(jti)) {
+			return false;
+		}
+		final Snapshot current = snapshot;
+		if (current.overflow.containsKey(jti)) {
+			return true;
+		}
+		if (!current.bloom.mightContain(jti)) {
+			return false;
+		}
+		confirmations.increment();
+		try {
+			if (Objects.nonNull(stringRedisTemplate.opsForZSet().score(RedisCacheKey.REVOKED_JTI_KEY, jti))) {
+				return true;
+			}
+			falsePositives.increment();
+			return false;
+		} catch (RuntimeException e) {
+			// 无法确认时按已撤销处理
+			log.warn("确认 token 是否已撤销失败：{}", e.getMessage());
+			return true;
+		}
+	}
+
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		final String body = new String(message.getBody(), StandardCharsets.UTF_8);
+		final int separator = body.lastIndexOf(SEPARATOR);
+		if (separator <= 0) {
+			return;
+		}
+		try {
+			addLocal(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)));
+		} catch (NumberFormatException e) {
+			log.warn("忽略格式错误的撤销消息：{}", body);
+		}
+	}
+
+	/**
+	 * 按绑定后的 rebuild-interval 注册定时重建，启动时已重建过一次，首次在一个间隔之后执行
+	 *
+	 * @param taskRegistrar the task registrar
+	 */
+	@Override
+	public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+		final long interval = revocation.getRebuildInterval().toMillis();
+		taskRegistrar.addFixedDelayTask(new IntervalTask(this::rebuild, interval, interval));
+	}
+
+	/**
+	 * 从 Redis 重建布隆过滤器，顺便清除已过期的 jti
+	 */
+	public synchronized void rebuild() {
+		// 先开始收集重建期间的撤销，再读 ZSET，两者的并集不会漏掉撤销
+		final ConcurrentMap<String, Long> collecting = new ConcurrentHashMap<>();
+		pending = collecting;
+		try {
+			final long now = System.currentTimeMillis();
+			stringRedisTemplate.opsForZSet().removeRangeByScore(RedisCacheKey.REVOKED_JTI_KEY, Double.NEGATIVE_INFINITY, now);
+			final Set<String> revoked = stringRedisTemplate.opsForZSet().rangeByScore(RedisCacheKey.REVOKED_JTI_KEY, now, Double.POSITIVE_INFINITY);
+			final int size = Objects.isNull(revoked) ? 0 : revoked.size();
+			final JtiBloomFilter bloom = new JtiBloomFilter(Math.max(revocation.getMinCapacity(), size * 2L), revocation.getFpp());
+			if (size > 0) {
+				revoked.forEach(bloom::put);
+			}
+			snapshot = new Snapshot(bloom, collecting);
+			log.info("已撤销 token 列表重建完成：{} 个，布隆过滤器 {} 位；上个周期确认 {} 次，误判 {} 次", size, bloom.bitSize(),
+					confirmations.sumThenReset(), falsePositives.sumThenReset());
+		} catch (RuntimeException e) {
+			// 重建失败时保留旧的过滤器，并把期间收到的撤销合并进去
+			snapshot.overflow.putAll(collecting);
+			log.error("已撤销 token 列表重建失败：", e);
+		} finally {
+			pending = null;
+		}
+	}
+
+	private void addLocal(String jti, long expiresAt) {
+		// 先放入重建中的集合，再放入当前集合，重建前后替换 snapshot 时都不会丢
+		final ConcurrentMap<String, Long> collecting = pending;
+		if (Objects.nonNull(collecting)) {
+			collecting.put(jti, expiresAt);
+		}
+		snapshot.overflow.put(jti, expiresAt);
+	}
+
+	/**
+	 * 布隆过滤器和精确集合，整体替换
+	 */
+	private static final class Snapshot {
+
+		private final JtiBloomFilter bloom;
+
+		/**
+		 * jti -> 过期时间（毫秒）
+		 */
+		private final ConcurrentMap<String, Long> overflow;
+
+		private Snapshot(JtiBloomFilter bloom, ConcurrentMap<String, Long> overflow) {
+			this.bloom = bloom;
+			this.overflow = overflow;
+		}
+	}
+}
@@ -4,6 +4,9 @@ import com.leigq.www.jwt.bean.CacheLoginUser;
 import com.leigq.www.jwt.bean.UserContext;
 import com.leigq.www.jwt.config.JwtProperties;
 import com.leigq.www.jwt.entity.User;
+import com.leigq.www.jwt.enums.Platform;
+import com.leigq.www.jwt.token.TokenClaims;
+import com.leigq.www.jwt.token.TokenPair;
 import com.leigq.www.jwt.util.CookieUtils;
 import com.leigq.www.jwt.util.DeviceUtils;
 import com.leigq.www.jwt.util.IpUtils;
@@ -11,6 +14,7 @@ import com.leigq.www.jwt.util.WebUtils;
 import com.leigq.www.jwt.vo.LoginUser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
 import javax.servlet.http.HttpServletRequest;
@@ -18,6 +22,7 @@ import javax.servlet.http.HttpServletResponse;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * 用户服务
@@ -32,6 +37,7 @@ public class UserService {
 
 	private final JwtProperties jwtProperties;
 	private final RedisTokenStore redisTokenStore;
+	private final ObjectProvider<TokenRevocationList> tokenRevocationList;
 
 
 	/**
@@ -54,26 +60,31 @@ public class UserService {
 		Map<String, String> customClaim = new HashMap<>(1);
 		customClaim.put("ip", IpUtils.realIp(request));
 
-		// 生成 token
-        final String accessToken = UserContext.genToken(customClaim, user.getId(), expiresAt, user.getUserName());
+		// 生成 token 和 refreshToken（用于当 token 过期时刷新 token），两者只有过期时间和 jti 不同，一起签发
+		final TokenPair tokenPair = UserContext.genTokenPair(customClaim, user.getId(), expiresAt,
+				this.calculationExpiresAt(expiresIn * 2), user.getUserName());
 
-		// 生成 refreshToken，用于当 token 过期时刷新 token
-		final String refreshToken = UserContext.genToken(customClaim, user.getId(), this.calculationExpiresAt(expiresIn * 2), user.getUserName());
+		// 将 token、refreshToken 放入 cookie 中
+		this.setTokenCookies(response, tokenPair, expiresIn);
 
-		// 将 token 放入 cookie 中, 防止 XSS 攻击
-		CookieUtils.setSecurityCookie(response, jwtProperties.getTokenCookieName(), accessToken, (int) expiresIn);
-
-		// 将 refreshToken 放入 cookie 中, 防止 XSS 攻击
-		CookieUtils.setSecurityCookie(response, jwtProperties.getRefreshTokenCookieName(), refreshToken, (int) expiresIn * 2);
-
-		// 将 token 存入缓存
+		// 将 token 的 jti 存入缓存，不保存完整的 token
 		CacheLoginUser cacheUser = CacheLoginUser.builder()
-				.token(accessToken)
+				.tokenId(tokenPair.getAccessTokenId())
+				.tokenExpiresAt(tokenPair.getAccessTokenExpiresAt())
 				.userId(user.getId())
 				.mobile(user.getMobile())
 				.userName(user.getUserName())
 				.build();
-		redisTokenStore.save(cacheUser, DeviceUtils.platform(request), (int) expiresIn);
+		// 同一平台重新登录，之前的登录被踢下线，一次网络往返完成替换和通知
+		final CacheLoginUser previous = redisTokenStore.login(cacheUser, DeviceUtils.platform(request), (int) expiresIn);
+		final TokenRevocationList revocationList = tokenRevocationList.getIfAvailable();
+		if (Objects.nonNull(previous) && Objects.nonNull(revocationList)) {
+			// 启用撤销列表后拦截器不再比对缓存中的 token，之前的 token 需要撤销才能立即失效
+			revocationList.revokeSession(previous);
+		}
+
+		// token 和缓存用户都已变化，清除当前请求中的认证信息
+		UserContext.clear();
 
 		// 构建登录用户
 		return LoginUser.builder()
@@ -83,6 +94,72 @@ public class UserService {
 				.build();
 	}
 
+	/**
+	 * 滑动续期：签发新的 token 对写入 Cookie，并更新缓存用户，续期前的 token 在宽限期内依然有效
+	 * <br/>
+	 * 同一用户同一平台同时只有一个请求续期，其他并发请求继续使用原 token；已被续期过的 token 不会再次续期
+	 * <br/>
+	 * 启用撤销列表时续期前的 token 立即撤销，撤销记录在 Redis 中，重启后依然有效
+	 *
+	 * @param claims 当前请求 token 的负载
+	 */
+	public void renewLoginUser(TokenClaims claims) {
+		final HttpServletRequest request = WebUtils.getRequest();
+		final HttpServletResponse response = WebUtils.getResponse();
+		final Platform platform = DeviceUtils.platform(request);
+		final long userId = Long.parseLong(claims.getSubject());
+
+		// 只有当前的 token 才能续期，宽限期内的旧 token 续期会让刚下发的新 token 失效
+		final CacheLoginUser cacheUser = UserContext.getCacheUser();
+		if (Objects.isNull(cacheUser) || !cacheUser.matchesToken(claims.getId())) {
+			return;
+		}
+
+		final long graceMillis = jwtProperties.getRenewal().getGrace().toMillis();
+		if (!redisTokenStore.lockRenewal(userId, platform, Math.max(1L, graceMillis / 1000))) {
+			return;
+		}
+
+		final long expiresIn = jwtProperties.getExpiresIn().getSeconds();
+		Map<String, String> customClaim = new HashMap<>(1);
+		customClaim.put("ip", claims.getIp());
+		final TokenPair tokenPair = UserContext.genTokenPair(customClaim, userId, this.calculationExpiresAt(expiresIn),
+				this.calculationExpiresAt(expiresIn * 2), claims.getAudience());
+
+		this.setTokenCookies(response, tokenPair, expiresIn);
+
+		// 缓存用户可能被本地近端缓存共享，复制后再修改
+		final CacheLoginUser renewed = CacheLoginUser.builder()
+				.userId(cacheUser.getUserId())
+				.userName(cacheUser.getUserName())
+				.mobile(cacheUser.getMobile())
+				.tokenId(tokenPair.getAccessTokenId())
+				.tokenExpiresAt(tokenPair.getAccessTokenExpiresAt())
+				.previousTokenId(claims.getId())
+				.previousTokenExpiresAt(System.currentTimeMillis() + graceMillis)
+				.build();
+		redisTokenStore.save(renewed, platform, (int) expiresIn);
+
+		// 启用撤销列表后拦截器不再比对缓存中的 token，续期前的 token 要撤销才会失效，宽限期内由拦截器按缓存用户放行
+		final TokenRevocationList revocationList = tokenRevocationList.getIfAvailable();
+		if (Objects.nonNull(revocationList)) {
+			revocationList.revoke(claims.getId(), claims.getExpiresAt() * 1000);
+		}
+		log.debug("用户 {} 的 token 已续期", userId);
+	}
+
+	/**
+	 * 将 token 放入 cookie 中, 防止 XSS 攻击
+	 *
+	 * @param response  the response
+	 * @param tokenPair the token pair
+	 * @param expiresIn token 有效时间，单位：秒，refreshToken 为其 2 倍
+	 */
+	private void setTokenCookies(HttpServletResponse response, TokenPair tokenPair, long expiresIn) {
+		CookieUtils.setSecurityCookie(response, jwtProperties.getTokenCookieName(), tokenPair.getAccessToken(), (int) expiresIn);
+		CookieUtils.setSecurityCookie(response, jwtProperties.getRefreshTokenCookieName(), tokenPair.getRefreshToken(), (int) expiresIn * 2);
+	}
+
     /**
      * 计算过期时间
      *
@@ -0,0 +1,76 @@
+package com.leigq.www.jwt.token;
+
+import com.leigq.www.jwt.config.JwtProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 批量签发 token
+ * <br/>
+ * 签名是 CPU 密集的，使用独立的、并行度有界的 ForkJoinPool，不占用公共池，也不会因批量任务拖慢在线请求
+ *
+ * @author leigq
+ * @date 2026-10-18 15:26:19
+ */
+@Slf4j
+@Component
+public class BulkTokenIssuer implements DisposableBean {
+
+	/**
+	 * 小于该数量时直接在调用线程中顺序签发，避免任务拆分的开销
+	 */
+	private static final int SEQUENTIAL_THRESHOLD = 64;
+
+	private final ForkJoinPool pool;
+
+	private final int maxBatchSize;
+
+	public BulkTokenIssuer(JwtProperties jwtProperties) {
+		final JwtProperties.Bulk bulk = jwtProperties.getBulk();
+		this.pool = new ForkJoinPool(bulk.getParallelism());
+		this.maxBatchSize = bulk.getMaxBatchSize();
+	}
+
+	/**
+	 * 批量签发
+	 *
+	 * @param specs  每个 token 的内容
+	 * @param signer 签名方法
+	 * @return 与 specs 顺序一致的 token
+	 */
+	public List<String> issue(List<TokenSpec> specs, Function<TokenSpec, String> signer) {
+		if (specs.size() > maxBatchSize) {
+			throw new IllegalArgumentException("单次最多签发 " + maxBatchSize + " 个 token");
+		}
+		if (specs.size() < SEQUENTIAL_THRESHOLD) {
+			final List<String> tokens = new ArrayList<>(specs.size());
+			specs.forEach(spec -> tokens.add(signer.apply(spec)));
+			return tokens;
+		}
+		try {
+			// 在自定义 ForkJoinPool 中执行的并行流会使用该池的线程
+			return pool.submit(() -> specs.parallelStream().map(signer).collect(Collectors.toList())).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("批量签发 token 被中断", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException("批量签发 token 异常", e.getCause());
+		}
+	}
+
+	@Override
+	public void destroy() {
+		pool.shutdown();
+	}
+}
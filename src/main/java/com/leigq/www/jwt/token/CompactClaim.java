@@ -0,0 +1,99 @@
+package com.leigq.www.jwt.token;
+
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.interfaces.Claim;
+
+import java.lang.reflect.Array;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 紧凑格式 token 的负载项，值只可能是 String、Long（时间为秒）、List&lt;String&gt; 或 null
+ *
+ * @author leigq
+ * @date 2026-10-18 17:10:51
+ */
+final class CompactClaim implements Claim {
+
+	static final CompactClaim NULL = new CompactClaim(null);
+
+	private final Object value;
+
+	CompactClaim(Object value) {
+		this.value = value;
+	}
+
+	@Override
+	public boolean isNull() {
+		return value == null;
+	}
+
+	@Override
+	public Boolean asBoolean() {
+		return value instanceof String ? Boolean.valueOf((String) value) : null;
+	}
+
+	@Override
+	public Integer asInt() {
+		return value instanceof Long ? ((Long) value).intValue() : null;
+	}
+
+	@Override
+	public Long asLong() {
+		return value instanceof Long ? (Long) value : null;
+	}
+
+	@Override
+	public Double asDouble() {
+		return value instanceof Long ? ((Long) value).doubleValue() : null;
+	}
+
+	@Override
+	public String asString() {
+		return value instanceof String ? (String) value : null;
+	}
+
+	@Override
+	public Date asDate() {
+		return value instanceof Long ? new Date((Long) value * 1000) : null;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T[] asArray(Class<T> tClazz) throws JWTDecodeException {
+		final List<T> list = asList(tClazz);
+		if (list == null) {
+			return null;
+		}
+		return list.toArray((T[]) Array.newInstance(tClazz, list.size()));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> List<T> asList(Class<T> tClazz) throws JWTDecodeException {
+		if (!(value instanceof List)) {
+			return null;
+		}
+		if (tClazz != String.class && tClazz != Object.class) {
+			throw new JWTDecodeException("无法转换为 " + tClazz.getName());
+		}
+		return (List<T>) value;
+	}
+
+	@Override
+	public Map<String, Object> asMap() throws JWTDecodeException {
+		if (value == null) {
+			return null;
+		}
+		throw new JWTDecodeException("无法转换为 Map");
+	}
+
+	@Override
+	public <T> T as(Class<T> tClazz) throws JWTDecodeException {
+		if (value == null || tClazz.isInstance(value)) {
+			return tClazz.cast(value);
+		}
+		throw new JWTDecodeException("无法转换为 " + tClazz.getName());
+	}
+}
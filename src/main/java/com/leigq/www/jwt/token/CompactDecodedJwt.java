@@ -0,0 +1,189 @@
+package com.leigq.www.jwt.token;
+
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+import java.util.*;
+
+/**
+ * 解码后的紧凑格式 token，实现 DecodedJWT 接口，拦截器、Controller 等不需要区分 token 格式
+ * <br/>
+ * getHeader() 返回格式前缀，getHeader() + "." + getPayload() 即为签名内容，可直接交给 Algorithm#verify 验证签名
+ *
+ * @author leigq
+ * @date 2026-10-18 17:26:08
+ */
+final class CompactDecodedJwt implements DecodedJWT {
+
+	private final String token;
+
+	private final String payloadSegment;
+
+	private final String signatureSegment;
+
+	private final String kid;
+
+	private final String issuer;
+
+	private final String id;
+
+	private final String subject;
+
+	private final List<String> audience;
+
+	private final long issuedAt;
+
+	private final long notBefore;
+
+	private final long expiresAt;
+
+	private final Map<String, String> customClaims;
+
+	CompactDecodedJwt(String token, String payloadSegment, String signatureSegment, String kid, String issuer, String id,
+					  String subject, List<String> audience, long issuedAt, long notBefore, long expiresAt,
+					  Map<String, String> customClaims) {
+		this.token = token;
+		this.payloadSegment = payloadSegment;
+		this.signatureSegment = signatureSegment;
+		this.kid = kid;
+		this.issuer = issuer;
+		this.id = id;
+		this.subject = subject;
+		this.audience = audience;
+		this.issuedAt = issuedAt;
+		this.notBefore = notBefore;
+		this.expiresAt = expiresAt;
+		this.customClaims = customClaims;
+	}
+
+	@Override
+	public String getToken() {
+		return token;
+	}
+
+	@Override
+	public String getHeader() {
+		return CompactTokenCodec.FORMAT;
+	}
+
+	@Override
+	public String getPayload() {
+		return payloadSegment;
+	}
+
+	@Override
+	public String getSignature() {
+		return signatureSegment;
+	}
+
+	@Override
+	public String getAlgorithm() {
+		return null;
+	}
+
+	@Override
+	public String getType() {
+		return CompactTokenCodec.FORMAT;
+	}
+
+	@Override
+	public String getContentType() {
+		return null;
+	}
+
+	@Override
+	public String getKeyId() {
+		return kid;
+	}
+
+	@Override
+	public Claim getHeaderClaim(String name) {
+		return "kid".equals(name) ? new CompactClaim(kid) : CompactClaim.NULL;
+	}
+
+	@Override
+	public String getIssuer() {
+		return issuer;
+	}
+
+	@Override
+	public String getSubject() {
+		return subject;
+	}
+
+	@Override
+	public List<String> getAudience() {
+		return audience;
+	}
+
+	@Override
+	public Date getExpiresAt() {
+		return new Date(expiresAt * 1000);
+	}
+
+	@Override
+	public Date getNotBefore() {
+		return new Date(notBefore * 1000);
+	}
+
+	@Override
+	public Date getIssuedAt() {
+		return new Date(issuedAt * 1000);
+	}
+
+	@Override
+	public String getId() {
+		return id;
+	}
+
+	@Override
+	public Claim getClaim(String name) {
+		switch (name) {
+			case "iss":
+				return new CompactClaim(issuer);
+			case "sub":
+				return new CompactClaim(subject);
+			case "aud":
+				return new CompactClaim(audience);
+			case "exp":
+				return new CompactClaim(expiresAt);
+			case "nbf":
+				return new CompactClaim(notBefore);
+			case "iat":
+				return new CompactClaim(issuedAt);
+			case "jti":
+				return new CompactClaim(id);
+			default:
+				final String value = customClaims.get(name);
+				return value == null ? CompactClaim.NULL : new CompactClaim(value);
+		}
+	}
+
+	@Override
+	public Map<String, Claim> getClaims() {
+		final Map<String, Claim> claims = new LinkedHashMap<>(16);
+		for (String name : Arrays.asList("iss", "sub", "aud", "exp", "nbf", "iat", "jti")) {
+			claims.put(name, getClaim(name));
+		}
+		customClaims.forEach((name, value) -> claims.put(name, new CompactClaim(value)));
+		return claims;
+	}
+
+	/**
+	 * 过期时间，单位：秒
+	 *
+	 * @return the long
+	 */
+	long expiresAtSeconds() {
+		return expiresAt;
+	}
+
+	/**
+	 * 生效时间，单位：秒
+	 *
+	 * @return the long
+	 */
+	long notBeforeSeconds() {
+		return notBefore;
+	}
+}
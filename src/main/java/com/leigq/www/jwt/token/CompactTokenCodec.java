@@ -0,0 +1,229 @@
+package com.leigq.www.jwt.token;
+
+import com.auth0.jwt.exceptions.InvalidClaimException;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 紧凑格式 token 编解码
+ * <br/>
+ * 格式为 c1.负载.签名，负载为以下字段依次写入的二进制（字符串为 varint 长度 + 1 和 UTF-8 字节，长度 0 表示 null；数字为 varint），再 Base64Url 编码：
+ * <pre>
+ * kid, iss, jti, sub, aud 个数, aud..., iat（秒）, nbf - iat, exp - iat, 自定义负载个数, (名称, 值)...
+ * </pre>
+ * 签名内容为 "c1." + 负载，与 JWS 一样使用 jwt 的签名密钥，ES256 的签名同样是 R||S 格式。
+ *
+ * @author leigq
+ * @date 2026-10-18 17:40:12
+ */
+public final class CompactTokenCodec {
+
+	/**
+	 * 格式标识，JWT 的第一段是 JSON 的 Base64Url 编码，以 ey 开头，不会与之冲突
+	 */
+	static final String FORMAT = "c1";
+
+	private static final String PREFIX = FORMAT + ".";
+
+	private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+	private static final Base64.Decoder BASE64_URL_DECODER = Base64.getUrlDecoder();
+
+	private CompactTokenCodec() {
+	}
+
+	/**
+	 * 是否是紧凑格式的 token
+	 *
+	 * @param token the token
+	 * @return the boolean
+	 */
+	public static boolean isCompact(String token) {
+		return token.startsWith(PREFIX);
+	}
+
+	/**
+	 * 编码并签名
+	 *
+	 * @param signingKey  签名密钥
+	 * @param issuer      发行者
+	 * @param jti         jwt ID
+	 * @param issuedAt    签发时间，同时作为生效时间
+	 * @param customClaim 自定义负载
+	 * @param subject     签名的对象
+	 * @param expiresAt   过期时间
+	 * @param audience    接受 jwt 的一方
+	 * @return the string
+	 */
+	public static String encode(JwtKey signingKey, String issuer, String jti, Date issuedAt, Map<String, String> customClaim,
+								String subject, Date expiresAt, String... audience) {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(96);
+		writeString(out, signingKey.getKid());
+		writeString(out, issuer);
+		writeString(out, jti);
+		writeString(out, subject);
+		final String[] aud = Objects.isNull(audience) ? new String[0] : audience;
+		writeVarLong(out, aud.length);
+		for (String item : aud) {
+			writeString(out, item);
+		}
+		final long iat = issuedAt.getTime() / 1000;
+		writeVarLong(out, iat);
+		writeVarLong(out, 0);
+		writeVarLong(out, zigZag(expiresAt.getTime() / 1000 - iat));
+		final Map<String, String> claims = Objects.isNull(customClaim) ? Collections.emptyMap() : customClaim;
+		writeVarLong(out, claims.size());
+		claims.forEach((name, value) -> {
+			writeString(out, name);
+			writeString(out, value);
+		});
+
+		final String content = PREFIX + BASE64_URL_ENCODER.encodeToString(out.toByteArray());
+		final byte[] signature = signingKey.getAlgorithm().sign(content.getBytes(StandardCharsets.US_ASCII));
+		return content + "." + BASE64_URL_ENCODER.encodeToString(signature);
+	}
+
+	/**
+	 * 解码，不验证签名
+	 *
+	 * @param token the token
+	 * @return the decoded jwt
+	 * @throws JWTDecodeException 格式错误
+	 */
+	public static DecodedJWT decode(String token) throws JWTDecodeException {
+		if (!isCompact(token)) {
+			throw new JWTDecodeException("不是紧凑格式的 token");
+		}
+		final int dot = token.indexOf('.', PREFIX.length());
+		if (dot < 0 || token.indexOf('.', dot + 1) >= 0) {
+			throw new JWTDecodeException("token 格式错误");
+		}
+		final String payloadSegment = token.substring(PREFIX.length(), dot);
+		final String signatureSegment = token.substring(dot + 1);
+		try {
+			final ByteBuffer in = ByteBuffer.wrap(BASE64_URL_DECODER.decode(payloadSegment));
+			final String kid = readString(in);
+			final String issuer = readString(in);
+			final String jti = readString(in);
+			final String subject = readString(in);
+			final int audienceSize = readSize(in);
+			final List<String> audience = new ArrayList<>(audienceSize);
+			for (int i = 0; i < audienceSize; i++) {
+				audience.add(readString(in));
+			}
+			final long iat = readVarLong(in);
+			final long nbf = iat + readVarLong(in);
+			final long exp = iat + unZigZag(readVarLong(in));
+			final int claimSize = readSize(in);
+			final Map<String, String> claims = new LinkedHashMap<>(claimSize * 2);
+			for (int i = 0; i < claimSize; i++) {
+				claims.put(readString(in), readString(in));
+			}
+			if (in.hasRemaining()) {
+				throw new JWTDecodeException("token 格式错误");
+			}
+			return new CompactDecodedJwt(token, payloadSegment, signatureSegment, kid, issuer, jti, subject,
+					Collections.unmodifiableList(audience), iat, nbf, exp, Collections.unmodifiableMap(claims));
+		} catch (IllegalArgumentException | BufferUnderflowException e) {
+			throw new JWTDecodeException("token 格式错误", e);
+		}
+	}
+
+	/**
+	 * 解码并验证生效时间、过期时间、签名和发行者
+	 *
+	 * @param token    the token
+	 * @param registry 签名密钥注册表
+	 * @param issuer   发行者
+	 * @return the decoded jwt
+	 * @throws JWTVerificationException the jwt verification exception
+	 */
+	public static DecodedJWT verify(String token, JwtKeyRegistry registry, String issuer) throws JWTVerificationException {
+		final CompactDecodedJwt jwt;
+		try {
+			jwt = (CompactDecodedJwt) decode(token);
+		} catch (JWTDecodeException e) {
+			throw new TokenRejectedException(TokenRejectedException.Reason.MALFORMED, e.getMessage());
+		}
+		// 先检查时间，过期、未生效的 token 不需要计算签名
+		TokenPrecheck.checkTime(jwt.expiresAtSeconds(), jwt.notBeforeSeconds());
+		final JwtKey key = registry.key(jwt.getKeyId());
+		if (Objects.isNull(key)) {
+			throw new JWTVerificationException("未知的签名密钥：" + jwt.getKeyId());
+		}
+		SignatureVerifier.verify(key, token, token.lastIndexOf('.'));
+		if (!Objects.equals(issuer, jwt.getIssuer())) {
+			throw new InvalidClaimException("The Claim 'iss' value doesn't match the required one.");
+		}
+		return jwt;
+	}
+
+	private static void writeString(ByteArrayOutputStream out, String value) {
+		if (Objects.isNull(value)) {
+			writeVarLong(out, 0);
+			return;
+		}
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(out, bytes.length + 1L);
+		out.write(bytes, 0, bytes.length);
+	}
+
+	private static void writeVarLong(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+	private static String readString(ByteBuffer in) {
+		final int length = readSize(in);
+		if (length == 0) {
+			return null;
+		}
+		final byte[] bytes = new byte[length - 1];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * 读取长度、个数，不能超过剩余字节数，防止伪造的超大长度导致大量分配
+	 *
+	 * @param in the in
+	 * @return the int
+	 */
+	private static int readSize(ByteBuffer in) {
+		final long size = readVarLong(in);
+		if (size < 0 || size > in.remaining() + 1L) {
+			throw new JWTDecodeException("token 格式错误");
+		}
+		return (int) size;
+	}
+
+	private static long readVarLong(ByteBuffer in) {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			final byte b = in.get();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new JWTDecodeException("token 格式错误");
+	}
+
+	private static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
@@ -0,0 +1,106 @@
+package com.leigq.www.jwt.token;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * jti 布隆过滤器，线程安全
+ * <br/>
+ * 不存在时一定返回 false；存在时可能误判，误判率由构建时的预期数量和误判率决定，调用方需要再精确确认
+ *
+ * @author leigq
+ * @date 2026-10-18 21:35:50
+ */
+public final class JtiBloomFilter {
+
+	private final AtomicLongArray bits;
+
+	private final long bitSize;
+
+	private final int hashCount;
+
+	/**
+	 * Instantiates a new Jti bloom filter.
+	 *
+	 * @param expectedInsertions 预期数量
+	 * @param fpp                误判率，如 0.01
+	 */
+	public JtiBloomFilter(long expectedInsertions, double fpp) {
+		final long n = Math.max(1L, expectedInsertions);
+		final long m = Math.max(64L, (long) (-n * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+		final int words = (int) Math.min(Integer.MAX_VALUE, (m + 63) >>> 6);
+		this.bits = new AtomicLongArray(words);
+		this.bitSize = (long) words << 6;
+		this.hashCount = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+	}
+
+	/**
+	 * 放入
+	 *
+	 * @param jti the jti
+	 */
+	public void put(String jti) {
+		final long hash = hash(jti);
+		final long h1 = mix(hash);
+		final long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1L;
+		for (int i = 0; i < hashCount; i++) {
+			final long index = Long.remainderUnsigned(h1 + i * h2, bitSize);
+			final int word = (int) (index >>> 6);
+			final long mask = 1L << index;
+			long current;
+			while (((current = bits.get(word)) & mask) == 0L) {
+				if (bits.compareAndSet(word, current, current | mask)) {
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * 可能存在
+	 *
+	 * @param jti the jti
+	 * @return false 时一定不存在
+	 */
+	public boolean mightContain(String jti) {
+		final long hash = hash(jti);
+		final long h1 = mix(hash);
+		final long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1L;
+		for (int i = 0; i < hashCount; i++) {
+			final long index = Long.remainderUnsigned(h1 + i * h2, bitSize);
+			if ((bits.get((int) (index >>> 6)) & 1L << index) == 0L) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 位数
+	 *
+	 * @return the long
+	 */
+	public long bitSize() {
+		return bitSize;
+	}
+
+	/**
+	 * FNV-1a 64
+	 */
+	private static long hash(String value) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * MurmurHash3 fmix64，打散 FNV 的低位
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return z ^ (z >>> 33);
+	}
+}
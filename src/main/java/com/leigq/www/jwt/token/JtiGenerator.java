@@ -0,0 +1,20 @@
+package com.leigq.www.jwt.token;
+
+/**
+ * jwt ID（jti）生成器，需要线程安全
+ * <br/>
+ * 默认实现由 jwt.jti.strategy 决定，也可以自己声明一个 JtiGenerator bean 替换
+ *
+ * @author leigq
+ * @date 2026-10-18 16:22:40
+ */
+@FunctionalInterface
+public interface JtiGenerator {
+
+	/**
+	 * 生成一个不重复的 jti
+	 *
+	 * @return the string
+	 */
+	String generate();
+}
@@ -0,0 +1,85 @@
+package com.leigq.www.jwt.token;
+
+import java.math.BigInteger;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.*;
+
+/**
+ * 将公钥转为 JWK（RFC 7517）
+ *
+ * @author leigq
+ * @date 2026-10-18 14:31:08
+ */
+public final class Jwks {
+
+	private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+	private Jwks() {
+	}
+
+	/**
+	 * 构建 JWK Set
+	 *
+	 * @param keys 需要发布的密钥
+	 * @return {"keys": [...]}
+	 */
+	public static Map<String, Object> toJwkSet(Collection<JwtKey> keys) {
+		final List<Map<String, Object>> jwks = new ArrayList<>(keys.size());
+		keys.forEach(key -> jwks.add(toJwk(key)));
+		return Collections.singletonMap("keys", jwks);
+	}
+
+	/**
+	 * 构建单个 JWK
+	 *
+	 * @param key the key
+	 * @return the map
+	 */
+	public static Map<String, Object> toJwk(JwtKey key) {
+		final PublicKey publicKey = key.getPublicKey();
+		final Map<String, Object> jwk = new LinkedHashMap<>();
+		if (publicKey instanceof RSAPublicKey) {
+			final RSAPublicKey rsa = (RSAPublicKey) publicKey;
+			jwk.put("kty", "RSA");
+			jwk.put("n", encode(rsa.getModulus(), 0));
+			jwk.put("e", encode(rsa.getPublicExponent(), 0));
+		} else if (publicKey instanceof ECPublicKey) {
+			final ECPublicKey ec = (ECPublicKey) publicKey;
+			// 坐标长度按曲线的位数补齐，P-256 为 32 字节
+			final int length = (ec.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+			jwk.put("kty", "EC");
+			jwk.put("crv", "P-" + ec.getParams().getCurve().getField().getFieldSize());
+			jwk.put("x", encode(ec.getW().getAffineX(), length));
+			jwk.put("y", encode(ec.getW().getAffineY(), length));
+		} else {
+			throw new IllegalArgumentException("不支持的公钥类型：" + key.getKid());
+		}
+		jwk.put("use", "sig");
+		jwk.put("alg", key.getAlgorithm().getName());
+		jwk.put("kid", key.getKid());
+		return jwk;
+	}
+
+	/**
+	 * 无符号大端编码后 Base64Url
+	 *
+	 * @param value  the value
+	 * @param length 定长编码的字节数，0 表示不补齐
+	 * @return the string
+	 */
+	private static String encode(BigInteger value, int length) {
+		byte[] bytes = value.toByteArray();
+		// 去掉符号位产生的前导 0
+		if (bytes.length > 1 && bytes[0] == 0) {
+			bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+		}
+		if (length > bytes.length) {
+			final byte[] padded = new byte[length];
+			System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+			bytes = padded;
+		}
+		return BASE64_URL.encodeToString(bytes);
+	}
+}
@@ -0,0 +1,147 @@
+package com.leigq.www.jwt.token;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.security.PublicKey;
+
+/**
+ * 签名密钥，一个 kid 对应一组已构建好的签名器、验证器，构建后可被所有线程复用
+ *
+ * @author leigq
+ * @date 2026-10-18 10:12:31
+ */
+@Getter
+public final class JwtKey {
+
+	/**
+	 * 密钥 id，会写入 jwt 头部的 kid
+	 */
+	private final String kid;
+
+	/**
+	 * 签名算法（线程安全）
+	 */
+	private final Algorithm algorithm;
+
+	/**
+	 * 验证器（线程安全）
+	 */
+	private final JWTVerifier verifier;
+
+	/**
+	 * 公钥，HS256 为 null
+	 */
+	private final PublicKey publicKey;
+
+	/**
+	 * 使用该密钥签发的 jwt 的头部（Base64Url 编码后的第一段），用于免解码定位密钥，只能验证的密钥为 null
+	 */
+	private final String headerSegment;
+
+	/**
+	 * 退役时间（毫秒），0 表示当前正在使用的签名密钥
+	 */
+	private final long retiredAt;
+
+	/**
+	 * HS256 的共享密钥，供 {@link TokenWriter} 构建线程内复用的 Mac，非对称算法为 null
+	 */
+	@Getter(AccessLevel.PACKAGE)
+	private final byte[] macSecret;
+
+	private JwtKey(String kid, Algorithm algorithm, JWTVerifier verifier, PublicKey publicKey, String headerSegment, long retiredAt,
+				   byte[] macSecret) {
+		this.kid = kid;
+		this.algorithm = algorithm;
+		this.verifier = verifier;
+		this.publicKey = publicKey;
+		this.headerSegment = headerSegment;
+		this.retiredAt = retiredAt;
+		this.macSecret = macSecret;
+	}
+
+	/**
+	 * 构建可签名的密钥
+	 *
+	 * @param kid       密钥 id
+	 * @param algorithm 签名算法
+	 * @param publicKey 公钥，HS256 为 null
+	 * @param issuer    发行者
+	 * @return the jwt key
+	 */
+	static JwtKey of(String kid, Algorithm algorithm, PublicKey publicKey, String issuer) {
+		return new JwtKey(kid, algorithm, buildVerifier(algorithm, issuer), publicKey, headerSegmentOf(kid, algorithm), 0L, null);
+	}
+
+	/**
+	 * 构建 HS256 签名密钥
+	 *
+	 * @param kid    密钥 id
+	 * @param secret 共享密钥
+	 * @param issuer 发行者
+	 * @return the jwt key
+	 */
+	static JwtKey hmac(String kid, byte[] secret, String issuer) {
+		final Algorithm algorithm = Algorithm.HMAC256(secret);
+		return new JwtKey(kid, algorithm, buildVerifier(algorithm, issuer), null, headerSegmentOf(kid, algorithm), 0L, secret.clone());
+	}
+
+	/**
+	 * 构建只能验证的密钥，如只配置了公钥的退役密钥
+	 *
+	 * @param kid       密钥 id
+	 * @param algorithm 签名算法
+	 * @param publicKey 公钥
+	 * @param issuer    发行者
+	 * @param retiredAt 退役时间
+	 * @return the jwt key
+	 */
+	static JwtKey verifyOnly(String kid, Algorithm algorithm, PublicKey publicKey, String issuer, long retiredAt) {
+		return new JwtKey(kid, algorithm, buildVerifier(algorithm, issuer), publicKey, null, retiredAt, null);
+	}
+
+	/**
+	 * 标记为已退役，仍可用于验证，但不再用于签名
+	 *
+	 * @param retiredAt 退役时间
+	 * @return the jwt key
+	 */
+	JwtKey retire(long retiredAt) {
+		return this.retiredAt == 0L ? new JwtKey(kid, algorithm, verifier, publicKey, headerSegment, retiredAt, macSecret) : this;
+	}
+
+	/**
+	 * 发行者变更后重建验证器
+	 *
+	 * @param issuer 发行者
+	 * @return the jwt key
+	 */
+	JwtKey withIssuer(String issuer) {
+		return new JwtKey(kid, algorithm, buildVerifier(algorithm, issuer), publicKey, headerSegment, retiredAt, macSecret);
+	}
+
+	/**
+	 * 是否已退役
+	 *
+	 * @return the boolean
+	 */
+	public boolean isRetired() {
+		return retiredAt != 0L;
+	}
+
+	/**
+	 * 与 JWTCreator 生成的头部一致，{@link TokenWriter} 直接把它作为 token 的前缀
+	 */
+	private static String headerSegmentOf(String kid, Algorithm algorithm) {
+		final String probe = JWT.create().withKeyId(kid).sign(algorithm);
+		return probe.substring(0, probe.indexOf('.'));
+	}
+
+	private static JWTVerifier buildVerifier(Algorithm algorithm, String issuer) {
+		return JWT.require(algorithm).withIssuer(issuer).build();
+	}
+}
@@ -0,0 +1,374 @@
+package com.leigq.www.jwt.token;
+
+import com.auth0.jwt.algorithms.Algorithm;
+import com.leigq.www.jwt.config.JwtProperties;
+import com.leigq.www.jwt.enums.SignAlgorithm;
+import com.leigq.www.jwt.util.JacksonUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 签名密钥注册表
+ * <br/>
+ * 每个 kid 只构建一次签名器、验证器，配置中的密钥变更时原子替换，旧密钥退役后继续用于验证，直到其签发的 token（包括 refreshToken）全部过期。
+ * <br/>
+ * 可用的密钥或发行者变化后，之前的验证结果不再可信，同时清空已验证 token 缓存和验证失败 token 缓存。
+ *
+ * @author leigq
+ * @date 2026-10-18 10:20:05
+ */
+@Slf4j
+@Component
+public class JwtKeyRegistry {
+
+	private final JwtProperties jwtProperties;
+
+	/**
+	 * 当前生效的密钥集合，整体替换，读取无锁
+	 */
+	private final AtomicReference<KeySet> keySet = new AtomicReference<>();
+
+	private final ObjectProvider<RejectedTokenCache> rejectedTokenCache;
+
+	private final ObjectProvider<VerifiedTokenCache<?>> verifiedTokenCaches;
+
+	public JwtKeyRegistry(JwtProperties jwtProperties, ObjectProvider<RejectedTokenCache> rejectedTokenCache,
+						  ObjectProvider<VerifiedTokenCache<?>> verifiedTokenCaches) {
+		this.jwtProperties = jwtProperties;
+		this.rejectedTokenCache = rejectedTokenCache;
+		this.verifiedTokenCaches = verifiedTokenCaches;
+	}
+
+	/**
+	 * 获取当前签名密钥
+	 *
+	 * @return the jwt key
+	 */
+	public JwtKey signingKey() {
+		return current().active;
+	}
+
+	/**
+	 * 根据 token 头部定位验证密钥，找不到对应的 kid 时使用当前签名密钥（兼容没有 kid 的旧 token）
+	 *
+	 * @param token the token
+	 * @return the jwt key
+	 */
+	public JwtKey verificationKey(String token) {
+		final KeySet set = current();
+		final int dot = token.indexOf('.');
+		if (dot > 0) {
+			// 本服务签发的 token 头部是固定的，直接按头部查找，无需解码
+			final JwtKey key = set.byHeader.get(token.substring(0, dot));
+			if (Objects.nonNull(key)) {
+				return key;
+			}
+			final String kid = kidOfHeader(token.substring(0, dot));
+			if (Objects.nonNull(kid) && set.byKid.containsKey(kid)) {
+				return set.byKid.get(kid);
+			}
+		}
+		return set.active;
+	}
+
+	/**
+	 * 根据 kid 获取密钥
+	 *
+	 * @param kid the kid
+	 * @return 不存在返回 null
+	 */
+	public JwtKey key(String kid) {
+		return current().byKid.get(kid);
+	}
+
+	/**
+	 * 所有可用于验证的密钥（包括当前签名密钥和未过保留期的退役密钥）
+	 *
+	 * @return the collection
+	 */
+	public Collection<JwtKey> keys() {
+		return current().byKid.values();
+	}
+
+	/**
+	 * 需要公开发布的公钥：当前签名密钥、未过保留期的退役密钥以及即将启用的密钥，HS256 密钥不发布
+	 *
+	 * @return the list
+	 */
+	public List<JwtKey> publishedKeys() {
+		return current().published;
+	}
+
+	/**
+	 * 按当前配置重建密钥集合，配置未变化时只清理过期的退役密钥
+	 * <br/>
+	 * 配置未变化且没有到期的退役密钥时直接返回：密钥集合失效时并发的请求线程都会进入这里，只有第一个需要重建
+	 */
+	public synchronized void refresh() {
+		final KeySet previous = keySet.get();
+		final long now = System.currentTimeMillis();
+		if (!isStale(previous, now)) {
+			return;
+		}
+		final String issuer = jwtProperties.getIssuer();
+		final JwtKey active = buildActiveKey(issuer);
+
+		final Map<String, JwtKey> byKid = new LinkedHashMap<>();
+		byKid.put(active.getKid(), active);
+
+		// 配置中声明的退役密钥，重启后依然可以验证
+		final Set<String> configuredKids = new HashSet<>();
+		for (JwtKey key : buildRetiredKeys(issuer, now)) {
+			byKid.putIfAbsent(key.getKid(), key);
+			configuredKids.add(key.getKid());
+		}
+
+		// 运行期间替换下来的密钥，保留到其签发的 token 全部过期
+		if (Objects.nonNull(previous)) {
+			final long retention = retention();
+			for (JwtKey key : previous.byKid.values()) {
+				if (byKid.containsKey(key.getKid())) {
+					continue;
+				}
+				final JwtKey retired = key.retire(now);
+				if (retired.getRetiredAt() + retention > now) {
+					byKid.put(retired.getKid(), Objects.equals(previous.issuer, issuer) ? retired : retired.withIssuer(issuer));
+				}
+			}
+			if (!Objects.equals(previous.active.getKid(), active.getKid())) {
+				log.info("jwt 签名密钥已轮换：{} -> {}", previous.active.getKid(), active.getKid());
+			}
+		}
+
+		keySet.set(new KeySet(jwtProperties, active, byKid, configuredKids, buildNextKeys(issuer), now + retention()));
+		// 新密钥集合生效后再清空，避免并发的验证用旧密钥集合把结果重新写入缓存
+		if (Objects.nonNull(previous) && (!previous.byKid.keySet().equals(byKid.keySet()) || !Objects.equals(previous.issuer, issuer))) {
+			invalidateTokenCaches();
+		}
+	}
+
+	/**
+	 * 清空已验证 token 缓存和验证失败 token 缓存：
+	 * 移除的密钥签发的 token 不能再从缓存中通过验证，新增的密钥签发的 token 也不能再被缓存的失败结果拒绝
+	 */
+	private void invalidateTokenCaches() {
+		rejectedTokenCache.ifAvailable(RejectedTokenCache::invalidateAll);
+		verifiedTokenCaches.forEach(VerifiedTokenCache::invalidateAll);
+		log.info("jwt 密钥集合已变化，已清空 token 验证缓存");
+	}
+
+	/**
+	 * 获取当前密钥集合，配置变化或有退役密钥到期时重建
+	 *
+	 * @return the key set
+	 */
+	private KeySet current() {
+		KeySet set = keySet.get();
+		if (isStale(set, System.currentTimeMillis())) {
+			refresh();
+			set = keySet.get();
+		}
+		return set;
+	}
+
+	/**
+	 * 密钥集合是否需要重建：还未构建、配置已变化或有退役密钥到期
+	 */
+	private boolean isStale(KeySet set, long now) {
+		return Objects.isNull(set) || !set.isBuiltFrom(jwtProperties) || set.expiresAt <= now;
+	}
+
+	/**
+	 * 退役密钥保留时长，refreshToken 的有效期是 token 的两倍
+	 *
+	 * @return 毫秒
+	 */
+	private long retention() {
+		return jwtProperties.getExpiresIn().toMillis() * 2;
+	}
+
+	/**
+	 * 按配置的签名算法构建当前签名密钥
+	 *
+	 * @param issuer 发行者
+	 * @return the jwt key
+	 */
+	private JwtKey buildActiveKey(String issuer) {
+		final SignAlgorithm algorithm = jwtProperties.getAlgorithm();
+		if (!algorithm.isAsymmetric()) {
+			return buildHmacKey(jwtProperties.getSignSecret(), issuer);
+		}
+		final PublicKey publicKey = PemKeys.publicKey(jwtProperties.getPublicKey(), algorithm.getKeyType());
+		final PrivateKey privateKey = PemKeys.privateKey(jwtProperties.getPrivateKey(), algorithm.getKeyType());
+		return JwtKey.of(kidOf(publicKey.getEncoded()), algorithm.create(publicKey, privateKey), publicKey, issuer);
+	}
+
+	/**
+	 * 构建配置中声明的退役密钥
+	 *
+	 * @param issuer    发行者
+	 * @param retiredAt 退役时间
+	 * @return the list
+	 */
+	private List<JwtKey> buildRetiredKeys(String issuer, long retiredAt) {
+		final List<JwtKey> keys = new ArrayList<>();
+		final List<String> retiredSecrets = jwtProperties.getRetiredSignSecrets();
+		if (!CollectionUtils.isEmpty(retiredSecrets)) {
+			retiredSecrets.forEach(secret -> keys.add(buildHmacKey(secret, issuer).retire(retiredAt)));
+		}
+		final List<String> retiredPublicKeys = jwtProperties.getRetiredPublicKeys();
+		if (!CollectionUtils.isEmpty(retiredPublicKeys)) {
+			for (String location : retiredPublicKeys) {
+				final PublicKey publicKey = PemKeys.publicKey(location);
+				final Algorithm algorithm = SignAlgorithm.of(publicKey).create(publicKey, null);
+				keys.add(JwtKey.verifyOnly(kidOf(publicKey.getEncoded()), algorithm, publicKey, issuer, retiredAt));
+			}
+		}
+		return keys;
+	}
+
+	/**
+	 * 构建即将启用的密钥，只用于提前发布，让下游在切换前缓存到新公钥
+	 *
+	 * @param issuer 发行者
+	 * @return the list
+	 */
+	private List<JwtKey> buildNextKeys(String issuer) {
+		final List<String> nextPublicKeys = jwtProperties.getNextPublicKeys();
+		if (CollectionUtils.isEmpty(nextPublicKeys)) {
+			return Collections.emptyList();
+		}
+		final List<JwtKey> keys = new ArrayList<>(nextPublicKeys.size());
+		for (String location : nextPublicKeys) {
+			final PublicKey publicKey = PemKeys.publicKey(location);
+			final Algorithm algorithm = SignAlgorithm.of(publicKey).create(publicKey, null);
+			keys.add(JwtKey.verifyOnly(kidOf(publicKey.getEncoded()), algorithm, publicKey, issuer, 0L));
+		}
+		return keys;
+	}
+
+	private JwtKey buildHmacKey(String secret, String issuer) {
+		final byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+		return JwtKey.hmac(kidOf(secretBytes), secretBytes, issuer);
+	}
+
+	/**
+	 * 由密钥派生 kid，相同密钥在所有节点上得到相同的 kid
+	 *
+	 * @param key HS256 为密钥，非对称算法为公钥
+	 * @return the string
+	 */
+	private static String kidOf(byte[] key) {
+		try {
+			final byte[] digest = MessageDigest.getInstance("SHA-256").digest(key);
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 8));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * 从 jwt 头部中读取 kid
+	 *
+	 * @param headerSegment Base64Url 编码的头部
+	 * @return 不存在或无法解析返回 null
+	 */
+	@SuppressWarnings("unchecked")
+	private static String kidOfHeader(String headerSegment) {
+		try {
+			final String json = new String(Base64.getUrlDecoder().decode(headerSegment), StandardCharsets.UTF_8);
+			final Object kid = JacksonUtils.toObj(json, Map.class).get("kid");
+			return kid instanceof String ? (String) kid : null;
+		} catch (RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 不可变的密钥集合
+	 */
+	private static final class KeySet {
+
+		private final SignAlgorithm algorithm;
+
+		private final String signSecret;
+
+		private final String privateKey;
+
+		private final String publicKey;
+
+		private final String issuer;
+
+		private final List<String> retiredSignSecrets;
+
+		private final List<String> retiredPublicKeys;
+
+		private final List<String> nextPublicKeys;
+
+		private final JwtKey active;
+
+		private final Map<String, JwtKey> byKid;
+
+		private final Map<String, JwtKey> byHeader;
+
+		private final List<JwtKey> published;
+
+		/**
+		 * 最早一个退役密钥到期的时间，到期后需要重建
+		 */
+		private final long expiresAt;
+
+		private KeySet(JwtProperties properties, JwtKey active, Map<String, JwtKey> byKid, Set<String> configuredKids,
+					   List<JwtKey> nextKeys, long defaultExpiresAt) {
+			this.algorithm = properties.getAlgorithm();
+			this.signSecret = properties.getSignSecret();
+			this.privateKey = properties.getPrivateKey();
+			this.publicKey = properties.getPublicKey();
+			this.issuer = properties.getIssuer();
+			this.retiredSignSecrets = properties.getRetiredSignSecrets();
+			this.retiredPublicKeys = properties.getRetiredPublicKeys();
+			this.nextPublicKeys = properties.getNextPublicKeys();
+			this.active = active;
+			this.byKid = Collections.unmodifiableMap(byKid);
+			final Map<String, JwtKey> headers = new HashMap<>(byKid.size() * 2);
+			long expires = defaultExpiresAt;
+			final long retention = properties.getExpiresIn().toMillis() * 2;
+			for (JwtKey key : byKid.values()) {
+				if (Objects.nonNull(key.getHeaderSegment())) {
+					headers.put(key.getHeaderSegment(), key);
+				}
+				if (key.isRetired() && !configuredKids.contains(key.getKid())) {
+					expires = Math.min(expires, key.getRetiredAt() + retention);
+				}
+			}
+			this.byHeader = headers;
+			this.expiresAt = expires;
+
+			final List<JwtKey> keys = new ArrayList<>();
+			byKid.values().stream().filter(key -> Objects.nonNull(key.getPublicKey())).forEach(keys::add);
+			nextKeys.stream().filter(key -> !byKid.containsKey(key.getKid())).forEach(keys::add);
+			this.published = Collections.unmodifiableList(keys);
+		}
+
+		private boolean isBuiltFrom(JwtProperties properties) {
+			return algorithm == properties.getAlgorithm()
+					&& Objects.equals(signSecret, properties.getSignSecret())
+					&& Objects.equals(privateKey, properties.getPrivateKey())
+					&& Objects.equals(publicKey, properties.getPublicKey())
+					&& Objects.equals(issuer, properties.getIssuer())
+					&& Objects.equals(retiredSignSecrets, properties.getRetiredSignSecrets())
+					&& Objects.equals(retiredPublicKeys, properties.getRetiredPublicKeys())
+					&& Objects.equals(nextPublicKeys, properties.getNextPublicKeys());
+		}
+	}
+}
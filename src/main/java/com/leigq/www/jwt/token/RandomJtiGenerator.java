@@ -0,0 +1,24 @@
+package com.leigq.www.jwt.token;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * 基于 128 位强随机数的 jti 生成器，Base64Url 编码后为 22 个字符
+ *
+ * @author leigq
+ * @date 2026-10-18 16:38:25
+ */
+public final class RandomJtiGenerator implements JtiGenerator {
+
+	private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+	private final SecureRandom random = new SecureRandom();
+
+	@Override
+	public String generate() {
+		final byte[] bytes = new byte[16];
+		random.nextBytes(bytes);
+		return BASE64_URL.encodeToString(bytes);
+	}
+}
@@ -0,0 +1,158 @@
+package com.leigq.www.jwt.token;
+
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.leigq.www.jwt.config.JwtProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 验证失败 token 缓存（负缓存）
+ * <br/>
+ * 伪造、篡改、过期的 token 被反复重放时，每次都要完整验证一遍并打印异常。这里以 token 摘要为 key 记住验证失败的原因，
+ * 在较短的有效期内再次出现时不验证直接拒绝，抛出的 {@link TokenRejectedException} 不收集堆栈，拦截器也只打印 debug 日志。
+ * <br/>
+ * 还未生效（nbf）的 token 过一会就能通过验证，不缓存；签名失败的 token 可能是其他节点已切换到新密钥而本节点还未刷新，所以有效期不宜太长。
+ *
+ * @author leigq
+ * @date 2026-10-18 21:02:37
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "jwt.reject-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RejectedTokenCache implements SchedulingConfigurer {
+
+	private final Cache<TokenDigest, TokenRejectedException.Reason> cache;
+
+	/**
+	 * 统计输出间隔
+	 */
+	private final Duration reportInterval;
+
+	/**
+	 * 按原因统计的记录次数
+	 */
+	private final Map<TokenRejectedException.Reason, LongAdder> recorded = new EnumMap<>(TokenRejectedException.Reason.class);
+
+	/**
+	 * 上次输出统计时的命中次数、记录次数
+	 */
+	private long reportedHits;
+
+	private long reportedRecords;
+
+	public RejectedTokenCache(JwtProperties jwtProperties) {
+		final JwtProperties.RejectCache rejectCache = jwtProperties.getRejectCache();
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(rejectCache.getMaximumSize())
+				.expireAfterWrite(rejectCache.getTtl())
+				.recordStats()
+				.build();
+		this.reportInterval = rejectCache.getReportInterval();
+		for (TokenRejectedException.Reason reason : TokenRejectedException.Reason.values()) {
+			recorded.put(reason, new LongAdder());
+		}
+	}
+
+	/**
+	 * 验证 token，已知验证失败的 token 直接拒绝，验证失败时记住原因
+	 *
+	 * @param <V>      验证结果类型
+	 * @param token    the token
+	 * @param verifier 验证方法，验证失败时抛出异常
+	 * @return the v
+	 * @throws JWTVerificationException the jwt verification exception
+	 */
+	public <V> V verify(String token, Function<String, V> verifier) throws JWTVerificationException {
+		final TokenDigest digest = TokenDigest.of(token);
+		final TokenRejectedException.Reason cached = cache.getIfPresent(digest);
+		if (cached != null) {
+			throw new TokenRejectedException(cached, "token 验证失败过，直接拒绝：" + cached);
+		}
+		try {
+			return verifier.apply(token);
+		} catch (TokenRejectedException e) {
+			if (e.getReason() != TokenRejectedException.Reason.NOT_YET_VALID) {
+				record(digest, e.getReason());
+			}
+			throw e;
+		} catch (JWTDecodeException e) {
+			record(digest, TokenRejectedException.Reason.MALFORMED);
+			throw e;
+		} catch (JWTVerificationException e) {
+			record(digest, TokenRejectedException.Reason.INVALID);
+			throw e;
+		}
+	}
+
+	private void record(TokenDigest digest, TokenRejectedException.Reason reason) {
+		cache.put(digest, reason);
+		recorded.get(reason).increment();
+	}
+
+	/**
+	 * 清空缓存，如密钥轮换后
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * 命中、未命中、淘汰等统计
+	 *
+	 * @return the cache stats
+	 */
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	/**
+	 * 某个原因累计记录的次数
+	 *
+	 * @param reason 拒绝原因
+	 * @return the long
+	 */
+	public long recordedCount(TokenRejectedException.Reason reason) {
+		return recorded.get(reason).sum();
+	}
+
+	/**
+	 * 注册定时输出统计
+	 *
+	 * @param taskRegistrar the task registrar
+	 */
+	@Override
+	public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+		taskRegistrar.addFixedDelayTask(this::report, reportInterval.toMillis());
+	}
+
+	/**
+	 * 定时输出统计，期间没有新的命中和记录时不输出
+	 */
+	public synchronized void report() {
+		final long hits = cache.stats().hitCount();
+		long records = 0;
+		for (LongAdder adder : recorded.values()) {
+			records += adder.sum();
+		}
+		if (hits == reportedHits && records == reportedRecords) {
+			return;
+		}
+		log.info("jwt 验证失败缓存：新增命中 {}，新增记录 {}，累计记录 {}，当前缓存 {} 个", hits - reportedHits, records - reportedRecords,
+				recorded, cache.estimatedSize());
+		reportedHits = hits;
+		reportedRecords = records;
+	}
+}
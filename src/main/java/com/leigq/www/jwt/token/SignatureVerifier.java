@@ -0,0 +1,165 @@
+package com.leigq.www.jwt.token;
+
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.leigq.www.jwt.enums.SignAlgorithm;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * 直接对 token 原文验证签名，不需要构建 DecodedJWT
+ * <br/>
+ * 签名内容为最后一个 "." 之前的原文，标准 JWT 是 头部.负载，紧凑格式是 c1.负载。
+ * HS256 使用线程内复用的 Mac，RS256、ES256 使用线程内复用的 Signature，ES256 的签名是 JWS 规定的 R||S 格式，验证前转换为 DER 格式。
+ *
+ * @author leigq
+ * @date 2026-10-19 09:40:26
+ */
+final class SignatureVerifier {
+
+	private static final String HMAC_SHA256 = "HmacSHA256";
+
+	/**
+	 * ES256 的 R、S 各 32 字节
+	 */
+	private static final int ES256_PART_LENGTH = 32;
+
+	private static final Base64.Decoder BASE64_URL_DECODER = Base64.getUrlDecoder();
+
+	private static final ThreadLocal<Verifiers> VERIFIERS = ThreadLocal.withInitial(Verifiers::new);
+
+	private SignatureVerifier() {
+	}
+
+	/**
+	 * 验证签名
+	 *
+	 * @param key          验证密钥
+	 * @param token        the token
+	 * @param signatureDot 签名前的 "." 的位置
+	 * @throws SignatureVerificationException 签名不匹配
+	 */
+	static void verify(JwtKey key, String token, int signatureDot) throws SignatureVerificationException {
+		final byte[] signature;
+		try {
+			signature = BASE64_URL_DECODER.decode(token.substring(signatureDot + 1));
+		} catch (IllegalArgumentException e) {
+			throw new SignatureVerificationException(key.getAlgorithm(), e);
+		}
+		final byte[] content = token.substring(0, signatureDot).getBytes(StandardCharsets.US_ASCII);
+		final boolean valid;
+		try {
+			if (Objects.nonNull(key.getMacSecret())) {
+				valid = MessageDigest.isEqual(VERIFIERS.get().mac(key).doFinal(content), signature);
+			} else if (Objects.nonNull(key.getPublicKey())) {
+				valid = verifySignature(key, content, signature);
+			} else {
+				throw new IllegalStateException("密钥 " + key.getKid() + " 不能用于验证签名");
+			}
+		} catch (GeneralSecurityException e) {
+			throw new SignatureVerificationException(key.getAlgorithm(), e);
+		}
+		if (!valid) {
+			throw new SignatureVerificationException(key.getAlgorithm());
+		}
+	}
+
+	private static boolean verifySignature(JwtKey key, byte[] content, byte[] signature) throws GeneralSecurityException {
+		final SignAlgorithm algorithm = SignAlgorithm.of(key.getPublicKey());
+		final Signature verifier = VERIFIERS.get().signature(algorithm);
+		verifier.initVerify(key.getPublicKey());
+		verifier.update(content);
+		if (algorithm == SignAlgorithm.ES256) {
+			if (signature.length != ES256_PART_LENGTH * 2) {
+				return false;
+			}
+			return verifier.verify(toDer(signature));
+		}
+		return verifier.verify(signature);
+	}
+
+	/**
+	 * ECDSA 签名由 R||S 转换为 DER 格式：SEQUENCE { INTEGER r, INTEGER s }
+	 *
+	 * @param signature R||S
+	 * @return the byte [ ]
+	 */
+	static byte[] toDer(byte[] signature) {
+		final byte[] r = derInteger(signature, 0);
+		final byte[] s = derInteger(signature, ES256_PART_LENGTH);
+		// P-256 下最长 2 + 33 + 2 + 33 = 70 字节，长度只需一个字节
+		final byte[] der = new byte[2 + 2 + r.length + 2 + s.length];
+		int i = 0;
+		der[i++] = 0x30;
+		der[i++] = (byte) (der.length - 2);
+		der[i++] = 0x02;
+		der[i++] = (byte) r.length;
+		System.arraycopy(r, 0, der, i, r.length);
+		i += r.length;
+		der[i++] = 0x02;
+		der[i++] = (byte) s.length;
+		System.arraycopy(s, 0, der, i, s.length);
+		return der;
+	}
+
+	/**
+	 * 无符号大端整数转换为 DER INTEGER 的内容：去掉多余的前导 0，最高位为 1 时补一个 0
+	 */
+	private static byte[] derInteger(byte[] signature, int offset) {
+		int start = offset;
+		final int end = offset + ES256_PART_LENGTH;
+		while (start < end - 1 && signature[start] == 0) {
+			start++;
+		}
+		final int padding = (signature[start] & 0x80) != 0 ? 1 : 0;
+		final byte[] value = new byte[padding + end - start];
+		System.arraycopy(signature, start, value, padding, end - start);
+		return value;
+	}
+
+	/**
+	 * 线程内复用的 Mac 和 Signature
+	 */
+	private static final class Verifiers {
+
+		/**
+		 * 当前 Mac 对应的 kid，密钥轮换后重新初始化
+		 */
+		private String macKid;
+
+		private Mac mac;
+
+		private Signature rsa;
+
+		private Signature ecdsa;
+
+		Mac mac(JwtKey key) throws GeneralSecurityException {
+			if (!key.getKid().equals(macKid)) {
+				final Mac created = Mac.getInstance(HMAC_SHA256);
+				created.init(new SecretKeySpec(key.getMacSecret(), HMAC_SHA256));
+				mac = created;
+				macKid = key.getKid();
+			}
+			return mac;
+		}
+
+		Signature signature(SignAlgorithm algorithm) throws GeneralSecurityException {
+			if (algorithm == SignAlgorithm.ES256) {
+				if (Objects.isNull(ecdsa)) {
+					ecdsa = Signature.getInstance("SHA256withECDSA");
+				}
+				return ecdsa;
+			}
+			if (Objects.isNull(rsa)) {
+				rsa = Signature.getInstance("SHA256withRSA");
+			}
+			return rsa;
+		}
+	}
+}
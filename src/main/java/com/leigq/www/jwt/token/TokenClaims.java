@@ -0,0 +1,246 @@
+package com.leigq.www.jwt.token;
+
+import com.auth0.jwt.exceptions.InvalidClaimException;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 拦截器等只需要少数几个负载项的场景使用的 jwt 负载
+ * <br/>
+ * 用 Jackson 流式解析器直接把负载解析到固定的字段上，不构建 JSON 树、也不构建 Claim 对象；没有用到的自定义负载直接跳过
+ *
+ * @author leigq
+ * @date 2026-10-18 19:41:36
+ */
+@Getter
+public final class TokenClaims {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private static final long ABSENT = -1L;
+
+	/**
+	 * 发行者
+	 */
+	private String issuer;
+
+	/**
+	 * 用户id
+	 */
+	private String subject;
+
+	/**
+	 * 第一个受众，即用户名
+	 */
+	private String audience;
+
+	/**
+	 * 过期时间，单位：秒，不存在时为 -1
+	 */
+	private long expiresAt = ABSENT;
+
+	/**
+	 * 生效时间，单位：秒，不存在时为 -1
+	 */
+	private long notBefore = ABSENT;
+
+	/**
+	 * 签发时间，单位：秒，不存在时为 -1
+	 */
+	private long issuedAt = ABSENT;
+
+	/**
+	 * jwt ID
+	 */
+	private String id;
+
+	/**
+	 * 自定义负载：用户 ip
+	 */
+	private String ip;
+
+	private TokenClaims() {
+	}
+
+	/**
+	 * 过期时间
+	 *
+	 * @return 不存在时为 null
+	 */
+	public Date getExpiresAtDate() {
+		return expiresAt == ABSENT ? null : new Date(expiresAt * 1000);
+	}
+
+	/**
+	 * 验证 token 并解析负载
+	 * <br/>
+	 * 签名由 {@link SignatureVerifier} 直接对原文验证，不构建 DecodedJWT
+	 *
+	 * @param token    the token
+	 * @param registry 签名密钥注册表
+	 * @param issuer   发行者
+	 * @return the token claims
+	 * @throws JWTVerificationException the jwt verification exception
+	 */
+	public static TokenClaims verify(String token, JwtKeyRegistry registry, String issuer) throws JWTVerificationException {
+		if (CompactTokenCodec.isCompact(token)) {
+			return of(CompactTokenCodec.verify(token, registry, issuer));
+		}
+		final byte[] payload = TokenPrecheck.checkAndDecodePayload(token);
+		SignatureVerifier.verify(registry.verificationKey(token), token, token.lastIndexOf('.'));
+
+		final TokenClaims claims = parse(payload);
+		if (!Objects.equals(issuer, claims.issuer)) {
+			throw new InvalidClaimException("The Claim 'iss' value doesn't match the required one.");
+		}
+		TokenPrecheck.checkTime(claims.expiresAt, claims.notBefore);
+		return claims;
+	}
+
+	/**
+	 * 只解码不验证，用于撤销等已知 token 来源的场景，不能用于认证
+	 *
+	 * @param token the token
+	 * @return the token claims
+	 * @throws JWTDecodeException 格式错误
+	 */
+	public static TokenClaims decode(String token) throws JWTDecodeException {
+		if (CompactTokenCodec.isCompact(token)) {
+			return of(CompactTokenCodec.decode(token));
+		}
+		final int firstDot = token.indexOf('.');
+		final int secondDot = token.indexOf('.', firstDot + 1);
+		if (firstDot < 0 || secondDot < 0) {
+			throw new JWTDecodeException("token 格式错误");
+		}
+		try {
+			return parse(Base64.getUrlDecoder().decode(token.substring(firstDot + 1, secondDot)));
+		} catch (IllegalArgumentException e) {
+			throw new JWTDecodeException("token 格式错误", e);
+		}
+	}
+
+	/**
+	 * 流式解析 JSON 负载
+	 *
+	 * @param json 负载的 JSON 字节
+	 * @return the token claims
+	 * @throws JWTDecodeException 格式错误
+	 */
+	static TokenClaims parse(byte[] json) throws JWTDecodeException {
+		final TokenClaims claims = new TokenClaims();
+		try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new JWTDecodeException("负载不是 JSON 对象");
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				final String name = parser.getCurrentName();
+				final JsonToken value = parser.nextToken();
+				switch (name) {
+					case "iss":
+						claims.issuer = text(parser, value);
+						break;
+					case "sub":
+						claims.subject = text(parser, value);
+						break;
+					case "aud":
+						claims.audience = firstText(parser, value);
+						break;
+					case "exp":
+						claims.expiresAt = number(parser, value);
+						break;
+					case "nbf":
+						claims.notBefore = number(parser, value);
+						break;
+					case "iat":
+						claims.issuedAt = number(parser, value);
+						break;
+					case "jti":
+						claims.id = text(parser, value);
+						break;
+					case "ip":
+						claims.ip = text(parser, value);
+						break;
+					default:
+						parser.skipChildren();
+				}
+			}
+		} catch (IOException e) {
+			throw new JWTDecodeException("负载解析失败", e);
+		}
+		return claims;
+	}
+
+	/**
+	 * 从已解码的 jwt 构建，紧凑格式的 token 使用
+	 *
+	 * @param jwt the jwt
+	 * @return the token claims
+	 */
+	static TokenClaims of(DecodedJWT jwt) {
+		final TokenClaims claims = new TokenClaims();
+		claims.issuer = jwt.getIssuer();
+		claims.subject = jwt.getSubject();
+		final List<String> audience = jwt.getAudience();
+		claims.audience = Objects.isNull(audience) || audience.isEmpty() ? null : audience.get(0);
+		claims.expiresAt = seconds(jwt.getExpiresAt());
+		claims.notBefore = seconds(jwt.getNotBefore());
+		claims.issuedAt = seconds(jwt.getIssuedAt());
+		claims.id = jwt.getId();
+		claims.ip = jwt.getClaim("ip").asString();
+		return claims;
+	}
+
+	private static long seconds(Date date) {
+		return Objects.isNull(date) ? ABSENT : date.getTime() / 1000;
+	}
+
+	private static String text(JsonParser parser, JsonToken value) throws IOException {
+		if (value == JsonToken.VALUE_STRING) {
+			return parser.getText();
+		}
+		parser.skipChildren();
+		return null;
+	}
+
+	/**
+	 * aud 可以是字符串，也可以是字符串数组，取第一个
+	 */
+	private static String firstText(JsonParser parser, JsonToken value) throws IOException {
+		if (value != JsonToken.START_ARRAY) {
+			return text(parser, value);
+		}
+		String first = null;
+		JsonToken item;
+		while ((item = parser.nextToken()) != JsonToken.END_ARRAY) {
+			if (Objects.isNull(item)) {
+				throw new JWTDecodeException("负载格式错误");
+			}
+			if (Objects.isNull(first) && item == JsonToken.VALUE_STRING) {
+				first = parser.getText();
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return first;
+	}
+
+	private static long number(JsonParser parser, JsonToken value) throws IOException {
+		if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+			return parser.getValueAsLong();
+		}
+		parser.skipChildren();
+		return ABSENT;
+	}
+}
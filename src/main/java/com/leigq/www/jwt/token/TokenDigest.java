@@ -0,0 +1,69 @@
+package com.leigq.www.jwt.token;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * token 摘要，取 SHA-256 的前 128 位，作为缓存 key 使用，避免在内存中长期持有完整的 token
+ *
+ * @author leigq
+ * @date 2026-10-18 11:02:47
+ */
+public final class TokenDigest {
+
+	/**
+	 * MessageDigest 非线程安全，每个线程复用一个
+	 */
+	private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	});
+
+	private final long high;
+
+	private final long low;
+
+	private TokenDigest(long high, long low) {
+		this.high = high;
+		this.low = low;
+	}
+
+	/**
+	 * 计算 token 摘要
+	 *
+	 * @param token the token
+	 * @return the token digest
+	 */
+	public static TokenDigest of(String token) {
+		final byte[] digest = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+		final ByteBuffer buffer = ByteBuffer.wrap(digest);
+		return new TokenDigest(buffer.getLong(), buffer.getLong());
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof TokenDigest)) {
+			return false;
+		}
+		final TokenDigest that = (TokenDigest) o;
+		return high == that.high && low == that.low;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(high ^ low);
+	}
+
+	@Override
+	public String toString() {
+		return Long.toHexString(high) + Long.toHexString(low);
+	}
+}
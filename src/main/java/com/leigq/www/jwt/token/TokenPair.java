@@ -0,0 +1,35 @@
+package com.leigq.www.jwt.token;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 登录时一起签发的 access token 和 refresh token
+ *
+ * @author leigq
+ * @date 2026-10-18 20:16:05
+ */
+@Getter
+@AllArgsConstructor
+public final class TokenPair {
+
+	/**
+	 * 访问 token
+	 */
+	private final String accessToken;
+
+	/**
+	 * 刷新 token，用于当 token 过期时刷新 token
+	 */
+	private final String refreshToken;
+
+	/**
+	 * access token 的 jti，签发时已知，不需要再解码 token
+	 */
+	private final String accessTokenId;
+
+	/**
+	 * access token 的过期时间（毫秒），与负载中的 exp 一致，精确到秒
+	 */
+	private final long accessTokenExpiresAt;
+}
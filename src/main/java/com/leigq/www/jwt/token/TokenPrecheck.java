@@ -0,0 +1,158 @@
+package com.leigq.www.jwt.token;
+
+import java.util.Base64;
+
+/**
+ * token 预检，在验证签名之前拒绝明显无效的 token
+ * <br/>
+ * 只检查结构，并用一个最小的扫描器从负载中读取 exp、nbf，不构建 JSON 树、不计算签名；
+ * 预检通过不代表 token 有效，仍需完整验证。
+ *
+ * @author leigq
+ * @date 2026-10-18 18:52:09
+ */
+public final class TokenPrecheck {
+
+	/**
+	 * token 最大长度，超过的直接拒绝，避免解码超大的伪造 token
+	 */
+	private static final int MAX_TOKEN_LENGTH = 8192;
+
+	private static final byte[] EXP = {'"', 'e', 'x', 'p', '"'};
+
+	private static final byte[] NBF = {'"', 'n', 'b', 'f', '"'};
+
+	private static final long ABSENT = -1L;
+
+	private TokenPrecheck() {
+	}
+
+	/**
+	 * 预检标准 JWT
+	 *
+	 * @param token the token
+	 * @throws TokenRejectedException 格式错误、已过期或还未生效
+	 */
+	public static void check(String token) throws TokenRejectedException {
+		checkAndDecodePayload(token);
+	}
+
+	/**
+	 * 预检标准 JWT，并返回解码后的负载，供后续解析复用
+	 *
+	 * @param token the token
+	 * @return 负载的 JSON 字节
+	 * @throws TokenRejectedException 格式错误、已过期或还未生效
+	 */
+	static byte[] checkAndDecodePayload(String token) throws TokenRejectedException {
+		final int length = token.length();
+		if (length > MAX_TOKEN_LENGTH) {
+			throw malformed();
+		}
+		// 三段，每段都非空且只包含 Base64Url 字符
+		int firstDot = -1;
+		int secondDot = -1;
+		for (int i = 0; i < length; i++) {
+			final char c = token.charAt(i);
+			if (c == '.') {
+				if (firstDot < 0) {
+					firstDot = i;
+				} else if (secondDot < 0) {
+					secondDot = i;
+				} else {
+					throw malformed();
+				}
+			} else if (!isBase64Url(c)) {
+				throw malformed();
+			}
+		}
+		if (firstDot <= 0 || secondDot <= firstDot + 1 || secondDot == length - 1) {
+			throw malformed();
+		}
+
+		final byte[] payload;
+		try {
+			payload = Base64.getUrlDecoder().decode(token.substring(firstDot + 1, secondDot));
+		} catch (IllegalArgumentException e) {
+			throw malformed();
+		}
+		if (payload.length == 0 || payload[0] != '{') {
+			throw malformed();
+		}
+		checkTime(readNumber(payload, EXP), readNumber(payload, NBF));
+		return payload;
+	}
+
+	/**
+	 * 检查过期时间、生效时间
+	 *
+	 * @param exp 过期时间，单位：秒，不存在时为负数
+	 * @param nbf 生效时间，单位：秒，不存在时为负数
+	 * @throws TokenRejectedException 已过期或还未生效
+	 */
+	static void checkTime(long exp, long nbf) throws TokenRejectedException {
+		final long now = System.currentTimeMillis();
+		if (exp >= 0 && now > exp * 1000) {
+			throw new TokenRejectedException(TokenRejectedException.Reason.EXPIRED, "token 已过期");
+		}
+		if (nbf >= 0 && now < nbf * 1000) {
+			throw new TokenRejectedException(TokenRejectedException.Reason.NOT_YET_VALID, "token 还未生效");
+		}
+	}
+
+	/**
+	 * 读取 "name": 后面的整数
+	 *
+	 * @param json the json
+	 * @param name 带引号的字段名
+	 * @return 不存在或不是整数时返回 -1
+	 */
+	private static long readNumber(byte[] json, byte[] name) {
+		final int index = indexOf(json, name);
+		if (index < 0) {
+			return ABSENT;
+		}
+		int i = skipWhitespace(json, index + name.length);
+		if (i >= json.length || json[i] != ':') {
+			return ABSENT;
+		}
+		i = skipWhitespace(json, i + 1);
+		long value = 0;
+		int digits = 0;
+		while (i < json.length && json[i] >= '0' && json[i] <= '9' && digits < 18) {
+			value = value * 10 + (json[i] - '0');
+			i++;
+			digits++;
+		}
+		return digits == 0 ? ABSENT : value;
+	}
+
+	private static int indexOf(byte[] source, byte[] target) {
+		outer:
+		for (int i = 0, max = source.length - target.length; i <= max; i++) {
+			for (int j = 0; j < target.length; j++) {
+				if (source[i + j] != target[j]) {
+					continue outer;
+				}
+			}
+			return i;
+		}
+		return -1;
+	}
+
+	private static int skipWhitespace(byte[] json, int from) {
+		int i = from;
+		while (i < json.length && (json[i] == ' ' || json[i] == '\t' || json[i] == '\n' || json[i] == '\r')) {
+			i++;
+		}
+		return i;
+	}
+
+	private static boolean isBase64Url(char c) {
+		return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+	}
+
+	private static TokenRejectedException malformed() {
+		return new TokenRejectedException(TokenRejectedException.Reason.MALFORMED, "token 格式错误");
+	}
+}
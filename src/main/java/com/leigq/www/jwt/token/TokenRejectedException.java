@@ -0,0 +1,62 @@
+package com.leigq.www.jwt.token;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+
+/**
+ * 预检未通过、或之前已验证失败过的 token，不计算签名直接拒绝
+ * <br/>
+ * 大量过期、格式错误、伪造的 token 集中到来时会频繁抛出，所以不收集堆栈
+ *
+ * @author leigq
+ * @date 2026-10-18 18:40:22
+ */
+public class TokenRejectedException extends JWTVerificationException {
+
+	private static final long serialVersionUID = 3317261453095226408L;
+
+	/**
+	 * 拒绝原因
+	 */
+	private final Reason reason;
+
+	public TokenRejectedException(Reason reason, String message) {
+		super(message);
+		this.reason = reason;
+	}
+
+	public Reason getReason() {
+		return reason;
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+
+	/**
+	 * 拒绝原因
+	 */
+	public enum Reason {
+
+		/**
+		 * 格式错误
+		 */
+		MALFORMED,
+
+		/**
+		 * 已过期
+		 */
+		EXPIRED,
+
+		/**
+		 * 还未生效
+		 */
+		NOT_YET_VALID,
+
+		/**
+		 * 签名错误、发行者不匹配等，只由 {@link RejectedTokenCache} 使用
+		 */
+		INVALID,
+		;
+	}
+}
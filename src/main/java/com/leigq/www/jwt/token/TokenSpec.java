@@ -0,0 +1,45 @@
+package com.leigq.www.jwt.token;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * 批量签发时单个 token 的内容
+ *
+ * @author leigq
+ * @date 2026-10-18 15:20:44
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenSpec implements Serializable {
+
+	private static final long serialVersionUID = 4127705362384425319L;
+
+	/**
+	 * 签名的对象，jwt所面向的用户，类似用户id
+	 */
+	private String subject;
+
+	/**
+	 * 接受 jwt 的一方，类似用户名
+	 */
+	private String[] audience;
+
+	/**
+	 * 过期时间
+	 */
+	private Date expiresAt;
+
+	/**
+	 * 自定义负载
+	 */
+	private Map<String, String> customClaim;
+}
@@ -0,0 +1,106 @@
+package com.leigq.www.jwt.token;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 已验证 token 缓存
+ * <br/>
+ * 以 token 摘要为 key 缓存验证通过的结果，缓存项最晚在 token 的 exp 时刻失效，容量满时按 W-TinyLFU 淘汰。只缓存验证成功的结果，验证失败的异常直接抛出。
+ *
+ * @param <V> 验证结果类型
+ * @author leigq
+ * @date 2026-10-18 11:10:16
+ */
+public final class VerifiedTokenCache<V> {
+
+	private final Cache<TokenDigest, V> cache;
+
+	/**
+	 * Instantiates a new Verified token cache.
+	 *
+	 * @param maximumSize 最大缓存数量
+	 * @param expiresAt   从验证结果中取过期时间
+	 */
+	public VerifiedTokenCache(long maximumSize, Function<V, Date> expiresAt) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfter(new ExpiresAtExpiry<>(expiresAt))
+				.recordStats()
+				.build();
+	}
+
+	/**
+	 * 从缓存获取验证结果，未命中时调用 verifier 验证并缓存
+	 *
+	 * @param token    the token
+	 * @param verifier 验证方法，验证失败时抛出异常
+	 * @return the v
+	 */
+	public V get(String token, Function<String, V> verifier) {
+		return cache.get(TokenDigest.of(token), digest -> verifier.apply(token));
+	}
+
+	/**
+	 * 移除缓存
+	 *
+	 * @param token the token
+	 */
+	public void invalidate(String token) {
+		cache.invalidate(TokenDigest.of(token));
+	}
+
+	/**
+	 * 清空缓存，如密钥被撤销时
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * 命中、未命中等统计
+	 *
+	 * @return the cache stats
+	 */
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	/**
+	 * 缓存项在 token 过期时失效，读写不延长有效期
+	 */
+	private static final class ExpiresAtExpiry<V> implements Expiry<TokenDigest, V> {
+
+		private final Function<V, Date> expiresAt;
+
+		private ExpiresAtExpiry(Function<V, Date> expiresAt) {
+			this.expiresAt = expiresAt;
+		}
+
+		@Override
+		public long expireAfterCreate(TokenDigest key, V value, long currentTime) {
+			final Date exp = expiresAt.apply(value);
+			if (Objects.isNull(exp)) {
+				return 0L;
+			}
+			return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, exp.getTime() - System.currentTimeMillis()));
+		}
+
+		@Override
+		public long expireAfterUpdate(TokenDigest key, V value, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+
+		@Override
+		public long expireAfterRead(TokenDigest key, V value, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
+}
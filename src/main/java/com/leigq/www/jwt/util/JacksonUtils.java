@@ -1,5 +1,6 @@
 package com.leigq.www.jwt.util;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JavaType;
@@ -161,7 +162,17 @@ public final class JacksonUtils {
          * @date 2020 -07-24 11:14:28
          */
         public static ObjectMapper newInstance() {
-            ObjectMapper objectMapper = new ObjectMapper();
+            return newInstance(null);
+        }
+
+        /**
+         * 使用指定的 JsonFactory 创建，配置同 {@link #newInstance()}，如二进制格式的 SmileFactory
+         *
+         * @param jsonFactory the json factory，为 null 时使用默认的 JSON
+         * @return the object mapper
+         */
+        public static ObjectMapper newInstance(JsonFactory jsonFactory) {
+            ObjectMapper objectMapper = new ObjectMapper(jsonFactory);
             /* 一些配置 配置参考：http://www.imooc.com/wenda/detail/425280*/
             objectMapper
                     // 设置时区
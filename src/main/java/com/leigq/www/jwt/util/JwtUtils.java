@@ -1,16 +1,27 @@
 package com.leigq.www.jwt.util;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.JWTCreator;
-import com.auth0.jwt.JWTVerifier;
-import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.leigq.www.jwt.config.JwtConfig;
 import com.leigq.www.jwt.config.JwtProperties;
-import org.springframework.util.CollectionUtils;
-import org.springframework.util.DigestUtils;
+import com.leigq.www.jwt.enums.TokenFormat;
+import com.leigq.www.jwt.token.BulkTokenIssuer;
+import com.leigq.www.jwt.token.CompactTokenCodec;
+import com.leigq.www.jwt.token.JtiGenerator;
+import com.leigq.www.jwt.token.JwtKey;
+import com.leigq.www.jwt.token.JwtKeyRegistry;
+import com.leigq.www.jwt.token.RejectedTokenCache;
+import com.leigq.www.jwt.token.TokenClaims;
+import com.leigq.www.jwt.token.TokenPair;
+import com.leigq.www.jwt.token.TokenPrecheck;
+import com.leigq.www.jwt.token.TokenSpec;
+import com.leigq.www.jwt.token.TokenWriter;
+import com.leigq.www.jwt.token.VerifiedTokenCache;
+import org.springframework.core.ResolvableType;
 
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * Jwt utils.
@@ -21,6 +32,39 @@ public final class JwtUtils {
 
     private static final JwtProperties JWT_PROPERTIES = SpringContextHolder.getBean(JwtProperties.class);
 
+	/**
+	 * 签名密钥注册表，签名器、验证器按 kid 复用
+	 */
+	private static final JwtKeyRegistry KEY_REGISTRY = SpringContextHolder.getBean(JwtKeyRegistry.class);
+
+	/**
+	 * 已验证 token 缓存，未启用时为 null
+	 */
+	private static final VerifiedTokenCache<DecodedJWT> VERIFIED_TOKEN_CACHE = SpringContextHolder.getBeanIfAvailable(
+			ResolvableType.forClassWithGenerics(VerifiedTokenCache.class, DecodedJWT.class));
+
+	/**
+	 * 已验证 token 负载缓存，未启用时为 null
+	 */
+	private static final VerifiedTokenCache<TokenClaims> VERIFIED_CLAIMS_CACHE = SpringContextHolder.getBeanIfAvailable(
+			ResolvableType.forClassWithGenerics(VerifiedTokenCache.class, TokenClaims.class));
+
+	/**
+	 * 验证失败 token 缓存，未启用时为 null
+	 */
+	private static final RejectedTokenCache REJECTED_TOKEN_CACHE = SpringContextHolder.getBeanIfAvailable(RejectedTokenCache.class);
+
+	/**
+	 * 批量签发 token 使用的线程池
+	 */
+	private static final BulkTokenIssuer BULK_TOKEN_ISSUER = SpringContextHolder.getBean(BulkTokenIssuer.class);
+
+	/**
+	 * jti 生成器，优先使用自定义的 JtiGenerator bean，没有时按 jwt.jti.strategy 创建
+	 */
+	private static final JtiGenerator JTI_GENERATOR = Optional.ofNullable(SpringContextHolder.getBeanIfAvailable(JtiGenerator.class))
+			.orElseGet(() -> JwtConfig.defaultJtiGenerator(JWT_PROPERTIES.getJti()));
+
 	/**
 	 * 生成 jwt
 	 *
@@ -44,40 +88,74 @@ public final class JwtUtils {
 	 * @return the string
 	 */
 	public static String generate(Map<String, String> customClaim, String subject, Date expiresAt, String... audience) {
-        final JWTCreator.Builder builder = JWT.create();
-
-		/* 设置头部信息 Header，可以不设置，使用默认值 */
-		builder.withHeader(new HashMap<>());
-
-		/* 设置 Payload(载荷) */
-		// 设置jti(JWT ID，编号)：是JWT的唯一标识，根据业务需要，这个可以设置为一个不重复的值，主要用来作为一次性token,从而回避重复攻击。
-		builder.withJWTId(DigestUtils.md5DigestAsHex(UUID.randomUUID().toString().getBytes()));
-
-		// 签名是有谁生成 例如 服务器
-		builder.withIssuer(JWT_PROPERTIES.getIssuer());
+		return sign(KEY_REGISTRY.signingKey(), JWT_PROPERTIES.getIssuer(), new Date(), customClaim, subject, expiresAt, audience);
+	}
 
-		// 签名的对象，jwt所面向的用户，类似用户id
-		builder.withSubject(subject);
 
-		// 生效时间，（定义在什么时间之前，该jwt都是不可用的）
-		builder.withNotBefore(new Date());
+	/**
+	 * 生成 access token 和 refresh token，两者只有 jti、过期时间不同，共用同一次签发的负载编码；
+	 * 同时返回 access token 的 jti 和过期时间，用于写入缓存用户
+	 *
+	 * @param customClaim      自定义负载
+	 * @param subject          签名的对象，jwt所面向的用户，类似用户id
+	 * @param accessExpiresAt  access token 过期时间
+	 * @param refreshExpiresAt refresh token 过期时间
+	 * @param audience         接受 jwt 的一方，类似用户名
+	 * @return the token pair
+	 */
+	public static TokenPair generatePair(Map<String, String> customClaim, String subject, Date accessExpiresAt,
+										 Date refreshExpiresAt, String... audience) {
+		final JwtKey signingKey = KEY_REGISTRY.signingKey();
+		final String issuer = JWT_PROPERTIES.getIssuer();
+		final Date issuedAt = new Date();
+		// access token 的 jti 在这里生成，随 TokenPair 返回，调用方不需要再解码 token
+		final String accessJti = JTI_GENERATOR.generate();
+		if (JWT_PROPERTIES.getTokenFormat() == TokenFormat.COMPACT) {
+			return new TokenPair(CompactTokenCodec.encode(signingKey, issuer, accessJti, issuedAt, customClaim, subject, accessExpiresAt, audience),
+					sign(signingKey, issuer, issuedAt, customClaim, subject, refreshExpiresAt, audience),
+					accessJti, accessExpiresAt.getTime() / 1000 * 1000);
+		}
+		return TokenWriter.writePair(signingKey, issuer, issuedAt, customClaim, subject, accessJti, accessExpiresAt,
+				JTI_GENERATOR.generate(), refreshExpiresAt, audience);
+	}
 
-		// 接受 jwt 的一方，类似用户名
-		builder.withAudience(audience);
 
-		// 签发时间
-		builder.withIssuedAt(new Date());
+	/**
+	 * 批量生成 jwt，签名密钥、发行者、签发时间在整批 token 中共用，签名在有界的 ForkJoinPool 中并行执行
+	 *
+	 * @param specs 每个 token 的主题、受众、过期时间和自定义负载
+	 * @return 与 specs 顺序一致的 token
+	 */
+	public static List<String> generate(List<TokenSpec> specs) {
+		final JwtKey signingKey = KEY_REGISTRY.signingKey();
+		final String issuer = JWT_PROPERTIES.getIssuer();
+		final Date issuedAt = new Date();
+		return BULK_TOKEN_ISSUER.issue(specs, spec -> sign(signingKey, issuer, issuedAt, spec.getCustomClaim(),
+				spec.getSubject(), spec.getExpiresAt(), spec.getAudience()));
+	}
 
-		// 签名过期的时间
-		builder.withExpiresAt(expiresAt);
 
-		// 自定义声明
-		if (!CollectionUtils.isEmpty(customClaim)) {
-			customClaim.forEach(builder::withClaim);
+	/**
+	 * 签名生成 jwt
+	 *
+	 * @param signingKey  签名密钥
+	 * @param issuer      发行者
+	 * @param issuedAt    签发时间
+	 * @param customClaim 自定义负载
+	 * @param subject     签名的对象，jwt所面向的用户，类似用户id
+	 * @param expiresAt   过期时间
+	 * @param audience    接受 jwt 的一方，类似用户名
+	 * @return the string
+	 */
+	private static String sign(JwtKey signingKey, String issuer, Date issuedAt, Map<String, String> customClaim,
+							   String subject, Date expiresAt, String... audience) {
+		// 紧凑格式
+		if (JWT_PROPERTIES.getTokenFormat() == TokenFormat.COMPACT) {
+			return CompactTokenCodec.encode(signingKey, issuer, JTI_GENERATOR.generate(), issuedAt, customClaim, subject, expiresAt, audience);
 		}
 
-		/* Signature（签名）*/
-		return builder.sign(Algorithm.HMAC256(JWT_PROPERTIES.getSignSecret()));
+		// 头部使用预先编码好的前缀，负载中：jti 为唯一标识，nbf、iat 为签发时间，exp 为过期时间
+		return TokenWriter.write(signingKey, issuer, JTI_GENERATOR.generate(), issuedAt, customClaim, subject, expiresAt, audience);
 	}
 
 
@@ -89,10 +167,73 @@ public final class JwtUtils {
 	 * @throws JWTVerificationException the jwt verification exception
 	 */
 	public static DecodedJWT parse(String token) throws JWTVerificationException {
-		JWTVerifier verifier = JWT.require(Algorithm.HMAC256(JWT_PROPERTIES.getSignSecret()))
-				.withIssuer(JWT_PROPERTIES.getIssuer())
-				.build();
-		return verifier.verify(token);
+		if (VERIFIED_TOKEN_CACHE == null) {
+			return rejectOrVerify(token, JwtUtils::verify);
+		}
+		// 同一个 token 在有效期内只验证一次，之后直接从缓存取
+		return VERIFIED_TOKEN_CACHE.get(token, t -> rejectOrVerify(t, JwtUtils::verify));
+	}
+
+	/**
+	 * 已知验证失败的 token 直接拒绝，否则调用 verifier 验证
+	 *
+	 * @param token    the token
+	 * @param verifier 验证方法
+	 * @return the v
+	 * @throws JWTVerificationException the jwt verification exception
+	 */
+	private static <V> V rejectOrVerify(String token, Function<String, V> verifier) throws JWTVerificationException {
+		if (REJECTED_TOKEN_CACHE == null) {
+			return verifier.apply(token);
+		}
+		return REJECTED_TOKEN_CACHE.verify(token, verifier);
+	}
+
+	/**
+	 * 验证 jwt
+	 *
+	 * @param token the token
+	 * @return the decoded jwt
+	 * @throws JWTVerificationException the jwt verification exception
+	 */
+	private static DecodedJWT verify(String token) throws JWTVerificationException {
+		// 迁移期间两种格式的 token 都可以验证
+		if (CompactTokenCodec.isCompact(token)) {
+			return CompactTokenCodec.verify(token, KEY_REGISTRY, JWT_PROPERTIES.getIssuer());
+		}
+		// 格式错误、已过期、还未生效的 token 不计算签名直接拒绝
+		TokenPrecheck.check(token);
+		// 按 token 头部中的 kid 取已构建好的验证器，退役的密钥在保留期内依然可以验证
+		return KEY_REGISTRY.verificationKey(token).getVerifier().verify(token);
+	}
+
+	/**
+	 * 验证 jwt 并流式解析出常用的负载项（sub、aud[0]、exp、ip 等），比 {@link #parse(String)} 更轻量
+	 *
+	 * @param token the token
+	 * @return the token claims
+	 * @throws JWTVerificationException the jwt verification exception
+	 */
+	public static TokenClaims claims(String token) throws JWTVerificationException {
+		if (VERIFIED_CLAIMS_CACHE == null) {
+			return rejectOrVerify(token, JwtUtils::verifyClaims);
+		}
+		return VERIFIED_CLAIMS_CACHE.get(token, t -> rejectOrVerify(t, JwtUtils::verifyClaims));
+	}
+
+	/**
+	 * 只解码不验证签名和有效期，用于撤销自己签发的 token 等场景，不能用于认证
+	 *
+	 * @param token the token
+	 * @return the token claims
+	 * @throws JWTDecodeException 格式错误
+	 */
+	public static TokenClaims decode(String token) throws JWTDecodeException {
+		return TokenClaims.decode(token);
+	}
+
+	private static TokenClaims verifyClaims(String token) throws JWTVerificationException {
+		return TokenClaims.verify(token, KEY_REGISTRY, JWT_PROPERTIES.getIssuer());
 	}
 
 	/**
@@ -102,7 +243,7 @@ public final class JwtUtils {
 	 * @return the string
 	 */
 	public static String subject(String token) throws JWTVerificationException {
-		return parse(token).getSubject();
+		return claims(token).getSubject();
 	}
 
 	/**
@@ -1,17 +1,25 @@
 package com.leigq.www.jwt.util;
 
 import com.leigq.www.jwt.config.RedisConfig;
+import com.leigq.www.jwt.config.RedisStoreProperties;
+import com.leigq.www.jwt.config.redis.RedisTrackingCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.*;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
+import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 
 /**
@@ -27,6 +35,10 @@ import java.util.concurrent.TimeUnit;
  *     redisUtils.list.get("listKey", 1);
  * }
  * </pre>
+ * 需要一次执行多条命令时使用 {@link #pipeline(Consumer)} 或 string.multiGet、string.multiSet、hash.getMaps 等批量方法，
+ * 所有命令一次发送，只有一次网络往返。<br/>
+ * string、hash 的常用操作还有返回 CompletableFuture 的 xxxAsync 版本，基于 Lettuce 的非阻塞 API，调用线程不等待 Redis 响应；
+ * 回调在 Lettuce 的 I/O 线程中执行，不要在回调中执行阻塞操作，需要时使用 thenXxxAsync 指定线程池。<br/>
  * 参考资料:<br/>
  * <ul>
  *     <li>
@@ -60,16 +72,45 @@ public final class RedisUtils {
      */
     private final RedisTemplate<Object, Object> redisTemplate;
 
+    /**
+     * 非阻塞的 redisTemplate，各 xxxAsync 方法使用，序列化方式与 redisTemplate 相同
+     */
+    private final ReactiveRedisTemplate<Object, Object> reactiveRedisTemplate;
+
+    /**
+     * Redis 服务端协助的客户端缓存，未启用时为 null
+     */
+    private final RedisTrackingCache trackingCache;
+
     /**
      * 使用 RedisConfig 中的 redisTemplate，自定义序列化 及 兼容 java8 时间
      *
-     * @param redisTemplate the redis template
+     * @param redisTemplate         the redis template
+     * @param reactiveRedisTemplate the reactive redis template
+     * @param trackingCache         客户端缓存，redis-store.tracking.enabled 为 true 时才有
      * @author leigq
      * @date 2020 -07-24 13:12:04
-     * @see RedisConfig#getRedisTemplate(RedisConnectionFactory)
+     * @see RedisConfig#getRedisTemplate(RedisConnectionFactory, RedisStoreProperties)
      */
-    public RedisUtils(RedisTemplate<Object, Object> redisTemplate) {
+    public RedisUtils(RedisTemplate<Object, Object> redisTemplate, ReactiveRedisTemplate<Object, Object> reactiveRedisTemplate,
+                      ObjectProvider<RedisTrackingCache> trackingCache) {
         this.redisTemplate = redisTemplate;
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.trackingCache = trackingCache.getIfAvailable();
+    }
+
+    /**
+     * 本节点修改或删除了 key，移除客户端缓存中的值，不等 Redis 的失效通知
+     *
+     * @param keys the keys
+     */
+    private void invalidateTracked(java.lang.String... keys) {
+        if (Objects.isNull(trackingCache)) {
+            return;
+        }
+        for (java.lang.String key : keys) {
+            trackingCache.invalidate(key);
+        }
     }
 
     /**
@@ -110,6 +151,31 @@ public final class RedisUtils {
         return redisTemplate;
     }
 
+    /**
+     * 管道，operations 中的命令一次发送，返回按命令顺序排列的结果，示例如下：<br/>
+     * <pre>
+     * List&lt;Object&gt; results = redisUtils.pipeline(ops -&gt; {
+     *     ops.opsForValue().get("a");
+     *     ops.opsForHash().entries("hashKey");
+     *     ops.opsForSet().add("setKey", "v");
+     * });
+     * </pre>
+     * operations 中的命令返回值都是 null，结果只能从返回值中取，值已按 redisTemplate 的序列化方式反序列化。
+     * 管道不是事务，其中的写命令不会移除客户端缓存中的值，由 Redis 的失效通知移除。
+     *
+     * @param operations 要执行的命令
+     * @return 按命令顺序排列的结果
+     */
+    public java.util.List<Object> pipeline(Consumer<RedisOperations<Object, Object>> operations) {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> ops) {
+                operations.accept((RedisOperations<Object, Object>) ops);
+                return null;
+            }
+        });
+    }
+
     /**
      * 提供一些公共操作
      *
@@ -217,6 +283,7 @@ public final class RedisUtils {
          * @date 2020 -07-24 13:12:07
          */
         public Boolean delete(java.lang.String key) {
+            invalidateTracked(key);
             return redisTemplate.delete(key);
         }
 
@@ -229,6 +296,7 @@ public final class RedisUtils {
          * @date 2020 -07-24 13:12:07
          */
         public Long delete(java.lang.String... key) {
+            invalidateTracked(key);
             return redisTemplate.delete(Arrays.asList(key));
         }
     }
@@ -262,7 +330,7 @@ public final class RedisUtils {
         }
 
         /**
-         * 普通缓存获取
+         * 普通缓存获取，启用了客户端缓存且 key 在追踪的前缀中时先读本地
          *
          * @param <T> the type parameter
          * @param key 键
@@ -274,7 +342,9 @@ public final class RedisUtils {
             if (Objects.isNull(key)) {
                 return null;
             }
-            Object object = getValueOperations().get(key);
+            Object object = Objects.nonNull(trackingCache) && trackingCache.matches(key)
+                    ? trackingCache.get(key, redisTemplate.getValueSerializer(), getValueOperations()::get)
+                    : getValueOperations().get(key);
             if (Objects.isNull(object)) {
                 return null;
             }
@@ -293,6 +363,7 @@ public final class RedisUtils {
          */
         public <T> Boolean set(java.lang.String key, T value) {
             try {
+                invalidateTracked(key);
                 getValueOperations().set(key, value);
                 return true;
             } catch (Exception ex) {
@@ -315,6 +386,7 @@ public final class RedisUtils {
         public <T> Boolean set(java.lang.String key, T value, long time) {
             try {
                 if (time > 0) {
+                    invalidateTracked(key);
                     getValueOperations().set(key, value, time, TimeUnit.SECONDS);
                 } else {
                     set(key, value);
@@ -325,6 +397,101 @@ public final class RedisUtils {
                 return false;
             }
         }
+
+        /**
+         * 不存在时放入并设置时间，可用作简单的分布式锁
+         *
+         * @param <T>   the type parameter
+         * @param key   键
+         * @param value the value
+         * @param time  时间(秒)，必须大于0
+         * @return 放入成功返回 true，已存在返回 false
+         */
+        public <T> Boolean setIfAbsent(java.lang.String key, T value, long time) {
+            return Boolean.TRUE.equals(getValueOperations().setIfAbsent(key, value, time, TimeUnit.SECONDS));
+        }
+
+        /**
+         * 异步获取，不经过客户端缓存
+         *
+         * @param <T> the type parameter
+         * @param key 键
+         * @return 值，不存在时为 null
+         */
+        public <T> CompletableFuture<T> getAsync(java.lang.String key) {
+            return reactiveRedisTemplate.opsForValue().get(key).map(value -> (T) value).toFuture();
+        }
+
+        /**
+         * 异步放入并设置时间
+         *
+         * @param <T>   the type parameter
+         * @param key   键
+         * @param value the value
+         * @param time  时间(秒) 如果设置成0或负数，则不设置失效时间
+         * @return 是否成功
+         */
+        public <T> CompletableFuture<Boolean> setAsync(java.lang.String key, T value, long time) {
+            invalidateTracked(key);
+            return (time > 0
+                    ? reactiveRedisTemplate.opsForValue().set(key, value, Duration.ofSeconds(time))
+                    : reactiveRedisTemplate.opsForValue().set(key, value)).toFuture();
+        }
+
+        /**
+         * 批量获取，一条 MGET
+         *
+         * @param <T>  the type parameter
+         * @param keys 键
+         * @return 与 keys 顺序一致的值，不存在的为 null
+         */
+        public <T> java.util.List<T> multiGet(Collection<java.lang.String> keys) {
+            if (keys.isEmpty()) {
+                return Collections.emptyList();
+            }
+            java.util.List<Object> values = getValueOperations().multiGet(new ArrayList<>(keys));
+            return Objects.isNull(values) ? Collections.emptyList() : (java.util.List<T>) values;
+        }
+
+        /**
+         * 批量放入，一条 MSET
+         *
+         * @param <T> the type parameter
+         * @param map 键值
+         * @return the result
+         */
+        public <T> Boolean multiSet(Map<java.lang.String, T> map) {
+            try {
+                invalidateTracked(map.keySet().toArray(new java.lang.String[0]));
+                getValueOperations().multiSet(map);
+                return true;
+            } catch (Exception ex) {
+                log.error("批量缓存放入异常：", ex);
+                return false;
+            }
+        }
+
+        /**
+         * 批量放入并设置时间，MSET 不能设置时间，改为管道中逐个 SET EX，一次发送
+         *
+         * @param <T>  the type parameter
+         * @param map  键值
+         * @param time 时间(秒) 如果设置成0或负数，则不设置失效时间
+         * @return the result
+         */
+        public <T> Boolean multiSet(Map<java.lang.String, T> map, long time) {
+            if (time <= 0) {
+                return multiSet(map);
+            }
+            try {
+                invalidateTracked(map.keySet().toArray(new java.lang.String[0]));
+                pipeline(ops -> map.forEach((key, value) -> ops.opsForValue().set(key, value, time, TimeUnit.SECONDS)));
+                return true;
+            } catch (Exception ex) {
+                log.error("批量缓存放入并设置时间异常：", ex);
+                return false;
+            }
+        }
     }
 
 
@@ -430,6 +597,61 @@ public final class RedisUtils {
             return (Map<K, V>) getHashOperations().entries(key);
         }
 
+        /**
+         * 异步获取 hash 表中给定域的值
+         *
+         * @param <T>     the type parameter
+         * @param key     键
+         * @param hashKey Hash值的Key
+         * @return 值，不存在时为 null
+         */
+        public <T> CompletableFuture<T> getAsync(java.lang.String key, java.lang.String hashKey) {
+            return reactiveRedisTemplate.opsForHash().get(key, hashKey).map(value -> (T) value).toFuture();
+        }
+
+        /**
+         * 异步向一张 hash 表中放入数据
+         *
+         * @param <T>     the type parameter
+         * @param key     键
+         * @param hashKey Hash值的Key
+         * @param value   the value
+         * @return 是否新增了域，已存在时覆盖并返回 false
+         */
+        public <T> CompletableFuture<Boolean> putAsync(java.lang.String key, java.lang.String hashKey, T value) {
+            return reactiveRedisTemplate.opsForHash().put(key, hashKey, value).toFuture();
+        }
+
+        /**
+         * 异步获取 key 对应的所有键值
+         *
+         * @param key 键
+         * @return 对应的多个键值 map，不存在时为空 map
+         */
+        public <K, V> CompletableFuture<Map<K, V>> getMapAsync(java.lang.String key) {
+            return reactiveRedisTemplate.opsForHash().entries(key)
+                    .collectMap(entry -> (K) entry.getKey(), entry -> (V) entry.getValue())
+                    .toFuture();
+        }
+
+        /**
+         * 批量获取多个 hash 表的所有键值，管道中逐个 HGETALL，一次发送
+         *
+         * @param keys 键
+         * @return 与 keys 顺序一致的 map，不存在的为空 map
+         */
+        public <K, V> java.util.List<Map<K, V>> getMaps(Collection<java.lang.String> keys) {
+            if (keys.isEmpty()) {
+                return Collections.emptyList();
+            }
+            java.util.List<Object> maps = pipeline(ops -> keys.forEach(key -> ops.opsForHash().entries(key)));
+            java.util.List<Map<K, V>> result = new ArrayList<>(maps.size());
+            for (Object map : maps) {
+                result.add(Objects.isNull(map) ? Collections.emptyMap() : (Map<K, V>) map);
+            }
+            return result;
+        }
+
         /**
          * Map 集合缓存放入
          *
@@ -5,6 +5,7 @@ import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ResolvableType;
 import org.springframework.stereotype.Component;
 
 import java.util.Objects;
@@ -73,6 +74,31 @@ public class SpringContextHolder implements ApplicationContextAware {
 		return applicationContext.getBean(requiredType);
 	}
 
+	/**
+	 * Gets bean if available.
+	 *
+	 * @param <T>          the type parameter
+	 * @param requiredType the required type
+	 * @return 不存在返回 null
+	 */
+	public static <T> T getBeanIfAvailable(Class<T> requiredType) {
+		assertApplicationContext();
+		return applicationContext.getBeanProvider(requiredType).getIfAvailable();
+	}
+
+	/**
+	 * Gets bean if available.
+	 *
+	 * @param <T>          the type parameter
+	 * @param requiredType 带泛型的类型，如 VerifiedTokenCache&lt;DecodedJWT&gt;
+	 * @return 不存在返回 null
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T getBeanIfAvailable(ResolvableType requiredType) {
+		assertApplicationContext();
+		return (T) applicationContext.getBeanProvider(requiredType).getIfAvailable();
+	}
+
 	public static DefaultListableBeanFactory getDefaultListableBeanFactory() {
 		assertApplicationContext();
 		return (DefaultListableBeanFactory) ((ConfigurableApplicationContext) applicationContext).getBeanFactory();
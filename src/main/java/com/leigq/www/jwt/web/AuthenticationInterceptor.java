@@ -1,15 +1,19 @@
 package com.leigq.www.jwt.web;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
-import com.auth0.jwt.interfaces.Claim;
-import com.auth0.jwt.interfaces.DecodedJWT;
 import com.leigq.www.jwt.annotation.PassToken;
 import com.leigq.www.jwt.bean.CacheLoginUser;
+import com.leigq.www.jwt.bean.RequestAuthentication;
 import com.leigq.www.jwt.bean.UserContext;
+import com.leigq.www.jwt.config.JwtProperties;
+import com.leigq.www.jwt.service.TokenRevocationList;
+import com.leigq.www.jwt.service.UserService;
+import com.leigq.www.jwt.token.TokenClaims;
+import com.leigq.www.jwt.token.TokenRejectedException;
 import com.leigq.www.jwt.util.IpUtils;
-import com.leigq.www.jwt.util.JwtUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
@@ -17,7 +21,6 @@ import org.springframework.web.servlet.HandlerInterceptor;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.lang.reflect.Method;
-import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -29,6 +32,22 @@ import java.util.Objects;
 @Component
 public class AuthenticationInterceptor implements HandlerInterceptor {
 
+	/**
+	 * 已撤销 token 列表，未启用时为 null，每次请求都读取 Redis 中的缓存用户比对 token
+	 */
+	private final TokenRevocationList tokenRevocationList;
+
+	private final JwtProperties jwtProperties;
+
+	private final UserService userService;
+
+	public AuthenticationInterceptor(ObjectProvider<TokenRevocationList> tokenRevocationList, JwtProperties jwtProperties,
+									 UserService userService) {
+		this.tokenRevocationList = tokenRevocationList.getIfAvailable();
+		this.jwtProperties = jwtProperties;
+		this.userService = userService;
+	}
+
 	@Override
 	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
 		// 如果不是映射到方法直接通过
@@ -44,8 +63,11 @@ public class AuthenticationInterceptor implements HandlerInterceptor {
 			return true;
 		}
 
+		// 获取当前请求的认证信息，token 只验证一次，拦截器和后续的 UserContext、Controller 共用
+		final RequestAuthentication authentication = UserContext.current();
+
 		// 获取用户 token
-        final String token = UserContext.getToken();
+		final String token = authentication.getToken();
 
 		// 剩余请求都需要登录
 		if (StringUtils.isBlank(token)) {
@@ -53,34 +75,52 @@ public class AuthenticationInterceptor implements HandlerInterceptor {
 		}
 
 		try {
-			// 获取缓存用户，在这里可以增加自己项目的业务，比如：判断用户是否被禁用
-			final CacheLoginUser cacheUser = UserContext.getCacheUser();
-			if (Objects.isNull(cacheUser)) {
-				throw new ServiceException("登录失效，请重新登录!");
+			if (Objects.isNull(tokenRevocationList)) {
+				// 获取缓存用户，在这里可以增加自己项目的业务，比如：判断用户是否被禁用
+				final CacheLoginUser cacheUser = UserContext.getCacheUser();
+				if (Objects.isNull(cacheUser)) {
+					throw new ServiceException("登录失效，请重新登录!");
+				}
+
+				// Cookie 中 token 的 jti 和缓存中的比较，刚续期时旧 token 在宽限期内依然有效
+				final String tokenId = authentication.getClaims().getId();
+				if (!cacheUser.matchesToken(tokenId) && !cacheUser.acceptsPreviousToken(tokenId)) {
+					throw new ServiceException("登录失效，请重新登录!");
+				}
+			} else if (tokenRevocationList.isRevoked(authentication.getClaims().getId())) {
+				// 已退出登录、被踢下线的 token，在本地撤销列表中判断，不读 Redis
+				// 续期前的 token 也已撤销，只有这时才读取缓存用户，宽限期内依然有效
+				final CacheLoginUser cacheUser = UserContext.getCacheUser();
+				if (Objects.isNull(cacheUser) || !cacheUser.acceptsPreviousToken(authentication.getClaims().getId())) {
+					throw new ServiceException("登录失效，请重新登录!");
+				}
 			}
 
-			// Cookie 中的 token 和缓存中的 token 比较
-			if (!cacheUser.getToken().equals(token)) {
-				throw new ServiceException("登录失效，请重新登录!");
-			}
-
-			// 解码JWT
-            final DecodedJWT decodedJwt = JwtUtils.parse(token);
+			// 解析JWT负载，上面已验证过，这里直接复用
+			final TokenClaims claims = authentication.getClaims();
 
             // 获取 token 中的 audience (用户名)
-            log.info("userName = {}", decodedJwt.getAudience().get(0));
-
-			// Claim中存放的内容是JWT自身的标准属性
-			Map<String, Claim> claims = decodedJwt.getClaims();
+            log.info("userName = {}", claims.getAudience());
 
 			// 自定义属性
-			String ip = claims.get("ip").asString();
+			String ip = claims.getIp();
 			log.info("ip = {}", ip);
 
 			// 当前请求用户的ip和 jwt中的是否一致
 			if (!IpUtils.realIp(request).equals(ip)) {
 				throw new ServiceException("登录失效，请重新登录!");
 			}
+
+			// 滑动续期，剩余有效时间低于阈值时在本次响应中下发新的 token
+			final JwtProperties.Renewal renewal = jwtProperties.getRenewal();
+			if (renewal.isEnabled() && claims.getExpiresAt() > 0
+					&& claims.getExpiresAt() * 1000 - System.currentTimeMillis() < renewal.getThreshold().toMillis()) {
+				userService.renewLoginUser(claims);
+			}
+		} catch (TokenRejectedException ex) {
+			// 过期、格式错误、已验证失败过的 token 很常见，不打印堆栈
+			log.debug("jwt 已拒绝：{}", ex.getMessage());
+			throw new ServiceException("登录失效，请重新登录");
 		} catch (JWTVerificationException ex) {
 			log.error("jwt 解析异常：", ex);
 			// 全局异常捕获
@@ -0,0 +1,166 @@
+package com.leigq.www.jwt.config.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.leigq.www.jwt.bean.CacheLoginUser;
+import org.junit.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 缓存用户二进制格式测试
+ *
+ * @author leigq
+ * @date 2026-10-19 11:48:20
+ */
+public class CacheLoginUserRedisValueFormatTests {
+
+	/**
+	 * 与 RedisConfig 中一样，其他类型的值交给 Smile
+	 */
+	private final CacheLoginUserRedisValueFormat format = new CacheLoginUserRedisValueFormat(
+			new JacksonRedisValueFormat(new ObjectMapper(new SmileFactory()), JacksonRedisValueFormat.SMILE_HEADER));
+
+	@Test
+	public void roundTripEveryNullCombination() {
+		// 7 个字段，每一位对应一个字段是否有值
+		for (int fields = 0; fields < 1 << 7; fields++) {
+			final CacheLoginUser user = user(fields);
+			final byte[] bytes = format.serialize(user);
+
+			assertEquals((byte) 0xC7, bytes[0]);
+			assertEquals('U', bytes[1]);
+			assertEquals(2, bytes[2]);
+			assertEquals(Integer.bitCount(fields), Integer.bitCount(bytes[3]));
+			assertEquals(user, format.deserialize(bytes));
+		}
+	}
+
+	@Test
+	public void roundTripBoundaryValues() {
+		for (long value : new long[]{0L, -1L, 1L, 63L, -64L, 64L, Long.MAX_VALUE, Long.MIN_VALUE}) {
+			final CacheLoginUser user = CacheLoginUser.builder()
+					.userId(value)
+					.userName("")
+					.mobile("测试-😀")
+					.tokenId("jti")
+					.tokenExpiresAt(value)
+					.previousTokenExpiresAt(value)
+					.build();
+			assertEquals(user, format.deserialize(format.serialize(user)));
+		}
+	}
+
+	@Test
+	public void rejectsUnknownVersion() {
+		// 版本 1 没有发布过，不读取
+		for (byte version : new byte[]{1, 3}) {
+			final byte[] bytes = format.serialize(user(0x7F));
+			bytes[2] = version;
+			assertRejected(bytes);
+		}
+	}
+
+	@Test
+	public void rejectsTruncated() {
+		final byte[] bytes = format.serialize(user(0x7F));
+		for (int length = 4; length < bytes.length; length++) {
+			assertRejected(Arrays.copyOf(bytes, length));
+		}
+	}
+
+	@Test
+	public void rejectsBadLengthPrefix() {
+		for (long length : new long[]{-1L, 6L, Integer.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE}) {
+			final ByteArrayOutputStream out = header(0x02);
+			writeLong(out, length);
+			out.write('a');
+			assertRejected(out.toByteArray());
+		}
+
+		// 变长整数超过 10 字节
+		final ByteArrayOutputStream out = header(0x01);
+		for (int i = 0; i < 11; i++) {
+			out.write(0xFF);
+		}
+		assertRejected(out.toByteArray());
+	}
+
+	@Test
+	public void otherValuesUseDelegate() {
+		final Map<String, String> value = Collections.singletonMap("userName", "leigq");
+		final byte[] bytes = format.serialize(value);
+
+		assertArrayEquals(JacksonRedisValueFormat.SMILE_HEADER, Arrays.copyOf(bytes, 3));
+		assertTrue(format.recognizes(bytes));
+		assertEquals(value, format.deserialize(bytes));
+		assertNull(format.deserialize(new byte[0]));
+		assertNull(format.deserialize(null));
+	}
+
+	private void assertRejected(byte[] bytes) {
+		try {
+			format.deserialize(bytes);
+			fail("应解析失败：" + Arrays.toString(bytes));
+		} catch (SerializationException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * 按位设置字段，顺序与格式中的标记位一致
+	 */
+	private static CacheLoginUser user(int fields) {
+		final CacheLoginUser user = new CacheLoginUser();
+		if ((fields & 1) != 0) {
+			user.setUserId(10086L);
+		}
+		if ((fields & 1 << 1) != 0) {
+			user.setUserName("leigq");
+		}
+		if ((fields & 1 << 2) != 0) {
+			user.setMobile("13800000000");
+		}
+		if ((fields & 1 << 3) != 0) {
+			user.setTokenId("3f2a-jti");
+		}
+		if ((fields & 1 << 4) != 0) {
+			user.setPreviousTokenId("1b7c-jti");
+		}
+		if ((fields & 1 << 5) != 0) {
+			user.setPreviousTokenExpiresAt(1_700_000_030_000L);
+		}
+		if ((fields & 1 << 6) != 0) {
+			user.setTokenExpiresAt(1_700_007_200_000L);
+		}
+		return user;
+	}
+
+	private static ByteArrayOutputStream header(int flags) {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(0xC7);
+		out.write('U');
+		out.write(2);
+		out.write(flags);
+		return out;
+	}
+
+	private static void writeLong(ByteArrayOutputStream out, long value) {
+		long zigzag = (value << 1) ^ (value >> 63);
+		while ((zigzag & ~0x7FL) != 0L) {
+			out.write((int) ((zigzag & 0x7F) | 0x80));
+			zigzag >>>= 7;
+		}
+		out.write((int) zigzag);
+	}
+}
@@ -0,0 +1,85 @@
+package com.leigq.www.jwt.config.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.leigq.www.jwt.bean.CacheLoginUser;
+import com.leigq.www.jwt.config.RedisConfig;
+import com.leigq.www.jwt.config.RedisStoreProperties;
+import org.junit.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * 切换 redis-store.serializer 后读取已有值的测试，使用与应用相同的 RedisConfig#redisValueSerializer
+ *
+ * @author leigq
+ * @date 2026-10-19 11:57:03
+ */
+public class MigratingRedisSerializerTests {
+
+	private static final CacheLoginUser USER = CacheLoginUser.builder()
+			.userId(10086L)
+			.userName("leigq")
+			.mobile("13800000000")
+			.tokenId("3f2a-jti")
+			.tokenExpiresAt(1_700_007_200_000L)
+			.build();
+
+	@Test
+	public void readsValuesWrittenByEveryFormat() {
+		for (RedisStoreProperties.Serializer written : RedisStoreProperties.Serializer.values()) {
+			final byte[] bytes = RedisConfig.redisValueSerializer(written).serialize(USER);
+			for (RedisStoreProperties.Serializer configured : RedisStoreProperties.Serializer.values()) {
+				assertEquals(written + " -> " + configured, USER, RedisConfig.redisValueSerializer(configured).deserialize(bytes));
+			}
+		}
+	}
+
+	@Test
+	public void otherValuesFallBackToJackson() {
+		final Map<String, Object> value = Collections.singletonMap("count", 1);
+		for (RedisStoreProperties.Serializer written : RedisStoreProperties.Serializer.values()) {
+			final byte[] bytes = RedisConfig.redisValueSerializer(written).serialize(value);
+			assertEquals(written.name(), value, RedisConfig.redisValueSerializer(RedisStoreProperties.Serializer.JSON).deserialize(bytes));
+		}
+	}
+
+	@Test
+	public void readsPlainJson() {
+		// JSON 没有固定的头，由最后的 JSON 格式兜底
+		final byte[] bytes = "[\"com.leigq.www.jwt.bean.CacheLoginUser\",{\"userId\":10086,\"userName\":\"leigq\"}]"
+				.getBytes(StandardCharsets.UTF_8);
+		final CacheLoginUser user = (CacheLoginUser) RedisConfig.redisValueSerializer(RedisStoreProperties.Serializer.BINARY).deserialize(bytes);
+		assertEquals(Long.valueOf(10086L), user.getUserId());
+		assertEquals("leigq", user.getUserName());
+	}
+
+	@Test
+	public void emptyValues() {
+		final RedisSerializer<Object> serializer = RedisConfig.redisValueSerializer(RedisStoreProperties.Serializer.BINARY);
+		assertNull(serializer.deserialize(null));
+		assertNull(serializer.deserialize(new byte[0]));
+	}
+
+	@Test
+	public void rejectsUnrecognized() {
+		final RedisValueFormat smile = new JacksonRedisValueFormat(new ObjectMapper(new SmileFactory()), JacksonRedisValueFormat.SMILE_HEADER);
+		final MigratingRedisSerializer serializer = new MigratingRedisSerializer(smile,
+				Arrays.asList(new CacheLoginUserRedisValueFormat(smile), smile));
+		try {
+			serializer.deserialize("{}".getBytes(StandardCharsets.UTF_8));
+			fail("没有 JSON 兜底时应无法识别");
+		} catch (SerializationException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package com.leigq.www.jwt.config.redis;
+
+import com.leigq.www.jwt.config.RedisStoreProperties;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RedisTrackingCache 测试，需要本地 Redis 6 及以上，连不上或版本不支持时跳过
+ * <br/>
+ * 地址：-Dredis.host=127.0.0.1 -Dredis.port=6379
+ *
+ * @author leigq
+ * @date 2026-10-18 23:31:26
+ */
+public class RedisTrackingCacheTests {
+
+	private static final String KEY = "tracking_test:user";
+
+	private static final String[] KEYS = {"tracking_test:user:1", "tracking_test:user:2", "tracking_test:user:3"};
+
+	private RedisClient client;
+
+	private StatefulRedisConnection<String, String> connection;
+
+	private RedisTrackingCache trackingCache;
+
+	@Before
+	public void setUp() {
+		final RedisURI redisUri = RedisURI.builder()
+				.withHost(System.getProperty("redis.host", "127.0.0.1"))
+				.withPort(Integer.getInteger("redis.port", 6379))
+				.withTimeout(Duration.ofSeconds(2))
+				.build();
+		client = RedisClient.create(redisUri);
+		try {
+			connection = client.connect();
+		} catch (RedisException e) {
+			Assume.assumeNoException("本地 Redis 不可用", e);
+		}
+		final RedisStoreProperties.Tracking properties = new RedisStoreProperties.Tracking();
+		properties.setPrefixes(Collections.singletonList("tracking_test:"));
+		trackingCache = new RedisTrackingCache(redisUri, properties);
+		Assume.assumeTrue("Redis 不支持 CLIENT TRACKING", trackingCache.isTracking());
+	}
+
+	@After
+	public void tearDown() {
+		if (trackingCache != null) {
+			trackingCache.destroy();
+		}
+		if (connection != null) {
+			connection.sync().del(KEY);
+			connection.sync().del(KEYS);
+			connection.close();
+		}
+		client.shutdown();
+	}
+
+	@Test
+	public void otherClientWriteInvalidatesLocalValue() throws InterruptedException {
+		final RedisCommands<String, String> commands = connection.sync();
+		commands.set(KEY, "v1");
+		final AtomicInteger loads = new AtomicInteger();
+
+		assertEquals("v1", get(KEY));
+		assertEquals("v1", get(KEY));
+		assertEquals(1, trackingCache.stats().missCount());
+
+		// 其他客户端修改后，本地缓存在收到失效通知后移除
+		commands.set(KEY, "v2");
+		awaitValue(KEY, "v2");
+		assertEquals(2, trackingCache.stats().missCount());
+	}
+
+	@Test
+	public void multiKeyWriteInvalidatesEveryKey() throws InterruptedException {
+		final RedisCommands<String, String> commands = connection.sync();
+		for (String key : KEYS) {
+			commands.set(key, "v1");
+			assertEquals("v1", get(key));
+		}
+
+		// 一个事务内修改多个 key，Redis 在同一轮事件循环内发出所有失效通知，每个 key 都要移除
+		commands.multi();
+		for (String key : KEYS) {
+			commands.set(key, "v2");
+		}
+		commands.exec();
+		for (String key : KEYS) {
+			awaitValue(key, "v2");
+		}
+
+		// 一条命令修改多个 key
+		commands.del(KEYS);
+		for (String key : KEYS) {
+			awaitValue(key, null);
+		}
+	}
+
+	@Test
+	public void fallsBackToLoaderWhenNotTracking() {
+		connection.sync().set(KEY, "v1");
+		trackingCache.stop();
+		final AtomicInteger loads = new AtomicInteger();
+		final Function<String, Object> loader = key -> {
+			loads.incrementAndGet();
+			return connection.sync().get(key);
+		};
+
+		assertEquals("v1", trackingCache.get(KEY, RedisSerializer.string(), loader));
+		assertEquals("v1", trackingCache.get(KEY, RedisSerializer.string(), loader));
+		assertEquals(2, loads.get());
+		assertFalse(trackingCache.matches(KEY));
+	}
+
+	@Test
+	public void onlyTrackedPrefixesMatch() {
+		assertTrue(trackingCache.matches(KEY));
+		assertFalse(trackingCache.matches("login_user:1"));
+	}
+
+	private Object get(String key) {
+		return trackingCache.get(key, RedisSerializer.string(), k -> {
+			throw new IllegalStateException("追踪可用时不应直接读取");
+		});
+	}
+
+	/**
+	 * 等待失效通知送达，本地缓存读到新值，2 秒内读不到则失败
+	 */
+	private void awaitValue(String key, Object expected) throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + 2000;
+		Object value = get(key);
+		while (!Objects.equals(expected, value) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+			value = get(key);
+		}
+		assertEquals(key, expected, value);
+	}
+}
@@ -0,0 +1,185 @@
+package com.leigq.www.jwt.service;
+
+import com.leigq.www.jwt.bean.CacheLoginUser;
+import com.leigq.www.jwt.config.RedisConfig;
+import com.leigq.www.jwt.config.RedisStoreProperties;
+import com.leigq.www.jwt.config.redis.RedisTrackingCache;
+import com.leigq.www.jwt.constant.RedisCacheKey;
+import com.leigq.www.jwt.enums.Platform;
+import com.leigq.www.jwt.util.RedisUtils;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 缓存用户在 Redis Cluster 下的读写测试，需要本地启动的多节点集群，连不上时跳过
+ * <br/>
+ * 地址：-Dredis.cluster.nodes=127.0.0.1:7000,127.0.0.1:7001,127.0.0.1:7002，
+ * 可用 redis 源码中的 utils/create-cluster/create-cluster start、create 启动
+ *
+ * @author leigq
+ * @date 2026-10-19 02:16:40
+ */
+public class RedisClusterSessionTests {
+
+	private static final long FIRST_USER_ID = 9_000_001L;
+
+	private static final int USERS = 50;
+
+	private LettuceConnectionFactory connectionFactory;
+
+	private RedisTemplate<byte[], Object> sessionRedisTemplate;
+
+	private RedisUtils redisUtils;
+
+	private List<Long> userIds;
+
+	@Before
+	public void setUp() {
+		final RedisClusterConfiguration configuration = new RedisClusterConfiguration(Arrays.asList(
+				System.getProperty("redis.cluster.nodes", "127.0.0.1:7000,127.0.0.1:7001,127.0.0.1:7002").split(",")));
+		final LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
+				.commandTimeout(Duration.ofSeconds(2))
+				.clientOptions(ClusterClientOptions.builder()
+						.socketOptions(SocketOptions.builder().connectTimeout(Duration.ofSeconds(2)).build())
+						.build())
+				.build();
+		connectionFactory = new LettuceConnectionFactory(configuration, clientConfiguration);
+		connectionFactory.afterPropertiesSet();
+		int nodes = 0;
+		try (RedisClusterConnection connection = connectionFactory.getClusterConnection()) {
+			for (RedisClusterNode ignored : connection.clusterGetNodes()) {
+				nodes++;
+			}
+		} catch (RuntimeException e) {
+			Assume.assumeNoException("本地 Redis Cluster 不可用", e);
+		}
+		Assume.assumeTrue("集群节点数不足", nodes > 1);
+
+		final RedisConfig redisConfig = new RedisConfig();
+		final RedisStoreProperties properties = new RedisStoreProperties();
+		sessionRedisTemplate = redisConfig.sessionRedisTemplate(connectionFactory, properties);
+		redisUtils = new RedisUtils(redisConfig.getRedisTemplate(connectionFactory, properties),
+				redisConfig.reactiveRedisTemplate(connectionFactory, properties),
+				new DefaultListableBeanFactory().getBeanProvider(RedisTrackingCache.class));
+
+		userIds = new ArrayList<>(USERS);
+		for (long userId = FIRST_USER_ID; userId < FIRST_USER_ID + USERS; userId++) {
+			userIds.add(userId);
+		}
+	}
+
+	@After
+	public void tearDown() {
+		if (sessionRedisTemplate != null) {
+			final List<byte[]> keys = new ArrayList<>();
+			for (Long userId : userIds) {
+				keys.add(SessionKeyCodec.usersKey(userId));
+				for (Platform platform : Platform.values()) {
+					keys.add(SessionKeyCodec.userKey(userId, platform));
+				}
+			}
+			sessionRedisTemplate.delete(keys);
+		}
+		connectionFactory.destroy();
+	}
+
+	@Test
+	public void keysOfOneUserShareSlot() {
+		final Set<Integer> slots = new HashSet<>();
+		try (RedisClusterConnection connection = connectionFactory.getClusterConnection()) {
+			for (Long userId : userIds) {
+				final byte[] usersKey = SessionKeyCodec.usersKey(userId);
+				final int slot = SlotHash.getSlot(usersKey);
+				assertEquals(slot, connection.clusterGetSlotForKey(usersKey).intValue());
+				for (Platform platform : Platform.values()) {
+					assertEquals(slot, SlotHash.getSlot(SessionKeyCodec.userKey(userId, platform)));
+					assertEquals(slot, SlotHash.getSlot(String.format(RedisCacheKey.RENEW_LOCK_KEY_FORMAT, userId, platform.getPlatform())
+							.getBytes(StandardCharsets.UTF_8)));
+				}
+				slots.add(slot);
+			}
+		}
+		// 不同用户分散在不同槽位，下面的批量操作会跨槽位
+		assertTrue(slots.size() > 1);
+	}
+
+	@Test
+	public void keyLayoutLoginAndBatchAcrossSlots() {
+		final RedisTokenStore store = new RedisTokenStore();
+		ReflectionTestUtils.setField(store, "redisUtils", redisUtils);
+		ReflectionTestUtils.setField(store, "sessionRedisTemplate", sessionRedisTemplate);
+		final long userId = userIds.get(0);
+
+		assertNull(store.login(cacheUser(userId, "jti-1"), Platform.PC, 60));
+		assertEquals("jti-1", store.login(cacheUser(userId, "jti-2"), Platform.PC, 60).getTokenId());
+		store.login(cacheUser(userId, "jti-3"), Platform.ANDROID, 60);
+		assertEquals(2, store.getAll(userId).size());
+
+		for (Long other : userIds.subList(1, USERS)) {
+			store.save(cacheUser(other, "jti-" + other), Platform.PC, 60);
+		}
+		final Map<Long, Map<Platform, CacheLoginUser>> users = store.getAll(userIds);
+		assertEquals(USERS, users.size());
+		users.forEach((id, platformUsers) -> assertTrue(platformUsers.containsKey(Platform.PC)));
+
+		assertEquals(Long.valueOf(USERS + 1), store.delAll(userIds));
+		assertTrue(store.getAll(userId).isEmpty());
+	}
+
+	@Test
+	public void hashLayoutLoginAndBatchAcrossSlots() {
+		final RedisConfig redisConfig = new RedisConfig();
+		final SessionHashStore store = new SessionHashStore(sessionRedisTemplate,
+				redisConfig.reactiveSessionRedisTemplate(connectionFactory, new RedisStoreProperties()));
+		final long userId = userIds.get(0);
+
+		assertNull(store.login(cacheUser(userId, "jti-1"), Platform.PC, 60, null));
+		assertEquals("jti-1", store.login(cacheUser(userId, "jti-2"), Platform.PC, 60, null).getTokenId());
+
+		for (Long other : userIds.subList(1, USERS)) {
+			store.save(cacheUser(other, "jti-" + other), Platform.ANDROID, 60);
+		}
+		final Map<Long, Map<Platform, CacheLoginUser>> users = store.getAll(userIds);
+		assertEquals("jti-2", users.get(userId).get(Platform.PC).getTokenId());
+		for (Long other : userIds.subList(1, USERS)) {
+			assertEquals("jti-" + other, users.get(other).get(Platform.ANDROID).getTokenId());
+		}
+
+		assertEquals(Long.valueOf(USERS), store.delAll(userIds));
+	}
+
+	private static CacheLoginUser cacheUser(long userId, String tokenId) {
+		return CacheLoginUser.builder()
+				.userId(userId)
+				.userName("user" + userId)
+				.tokenId(tokenId)
+				.tokenExpiresAt(System.currentTimeMillis() + 60_000L)
+				.build();
+	}
+}
@@ -0,0 +1,170 @@
+package com.leigq.www.jwt.service;
+
+import com.leigq.www.jwt.bean.CacheLoginUser;
+import com.leigq.www.jwt.config.RedisConfig;
+import com.leigq.www.jwt.config.RedisStoreProperties;
+import com.leigq.www.jwt.enums.Platform;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * hash 结构的缓存用户存储测试，需要本地 Redis，连不上时跳过
+ * <br/>
+ * 地址：-Dredis.host=127.0.0.1 -Dredis.port=6379
+ *
+ * @author leigq
+ * @date 2026-10-19 12:10:46
+ */
+public class SessionHashStoreTests {
+
+	private static final long USER_ID = 9_100_001L;
+
+	private static final long OTHER_USER_ID = 9_100_002L;
+
+	private LettuceConnectionFactory connectionFactory;
+
+	private RedisTemplate<byte[], Object> sessionRedisTemplate;
+
+	private SessionHashStore store;
+
+	@Before
+	public void setUp() {
+		final RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+				System.getProperty("redis.host", "127.0.0.1"), Integer.getInteger("redis.port", 6379));
+		final LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
+				.commandTimeout(Duration.ofSeconds(2))
+				.clientOptions(ClientOptions.builder()
+						.socketOptions(SocketOptions.builder().connectTimeout(Duration.ofSeconds(2)).build())
+						.build())
+				.build();
+		connectionFactory = new LettuceConnectionFactory(configuration, clientConfiguration);
+		connectionFactory.afterPropertiesSet();
+		try (RedisConnection connection = connectionFactory.getConnection()) {
+			connection.ping();
+		} catch (RuntimeException e) {
+			Assume.assumeNoException("本地 Redis 不可用", e);
+		}
+
+		final RedisConfig redisConfig = new RedisConfig();
+		final RedisStoreProperties properties = new RedisStoreProperties();
+		properties.setSerializer(RedisStoreProperties.Serializer.BINARY);
+		sessionRedisTemplate = redisConfig.sessionRedisTemplate(connectionFactory, properties);
+		store = new SessionHashStore(sessionRedisTemplate, redisConfig.reactiveSessionRedisTemplate(connectionFactory, properties));
+		tearDownKeys();
+	}
+
+	@After
+	public void tearDown() {
+		if (sessionRedisTemplate != null) {
+			tearDownKeys();
+		}
+		connectionFactory.destroy();
+	}
+
+	private void tearDownKeys() {
+		sessionRedisTemplate.delete(Arrays.asList(SessionKeyCodec.usersKey(USER_ID), SessionKeyCodec.usersKey(OTHER_USER_ID)));
+	}
+
+	@Test
+	public void loginReturnsPreviousOfSamePlatform() {
+		assertNull(store.login(cacheUser(USER_ID, "jti-1"), Platform.PC, 60, null));
+		assertNull(store.login(cacheUser(USER_ID, "jti-2"), Platform.ANDROID, 60, null));
+		assertEquals("jti-1", store.login(cacheUser(USER_ID, "jti-3"), Platform.PC, 60, "node|9100001|PC").getTokenId());
+
+		assertEquals("jti-3", store.get(USER_ID, Platform.PC).getTokenId());
+		assertEquals("jti-2", store.get(USER_ID, Platform.ANDROID).getTokenId());
+	}
+
+	@Test
+	public void expiredPlatformsAreFilteredAndSwept() throws InterruptedException {
+		store.save(cacheUser(USER_ID, "jti-1"), Platform.ANDROID, 1);
+		store.save(cacheUser(USER_ID, "jti-2"), Platform.PC, 60);
+		TimeUnit.MILLISECONDS.sleep(1100);
+
+		// 已过期的平台还在 hash 中，读取时视为不存在
+		final byte[] key = SessionKeyCodec.usersKey(USER_ID);
+		assertEquals(Long.valueOf(4L), sessionRedisTemplate.opsForHash().size(key));
+		assertNull(store.get(USER_ID, Platform.ANDROID));
+		assertEquals(Collections.singleton(Platform.PC), store.getAll(USER_ID).keySet());
+		assertEquals(Collections.singleton(Platform.PC), store.getAll(Collections.singletonList(USER_ID)).get(USER_ID).keySet());
+		// 已过期的平台不作为之前的缓存用户返回
+		assertNull(store.login(cacheUser(USER_ID, "jti-3"), Platform.ANDROID, 60, null));
+
+		// 保存时删除已过期的平台，hash 的过期时间为最晚的过期时间
+		store.save(cacheUser(USER_ID, "jti-4"), Platform.IOS, 1);
+		TimeUnit.MILLISECONDS.sleep(1100);
+		store.save(cacheUser(USER_ID, "jti-5"), Platform.PC, 120);
+		assertEquals(Long.valueOf(4L), sessionRedisTemplate.opsForHash().size(key));
+		final Long ttl = sessionRedisTemplate.getExpire(key, TimeUnit.SECONDS);
+		assertTrue(String.valueOf(ttl), ttl > 60 && ttl <= 120);
+	}
+
+	@Test
+	public void nonPositiveExpiresInNeverExpires() {
+		store.save(cacheUser(USER_ID, "jti-1"), Platform.PC, 0);
+		final byte[] key = SessionKeyCodec.usersKey(USER_ID);
+		assertEquals(Long.valueOf(-1L), sessionRedisTemplate.getExpire(key));
+		assertEquals("jti-1", store.get(USER_ID, Platform.PC).getTokenId());
+
+		// 其他平台有过期时间时，hash 依然不过期
+		store.save(cacheUser(USER_ID, "jti-2"), Platform.ANDROID, 60);
+		assertEquals(Long.valueOf(-1L), sessionRedisTemplate.getExpire(key));
+		assertEquals(2, store.getAll(USER_ID).size());
+		assertEquals("jti-1", store.login(cacheUser(USER_ID, "jti-3"), Platform.PC, -1, null).getTokenId());
+
+		// 不过期的平台被替换为有过期时间的后，hash 重新设置过期时间
+		store.save(cacheUser(USER_ID, "jti-4"), Platform.PC, 60);
+		final Long ttl = sessionRedisTemplate.getExpire(key);
+		assertTrue(String.valueOf(ttl), ttl > 0 && ttl <= 60);
+	}
+
+	@Test
+	public void getAllAndDelete() throws Exception {
+		store.save(cacheUser(USER_ID, "jti-1"), Platform.PC, 60);
+		store.saveAsync(cacheUser(USER_ID, "jti-2"), Platform.ANDROID, 60).get(2, TimeUnit.SECONDS);
+		store.save(cacheUser(OTHER_USER_ID, "jti-3"), Platform.IOS, 60);
+
+		final Map<Long, Map<Platform, CacheLoginUser>> users = store.getAll(Arrays.asList(OTHER_USER_ID, USER_ID, 9_100_003L));
+		assertEquals(Arrays.asList(OTHER_USER_ID, USER_ID, 9_100_003L), Arrays.asList(users.keySet().toArray()));
+		assertEquals(2, users.get(USER_ID).size());
+		assertEquals("jti-3", users.get(OTHER_USER_ID).get(Platform.IOS).getTokenId());
+		assertTrue(users.get(9_100_003L).isEmpty());
+		assertEquals("jti-2", store.getAsync(USER_ID, Platform.ANDROID).get(2, TimeUnit.SECONDS).getTokenId());
+
+		assertTrue(store.del(USER_ID, Platform.PC));
+		assertFalse(store.del(USER_ID, Platform.PC));
+		assertTrue(store.delAsync(USER_ID, Platform.ANDROID).get(2, TimeUnit.SECONDS));
+		assertTrue(store.getAll(USER_ID).isEmpty());
+		assertEquals(Long.valueOf(1L), store.delAll(Arrays.asList(USER_ID, OTHER_USER_ID)));
+		assertNull(store.get(OTHER_USER_ID, Platform.IOS));
+	}
+
+	private static CacheLoginUser cacheUser(long userId, String tokenId) {
+		return CacheLoginUser.builder()
+				.userId(userId)
+				.userName("user" + userId)
+				.tokenId(tokenId)
+				.tokenExpiresAt(System.currentTimeMillis() + 60_000L)
+				.build();
+	}
+}
@@ -0,0 +1,57 @@
+package com.leigq.www.jwt.service;
+
+import com.leigq.www.jwt.constant.RedisCacheKey;
+import com.leigq.www.jwt.enums.Platform;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 缓存用户 key 编码测试，结果必须与 String.format 后按 UTF-8 编码完全一致，否则升级后读不到已有的缓存用户
+ *
+ * @author leigq
+ * @date 2026-10-19 13:21:38
+ */
+public class SessionKeyCodecTests {
+
+	private static final long[] USER_IDS = {0L, 1L, 9L, 10L, -1L, -9L, -10L, 10086L, -10086L,
+			Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+
+	@Test
+	public void userKeyMatchesFormat() {
+		for (long userId : USER_IDS) {
+			for (Platform platform : Platform.values()) {
+				final String expected = String.format(RedisCacheKey.CACHE_USER_KEY_FORMAT, userId, platform.getPlatform());
+				assertArrayEquals(expected, utf8(expected), SessionKeyCodec.userKey(userId, platform));
+				assertEquals(expected, SessionKeyCodec.userKeyString(userId, platform));
+			}
+		}
+	}
+
+	@Test
+	public void userKeysFollowPlatformOrder() {
+		for (long userId : USER_IDS) {
+			final List<byte[]> keys = SessionKeyCodec.userKeys(userId);
+			assertEquals(Platform.values().length, keys.size());
+			for (int i = 0; i < keys.size(); i++) {
+				assertArrayEquals(SessionKeyCodec.userKey(userId, Platform.values()[i]), keys.get(i));
+			}
+		}
+	}
+
+	@Test
+	public void usersKeyMatchesFormat() {
+		for (long userId : USER_IDS) {
+			final String expected = String.format(RedisCacheKey.CACHE_USERS_KEY_FORMAT, userId);
+			assertArrayEquals(expected, utf8(expected), SessionKeyCodec.usersKey(userId));
+		}
+	}
+
+	private static byte[] utf8(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+}
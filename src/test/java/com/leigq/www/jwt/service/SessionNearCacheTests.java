@@ -0,0 +1,142 @@
+package com.leigq.www.jwt.service;
+
+import com.leigq.www.jwt.bean.CacheLoginUser;
+import com.leigq.www.jwt.config.RedisStoreProperties;
+import com.leigq.www.jwt.constant.RedisCacheKey;
+import com.leigq.www.jwt.enums.Platform;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 近端缓存失效消息测试，不需要 Redis
+ *
+ * @author leigq
+ * @date 2026-10-19 13:05:12
+ */
+public class SessionNearCacheTests {
+
+	private StringRedisTemplate stringRedisTemplate;
+
+	private SessionNearCache nearCache;
+
+	@Before
+	public void setUp() {
+		stringRedisTemplate = mock(StringRedisTemplate.class);
+		nearCache = new SessionNearCache(stringRedisTemplate, mock(RedisMessageListenerContainer.class), new RedisStoreProperties());
+	}
+
+	@Test
+	public void deletedAllPublishesOneMessage() {
+		fill(1L, 2L, 3L);
+		nearCache.deletedAll(Arrays.asList(1L, 2L));
+
+		final ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+		verify(stringRedisTemplate, times(1)).convertAndSend(eq(RedisCacheKey.CACHE_USER_INVALIDATE_CHANNEL), message.capture());
+		assertEquals("1,2|*", message.getValue().substring(message.getValue().indexOf('|') + 1));
+		for (Platform platform : Platform.values()) {
+			assertNull(nearCache.getIfPresent(1L, platform));
+			assertNull(nearCache.getIfPresent(2L, platform));
+			assertNotNull(nearCache.getIfPresent(3L, platform));
+		}
+	}
+
+	@Test
+	public void batchMessageInvalidatesEveryPlatform() {
+		fill(1L, 2L, 3L);
+		receive("other-node|1,2|*");
+		for (Platform platform : Platform.values()) {
+			assertNull(nearCache.getIfPresent(1L, platform));
+			assertNull(nearCache.getIfPresent(2L, platform));
+			assertNotNull(nearCache.getIfPresent(3L, platform));
+		}
+	}
+
+	@Test
+	public void singleMessageInvalidatesOnePlatform() {
+		fill(1L);
+		receive("other-node|1|PC");
+		assertNull(nearCache.getIfPresent(1L, Platform.PC));
+		assertNotNull(nearCache.getIfPresent(1L, Platform.ANDROID));
+	}
+
+	@Test
+	public void ignoresOwnAndMalformedMessages() {
+		fill(1L);
+		receive(nearCache.invalidation(1L, Platform.PC));
+		receive("other-node|1,x|*");
+		receive("other-node|1|UNKNOWN");
+		receive("other-node");
+		assertNotNull(nearCache.getIfPresent(1L, Platform.PC));
+
+		nearCache.deletedAll(Collections.emptyList());
+		verify(stringRedisTemplate, times(0)).convertAndSend(anyString(), anyString());
+	}
+
+	@Test
+	public void asyncPublishesOnPublishThread() throws InterruptedException {
+		final RedisStoreProperties properties = new RedisStoreProperties();
+		properties.getNearCache().setAsyncPublishQueueCapacity(1);
+		final SessionNearCache bounded = new SessionNearCache(stringRedisTemplate, mock(RedisMessageListenerContainer.class), properties);
+		final CountDownLatch publishing = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final Set<String> threads = ConcurrentHashMap.newKeySet();
+		doAnswer(invocation -> {
+			threads.add(Thread.currentThread().getName());
+			publishing.countDown();
+			release.await(2, TimeUnit.SECONDS);
+			return 1L;
+		}).when(stringRedisTemplate).convertAndSend(anyString(), anyString());
+		try {
+			bounded.savedAsync(CacheLoginUser.builder().userId(1L).build(), Platform.PC);
+			assertTrue(publishing.await(2, TimeUnit.SECONDS));
+			// 本地缓存同步更新；发布线程忙、队列已满时丢弃，不阻塞调用线程、不抛异常
+			assertNotNull(bounded.getIfPresent(1L, Platform.PC));
+			bounded.deletedAsync(1L, Platform.PC);
+			bounded.deletedAsync(2L, Platform.PC);
+			assertNull(bounded.getIfPresent(1L, Platform.PC));
+		} finally {
+			release.countDown();
+			bounded.destroy();
+		}
+		verify(stringRedisTemplate, timeout(2000).times(2)).convertAndSend(anyString(), anyString());
+		assertEquals(1, threads.size());
+		assertTrue(threads.iterator().next(), threads.iterator().next().startsWith("near-cache-publish-"));
+	}
+
+	private void fill(long... userIds) {
+		for (long userId : userIds) {
+			for (Platform platform : Platform.values()) {
+				nearCache.loggedIn(CacheLoginUser.builder().userId(userId).build(), platform);
+			}
+		}
+	}
+
+	private void receive(String body) {
+		nearCache.onMessage(new DefaultMessage(RedisCacheKey.CACHE_USER_INVALIDATE_CHANNEL.getBytes(StandardCharsets.UTF_8),
+				body.getBytes(StandardCharsets.UTF_8)), null);
+	}
+}
@@ -0,0 +1,247 @@
+package com.leigq.www.jwt.service;
+
+import com.leigq.www.jwt.bean.CacheLoginUser;
+import com.leigq.www.jwt.config.JwtProperties;
+import com.leigq.www.jwt.constant.RedisCacheKey;
+import com.leigq.www.jwt.token.JtiBloomFilter;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 已撤销 token 列表测试，需要本地 Redis，连不上时跳过
+ * <br/>
+ * 撤销列表的 key 是固定的，测试使用 redis.database 指定的库（默认 15）并在前后删除该 key。
+ * 地址：-Dredis.host=127.0.0.1 -Dredis.port=6379 -Dredis.database=15
+ *
+ * @author leigq
+ * @date 2026-10-19 14:18:52
+ */
+public class TokenRevocationListTests {
+
+	private LettuceConnectionFactory connectionFactory;
+
+	private StringRedisTemplate stringRedisTemplate;
+
+	/**
+	 * 委托给真实 ZSET 操作的 mock，用于在重建中途插入撤销、模拟 Redis 异常和确认是否访问了 Redis
+	 */
+	private ZSetOperations<String, String> zSetOperations;
+
+	private ZSetOperations<String, String> realZSetOperations;
+
+	private JwtProperties jwtProperties;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		final RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+				System.getProperty("redis.host", "127.0.0.1"), Integer.getInteger("redis.port", 6379));
+		configuration.setDatabase(Integer.getInteger("redis.database", 15));
+		final LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
+				.commandTimeout(Duration.ofSeconds(2))
+				.clientOptions(ClientOptions.builder()
+						.socketOptions(SocketOptions.builder().connectTimeout(Duration.ofSeconds(2)).build())
+						.build())
+				.build();
+		connectionFactory = new LettuceConnectionFactory(configuration, clientConfiguration);
+		connectionFactory.afterPropertiesSet();
+		try (RedisConnection connection = connectionFactory.getConnection()) {
+			connection.ping();
+		} catch (RuntimeException e) {
+			Assume.assumeNoException("本地 Redis 不可用", e);
+		}
+
+		realZSetOperations = new StringRedisTemplate(connectionFactory).opsForZSet();
+		zSetOperations = mock(ZSetOperations.class, delegatesTo(realZSetOperations));
+		stringRedisTemplate = new StringRedisTemplate(connectionFactory) {
+			@Override
+			public ZSetOperations<String, String> opsForZSet() {
+				return zSetOperations;
+			}
+		};
+		jwtProperties = new JwtProperties();
+		stringRedisTemplate.delete(RedisCacheKey.REVOKED_JTI_KEY);
+	}
+
+	@After
+	public void tearDown() {
+		if (stringRedisTemplate != null) {
+			stringRedisTemplate.delete(RedisCacheKey.REVOKED_JTI_KEY);
+		}
+		connectionFactory.destroy();
+	}
+
+	@Test
+	public void revokedOnOtherNodeAfterRebuild() {
+		final long expiresAt = System.currentTimeMillis() + 60_000L;
+		final TokenRevocationList node = revocationList();
+		node.revoke("jti-1", expiresAt);
+		node.revokeSessions(Arrays.asList(cacheUser("jti-2", expiresAt), cacheUser("jti-3", System.currentTimeMillis() - 1)));
+		assertTrue(node.isRevoked("jti-1"));
+		assertTrue(node.isRevoked("jti-2"));
+		assertFalse(node.isRevoked("jti-3"));
+		assertNull(stringRedisTemplate.opsForZSet().score(RedisCacheKey.REVOKED_JTI_KEY, "jti-3"));
+
+		// 其他节点启动时从 ZSET 重建，布隆过滤器命中后用 ZSCORE 确认
+		final TokenRevocationList other = revocationList();
+		assertTrue(other.isRevoked("jti-1"));
+		assertTrue(other.isRevoked("jti-2"));
+		verify(zSetOperations).score(RedisCacheKey.REVOKED_JTI_KEY, "jti-1");
+	}
+
+	@Test
+	public void revocationDuringRebuildIsKept() {
+		final TokenRevocationList node = revocationList();
+		final long expiresAt = System.currentTimeMillis() + 60_000L;
+		// 重建读取 ZSET 时收到其他节点的撤销消息，ZSET 中读不到它
+		doAnswer(invocation -> {
+			node.onMessage(message("jti-during|" + expiresAt), null);
+			return realZSetOperations.rangeByScore(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+		}).when(zSetOperations).rangeByScore(eq(RedisCacheKey.REVOKED_JTI_KEY), anyDouble(), anyDouble());
+
+		node.rebuild();
+		assertTrue(node.isRevoked("jti-during"));
+		verify(zSetOperations, never()).score(RedisCacheKey.REVOKED_JTI_KEY, "jti-during");
+	}
+
+	@Test
+	public void revocationDuringFailedRebuildIsKept() {
+		final TokenRevocationList node = revocationList();
+		final long expiresAt = System.currentTimeMillis() + 60_000L;
+		doAnswer(invocation -> {
+			node.onMessage(message("jti-during|" + expiresAt), null);
+			throw new RedisConnectionFailureException("断开");
+		}).when(zSetOperations).rangeByScore(eq(RedisCacheKey.REVOKED_JTI_KEY), anyDouble(), anyDouble());
+
+		node.rebuild();
+		assertTrue(node.isRevoked("jti-during"));
+	}
+
+	@Test
+	public void bloomFalsePositiveResolvedByZscore() {
+		// 误判率设高，容易找到误判的 jti
+		jwtProperties.getRevocation().setMinCapacity(1);
+		jwtProperties.getRevocation().setFpp(0.5);
+		final long expiresAt = System.currentTimeMillis() + 60_000L;
+		final JtiBloomFilter expected = new JtiBloomFilter(100, 0.5);
+		for (int i = 0; i < 50; i++) {
+			stringRedisTemplate.opsForZSet().add(RedisCacheKey.REVOKED_JTI_KEY, "revoked-" + i, expiresAt);
+			expected.put("revoked-" + i);
+		}
+		final TokenRevocationList node = revocationList();
+
+		// 与重建时相同的容量、误判率和内容，误判的 jti 也相同
+		String falsePositive = null;
+		String miss = null;
+		for (int i = 0; falsePositive == null || miss == null; i++) {
+			if (expected.mightContain("active-" + i)) {
+				falsePositive = falsePositive == null ? "active-" + i : falsePositive;
+			} else {
+				miss = miss == null ? "active-" + i : miss;
+			}
+		}
+		assertFalse(node.isRevoked(falsePositive));
+		verify(zSetOperations).score(RedisCacheKey.REVOKED_JTI_KEY, falsePositive);
+		// 布隆过滤器未命中时不访问 Redis
+		assertFalse(node.isRevoked(miss));
+		verify(zSetOperations, never()).score(RedisCacheKey.REVOKED_JTI_KEY, miss);
+	}
+
+	@Test
+	public void failsClosedWhenRedisFails() {
+		revocationList().revoke("jti-1", System.currentTimeMillis() + 60_000L);
+		final TokenRevocationList other = revocationList();
+		doThrow(new RedisConnectionFailureException("断开")).when(zSetOperations).score(anyString(), anyString());
+
+		// 布隆过滤器命中但无法确认时按已撤销处理
+		assertTrue(other.isRevoked("jti-1"));
+	}
+
+	@Test
+	public void rebuildSweepsExpired() {
+		final long now = System.currentTimeMillis();
+		stringRedisTemplate.opsForZSet().add(RedisCacheKey.REVOKED_JTI_KEY, "expired", now - 1_000L);
+		stringRedisTemplate.opsForZSet().add(RedisCacheKey.REVOKED_JTI_KEY, "active", now + 60_000L);
+
+		final TokenRevocationList node = revocationList();
+		assertNull(stringRedisTemplate.opsForZSet().score(RedisCacheKey.REVOKED_JTI_KEY, "expired"));
+		assertNotNull(stringRedisTemplate.opsForZSet().score(RedisCacheKey.REVOKED_JTI_KEY, "active"));
+		assertFalse(node.isRevoked("expired"));
+		assertTrue(node.isRevoked("active"));
+
+		// 已过期的 token 不再加入撤销列表
+		node.revoke("late", now - 1L);
+		assertNull(stringRedisTemplate.opsForZSet().score(RedisCacheKey.REVOKED_JTI_KEY, "late"));
+		assertFalse(node.isRevoked("late"));
+	}
+
+	@Test
+	public void parsesMessages() {
+		final TokenRevocationList node = revocationList();
+		final long expiresAt = System.currentTimeMillis() + 60_000L;
+		node.onMessage(message("jti-1|" + expiresAt), null);
+		// jti 中含有分隔符时以最后一个为准
+		node.onMessage(message("jti|2|" + expiresAt), null);
+		node.onMessage(message("jti-3|abc"), null);
+		node.onMessage(message("|" + expiresAt), null);
+		node.onMessage(message("jti-4"), null);
+
+		assertTrue(node.isRevoked("jti-1"));
+		assertTrue(node.isRevoked("jti|2"));
+		assertFalse(node.isRevoked("jti-3"));
+		assertFalse(node.isRevoked(""));
+		assertFalse(node.isRevoked("jti-4"));
+		assertFalse(node.isRevoked(null));
+		assertEquals(Long.valueOf(0L), stringRedisTemplate.opsForZSet().zCard(RedisCacheKey.REVOKED_JTI_KEY));
+	}
+
+	/**
+	 * 与应用中一样，创建后先重建一次
+	 */
+	private TokenRevocationList revocationList() {
+		final TokenRevocationList revocationList = new TokenRevocationList(stringRedisTemplate,
+				mock(RedisMessageListenerContainer.class), jwtProperties);
+		revocationList.afterPropertiesSet();
+		return revocationList;
+	}
+
+	private static DefaultMessage message(String body) {
+		return new DefaultMessage(RedisCacheKey.REVOKED_JTI_CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static CacheLoginUser cacheUser(String tokenId, long tokenExpiresAt) {
+		return CacheLoginUser.builder().userId(10086L).tokenId(tokenId).tokenExpiresAt(tokenExpiresAt).build();
+	}
+}
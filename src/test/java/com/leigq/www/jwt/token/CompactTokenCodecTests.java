@@ -0,0 +1,258 @@
+package com.leigq.www.jwt.token;
+
+import com.auth0.jwt.exceptions.InvalidClaimException;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.leigq.www.jwt.config.JwtProperties;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.ResolvableType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 紧凑格式 token 编解码测试
+ *
+ * @author leigq
+ * @date 2026-10-19 09:12:37
+ */
+public class CompactTokenCodecTests {
+
+	private static final String ISSUER = "jwt-test";
+
+	private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+	private static final Base64.Decoder BASE64_URL_DECODER = Base64.getUrlDecoder();
+
+	private JwtKeyRegistry registry;
+
+	private JwtKey signingKey;
+
+	@Before
+	public void setUp() {
+		registry = registry("compact-token-codec-test-secret");
+		signingKey = registry.signingKey();
+	}
+
+	@Test
+	public void roundTrip() {
+		final Map<String, String> claims = new LinkedHashMap<>();
+		claims.put("userId", "10086");
+		claims.put("userName", "雷小天");
+		claims.put("empty", "");
+		final Date issuedAt = new Date(1_700_000_000_123L);
+		final Date expiresAt = new Date(1_700_007_200_999L);
+
+		final String token = CompactTokenCodec.encode(signingKey, ISSUER, "jti-1", issuedAt, claims, "subject", expiresAt,
+				"web", "app");
+		assertTrue(CompactTokenCodec.isCompact(token));
+
+		final DecodedJWT jwt = CompactTokenCodec.decode(token);
+		assertEquals(token, jwt.getToken());
+		assertEquals(signingKey.getKid(), jwt.getKeyId());
+		assertEquals(signingKey.getKid(), jwt.getHeaderClaim("kid").asString());
+		assertEquals(ISSUER, jwt.getIssuer());
+		assertEquals("jti-1", jwt.getId());
+		assertEquals("subject", jwt.getSubject());
+		assertEquals(Arrays.asList("web", "app"), jwt.getAudience());
+		// 时间按秒存储
+		assertEquals(new Date(1_700_000_000_000L), jwt.getIssuedAt());
+		assertEquals(jwt.getIssuedAt(), jwt.getNotBefore());
+		assertEquals(new Date(1_700_007_200_000L), jwt.getExpiresAt());
+		assertEquals(Long.valueOf(1_700_007_200L), jwt.getClaim("exp").asLong());
+		assertEquals("10086", jwt.getClaim("userId").asString());
+		assertEquals("雷小天", jwt.getClaim("userName").asString());
+		assertEquals("", jwt.getClaim("empty").asString());
+		assertTrue(jwt.getClaim("missing").isNull());
+		assertEquals(Arrays.asList("web", "app"), jwt.getClaim("aud").asList(String.class));
+		assertEquals(10, jwt.getClaims().size());
+	}
+
+	@Test
+	public void roundTripWithoutOptionalFields() {
+		final Date issuedAt = new Date();
+		final String token = CompactTokenCodec.encode(signingKey, null, null, issuedAt, null, null,
+				new Date(issuedAt.getTime() + 60_000L));
+
+		final DecodedJWT jwt = CompactTokenCodec.decode(token);
+		assertNull(jwt.getIssuer());
+		assertNull(jwt.getId());
+		assertNull(jwt.getSubject());
+		assertTrue(jwt.getAudience().isEmpty());
+		assertTrue(jwt.getClaim("sub").isNull());
+		assertEquals(7, jwt.getClaims().size());
+	}
+
+	@Test
+	public void verify() {
+		final String token = encode("jti-1", new Date(), Duration.ofMinutes(5));
+
+		final DecodedJWT jwt = CompactTokenCodec.verify(token, registry, ISSUER);
+		assertEquals("jti-1", jwt.getId());
+		assertEquals("10086", jwt.getClaim("userId").asString());
+	}
+
+	@Test
+	public void verifyRejectsTamperedPayload() {
+		final Date issuedAt = new Date();
+		final String token = encode("jti-1", issuedAt, Duration.ofMinutes(5));
+		final String forged = encode("jti-2", issuedAt, Duration.ofMinutes(5));
+		// 另一个合法负载配上原 token 的签名
+		final String tampered = forged.substring(0, forged.lastIndexOf('.')) + token.substring(token.lastIndexOf('.'));
+
+		assertEquals("jti-2", CompactTokenCodec.decode(tampered).getId());
+		assertVerifyFails(tampered, SignatureVerificationException.class);
+	}
+
+	@Test
+	public void verifyRejectsTamperedSignature() {
+		final String token = encode("jti-1", new Date(), Duration.ofMinutes(5));
+		final int dot = token.lastIndexOf('.');
+		final byte[] signature = BASE64_URL_DECODER.decode(token.substring(dot + 1));
+		signature[0] ^= 1;
+
+		assertVerifyFails(token.substring(0, dot + 1) + BASE64_URL_ENCODER.encodeToString(signature),
+				SignatureVerificationException.class);
+		assertVerifyFails(token.substring(0, dot + 1), SignatureVerificationException.class);
+	}
+
+	@Test
+	public void verifyRejectsUnknownKey() {
+		final JwtKey otherKey = registry("another-secret").signingKey();
+		assertFalse(signingKey.getKid().equals(otherKey.getKid()));
+		final Date issuedAt = new Date();
+		final String token = CompactTokenCodec.encode(otherKey, ISSUER, "jti-1", issuedAt, Collections.emptyMap(), null,
+				new Date(issuedAt.getTime() + 60_000L));
+
+		try {
+			CompactTokenCodec.verify(token, registry, ISSUER);
+			fail("未知的签名密钥应校验失败");
+		} catch (SignatureVerificationException e) {
+			fail("未知的签名密钥不应进入签名校验");
+		} catch (JWTVerificationException e) {
+			assertTrue(e.getMessage().contains(otherKey.getKid()));
+		}
+	}
+
+	@Test
+	public void verifyRejectsWrongIssuer() {
+		final String token = encode("jti-1", new Date(), Duration.ofMinutes(5));
+
+		assertVerifyFails(token, InvalidClaimException.class, "other-issuer");
+	}
+
+	@Test
+	public void verifyRejectsExpired() {
+		final String token = encode("jti-1", new Date(System.currentTimeMillis() - 120_000L), Duration.ofMinutes(1));
+
+		final TokenRejectedException e = assertVerifyFails(token, TokenRejectedException.class);
+		assertEquals(TokenRejectedException.Reason.EXPIRED, e.getReason());
+	}
+
+	@Test
+	public void verifyRejectsNotYetValid() {
+		final String token = encode("jti-1", new Date(System.currentTimeMillis() + 120_000L), Duration.ofMinutes(5));
+
+		final TokenRejectedException e = assertVerifyFails(token, TokenRejectedException.class);
+		assertEquals(TokenRejectedException.Reason.NOT_YET_VALID, e.getReason());
+	}
+
+	@Test
+	public void rejectsMalformed() {
+		final String token = encode("jti-1", new Date(), Duration.ofMinutes(5));
+		final int dot = token.lastIndexOf('.');
+
+		assertMalformed("eyJhbGciOiJIUzI1NiJ9.e30.sig");
+		assertMalformed("c1.");
+		assertMalformed(token.substring(0, dot));
+		assertMalformed(token + ".extra");
+		assertMalformed("c1.!!!." + token.substring(dot + 1));
+
+		// 合法负载后多出字节
+		final byte[] payload = BASE64_URL_DECODER.decode(token.substring(3, dot));
+		final byte[] trailing = Arrays.copyOf(payload, payload.length + 1);
+		assertMalformed(compact(trailing));
+		// 负载被截断
+		assertMalformed(compact(Arrays.copyOf(payload, payload.length - 1)));
+	}
+
+	@Test
+	public void rejectsOversizedLength() {
+		// kid 的长度声明为 2^28，超过剩余字节数，解码时不能按声明的长度分配
+		assertMalformed(compact(new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01, 'k', 'i', 'd'}));
+		// 长度为负数
+		final byte[] negative = new byte[10];
+		Arrays.fill(negative, (byte) 0xFF);
+		negative[9] = 0x01;
+		assertMalformed(compact(negative));
+		// varint 超过 10 个字节
+		final byte[] tooLong = new byte[12];
+		Arrays.fill(tooLong, (byte) 0x80);
+		assertMalformed(compact(tooLong));
+		// 自定义负载个数远大于剩余字节数
+		final byte[] claims = {1, 1, 1, 1, 0, 0, 0, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+		assertMalformed(compact(claims));
+	}
+
+	private String encode(String jti, Date issuedAt, Duration expiresIn) {
+		return CompactTokenCodec.encode(signingKey, ISSUER, jti, issuedAt, Collections.singletonMap("userId", "10086"),
+				null, new Date(issuedAt.getTime() + expiresIn.toMillis()));
+	}
+
+	private <T extends JWTVerificationException> T assertVerifyFails(String token, Class<T> type) {
+		return assertVerifyFails(token, type, ISSUER);
+	}
+
+	private <T extends JWTVerificationException> T assertVerifyFails(String token, Class<T> type, String issuer) {
+		try {
+			CompactTokenCodec.verify(token, registry, issuer);
+		} catch (JWTVerificationException e) {
+			assertEquals(type, e.getClass());
+			return type.cast(e);
+		}
+		fail("token 应校验失败：" + token);
+		return null;
+	}
+
+	private void assertMalformed(String token) {
+		try {
+			CompactTokenCodec.decode(token);
+			fail("token 应解码失败：" + token);
+		} catch (JWTDecodeException e) {
+			// expected
+		}
+		final TokenRejectedException e = assertVerifyFails(token, TokenRejectedException.class);
+		assertEquals(TokenRejectedException.Reason.MALFORMED, e.getReason());
+	}
+
+	private static String compact(byte[] payload) {
+		return "c1." + BASE64_URL_ENCODER.encodeToString(payload) + "."
+				+ BASE64_URL_ENCODER.encodeToString("signature".getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private static JwtKeyRegistry registry(String signSecret) {
+		final JwtProperties properties = new JwtProperties();
+		properties.setSignSecret(signSecret);
+		properties.setIssuer(ISSUER);
+		properties.setExpiresIn(Duration.ofHours(2));
+		final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		return new JwtKeyRegistry(properties, beanFactory.getBeanProvider(RejectedTokenCache.class),
+				beanFactory.getBeanProvider(ResolvableType.forClass(VerifiedTokenCache.class)));
+	}
+}
@@ -0,0 +1,101 @@
+package com.leigq.www.jwt.token;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * jti 布隆过滤器测试
+ *
+ * @author leigq
+ * @date 2026-10-19 14:02:37
+ */
+public class JtiBloomFilterTests {
+
+	@Test
+	public void noFalseNegatives() {
+		for (long expected : new long[]{1L, 100L, 10_000L}) {
+			// 放入数量超过预期时误判率升高，但依然不会漏判
+			final JtiBloomFilter bloom = new JtiBloomFilter(expected, 0.01);
+			final List<String> jtis = new ArrayList<>();
+			for (int i = 0; i < expected * 3 + 10; i++) {
+				final String jti = UUID.randomUUID().toString();
+				jtis.add(jti);
+				bloom.put(jti);
+			}
+			for (String jti : jtis) {
+				assertTrue(expected + "：" + jti, bloom.mightContain(jti));
+			}
+		}
+	}
+
+	@Test
+	public void emptyFilterContainsNothing() {
+		final JtiBloomFilter bloom = new JtiBloomFilter(10_000L, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			assertFalse(bloom.mightContain("jti-" + i));
+		}
+		assertFalse(bloom.mightContain(""));
+	}
+
+	@Test
+	public void sizing() {
+		// m = -n·ln(p) / ln²2，向上取整为 64 的倍数
+		final JtiBloomFilter bloom = new JtiBloomFilter(10_000L, 0.01);
+		final long expectedBits = (long) (-10_000L * Math.log(0.01) / (Math.log(2) * Math.log(2)));
+		assertEquals(0L, bloom.bitSize() % 64);
+		assertTrue(String.valueOf(bloom.bitSize()), bloom.bitSize() >= expectedBits && bloom.bitSize() < expectedBits + 64);
+
+		// 至少 64 位，预期数量不大于 0 时按 1 计算
+		assertEquals(64L, new JtiBloomFilter(1L, 0.5).bitSize());
+		assertEquals(64L, new JtiBloomFilter(0L, 0.01).bitSize());
+		assertEquals(64L, new JtiBloomFilter(-1L, 0.01).bitSize());
+	}
+
+	@Test
+	public void falsePositiveRateNearTarget() {
+		final int inserted = 20_000;
+		final double fpp = 0.01;
+		final JtiBloomFilter bloom = new JtiBloomFilter(inserted, fpp);
+		for (int i = 0; i < inserted; i++) {
+			bloom.put("revoked-" + i);
+		}
+		int falsePositives = 0;
+		final int probes = 100_000;
+		for (int i = 0; i < probes; i++) {
+			if (bloom.mightContain("active-" + i)) {
+				falsePositives++;
+			}
+		}
+		// 下标由两个哈希组合，位分布不均时误判率会明显高于目标
+		final double rate = (double) falsePositives / probes;
+		assertTrue(String.valueOf(rate), rate < fpp * 2);
+	}
+
+	@Test
+	public void concurrentPutsAreNotLost() throws InterruptedException {
+		final JtiBloomFilter bloom = new JtiBloomFilter(40_000L, 0.01);
+		final Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			final int offset = t;
+			threads[t] = new Thread(() -> {
+				for (int i = offset; i < 40_000; i += threads.length) {
+					bloom.put("jti-" + i);
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		for (int i = 0; i < 40_000; i++) {
+			assertTrue("jti-" + i, bloom.mightContain("jti-" + i));
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package com.leigq.www.jwt.token;
+
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.leigq.www.jwt.config.JwtProperties;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.ResolvableType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 签名密钥注册表测试
+ *
+ * @author leigq
+ * @date 2026-10-19 10:31:08
+ */
+public class JwtKeyRegistryTests {
+
+	private static final String TOKEN = "token";
+
+	private JwtProperties properties;
+
+	private RejectedTokenCache rejectedTokenCache;
+
+	private VerifiedTokenCache<Date> verifiedTokenCache;
+
+	private JwtKeyRegistry registry;
+
+	/**
+	 * 已验证 token 缓存未命中、实际验证的次数
+	 */
+	private final AtomicInteger verified = new AtomicInteger();
+
+	@Before
+	public void setUp() {
+		properties = new JwtProperties();
+		properties.setSignSecret("jwt-key-registry-test-secret");
+		properties.setIssuer("jwt-test");
+		properties.setExpiresIn(Duration.ofHours(2));
+		rejectedTokenCache = new RejectedTokenCache(properties);
+		verifiedTokenCache = new VerifiedTokenCache<>(100, expiresAt -> expiresAt);
+
+		final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerSingleton("rejectedTokenCache", rejectedTokenCache);
+		beanFactory.registerSingleton("verifiedTokenCache", verifiedTokenCache);
+		registry = new JwtKeyRegistry(properties, beanFactory.getBeanProvider(RejectedTokenCache.class),
+				beanFactory.getBeanProvider(ResolvableType.forClass(VerifiedTokenCache.class)));
+	}
+
+	@Test
+	public void rotationInvalidatesTokenCaches() {
+		final String previousKid = registry.signingKey().getKid();
+		fillCaches();
+
+		properties.setSignSecret("jwt-key-registry-test-secret-2");
+		assertNotEquals(previousKid, registry.signingKey().getKid());
+		// 旧密钥退役后仍可验证
+		assertTrue(registry.key(previousKid).isRetired());
+
+		assertEquals(2, verifyCount());
+		rejectedTokenCache.verify(TOKEN, token -> token);
+	}
+
+	@Test
+	public void issuerChangeInvalidatesTokenCaches() {
+		registry.signingKey();
+		fillCaches();
+
+		properties.setIssuer("jwt-test-2");
+		registry.signingKey();
+
+		assertEquals(2, verifyCount());
+		rejectedTokenCache.verify(TOKEN, token -> token);
+	}
+
+	@Test
+	public void unchangedKeysKeepTokenCaches() {
+		registry.signingKey();
+		fillCaches();
+
+		registry.refresh();
+
+		assertEquals(1, verifyCount());
+		try {
+			rejectedTokenCache.verify(TOKEN, token -> token);
+			fail("验证失败缓存不应被清空");
+		} catch (TokenRejectedException e) {
+			assertEquals(TokenRejectedException.Reason.INVALID, e.getReason());
+		}
+	}
+
+	@Test
+	public void concurrentCallersRebuildOnce() throws Exception {
+		final JwtKey initial = registry.signingKey();
+		registry.refresh();
+		// 配置未变化时不重建
+		assertSame(initial, registry.signingKey());
+
+		properties.setSignSecret("jwt-key-registry-test-secret-2");
+		final int threads = 8;
+		final CountDownLatch start = new CountDownLatch(1);
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<JwtKey>> keys = new ArrayList<>(threads);
+			for (int i = 0; i < threads; i++) {
+				keys.add(executor.submit(() -> {
+					start.await();
+					return registry.signingKey();
+				}));
+			}
+			start.countDown();
+			// 第一个线程重建后，其他等待的线程直接使用新的密钥集合，拿到的是同一个密钥
+			final Set<JwtKey> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+			for (Future<JwtKey> key : keys) {
+				distinct.add(key.get(5, TimeUnit.SECONDS));
+			}
+			assertEquals(1, distinct.size());
+			assertNotEquals(initial.getKid(), distinct.iterator().next().getKid());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void fillCaches() {
+		verifyCount();
+		try {
+			rejectedTokenCache.verify(TOKEN, token -> {
+				throw new SignatureVerificationException(registry.signingKey().getAlgorithm());
+			});
+			fail("验证应失败");
+		} catch (SignatureVerificationException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * 通过已验证 token 缓存验证一次，返回累计实际验证的次数，命中缓存时不增加
+	 */
+	private int verifyCount() {
+		verifiedTokenCache.get(TOKEN, token -> {
+			verified.incrementAndGet();
+			return new Date(System.currentTimeMillis() + 60_000L);
+		});
+		return verified.get();
+	}
+}
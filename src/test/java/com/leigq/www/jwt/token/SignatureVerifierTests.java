@@ -0,0 +1,118 @@
+package com.leigq.www.jwt.token;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.leigq.www.jwt.enums.SignAlgorithm;
+import org.junit.Test;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * 签名验证测试，结果需与 java-jwt 的 Algorithm#verify 一致
+ *
+ * @author leigq
+ * @date 2026-10-19 10:06:51
+ */
+public class SignatureVerifierTests {
+
+	private static final String ISSUER = "jwt-test";
+
+	@Test
+	public void rs256() throws GeneralSecurityException {
+		final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		assertVerifies(key(SignAlgorithm.RS256, generator.generateKeyPair()), 5);
+	}
+
+	@Test
+	public void es256() throws GeneralSecurityException {
+		final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+		generator.initialize(new ECGenParameterSpec("secp256r1"));
+		// 签名随机，多签几次覆盖 R、S 有前导 0 和最高位为 1 的情况
+		assertVerifies(key(SignAlgorithm.ES256, generator.generateKeyPair()), 300);
+	}
+
+	@Test
+	public void es256RejectsWrongSignatureLength() throws GeneralSecurityException {
+		final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+		generator.initialize(new ECGenParameterSpec("secp256r1"));
+		final JwtKey key = key(SignAlgorithm.ES256, generator.generateKeyPair());
+		final String token = write(key, "jti-1");
+		final int dot = token.lastIndexOf('.');
+		final byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+		final byte[] der = SignatureVerifier.toDer(signature);
+
+		// DER 格式的签名不被接受，JWS 只允许 R||S
+		assertRejected(key, token.substring(0, dot + 1) + Base64.getUrlEncoder().withoutPadding().encodeToString(der));
+		assertRejected(key, token.substring(0, dot + 1) + token.substring(dot + 2));
+	}
+
+	@Test
+	public void toDer() {
+		final byte[] signature = new byte[64];
+		signature[31] = 0x01;
+		signature[32] = (byte) 0x80;
+		final byte[] expected = new byte[2 + 3 + 2 + 33];
+		expected[0] = 0x30;
+		expected[1] = (byte) (expected.length - 2);
+		expected[2] = 0x02;
+		expected[3] = 0x01;
+		expected[4] = 0x01;
+		expected[5] = 0x02;
+		expected[6] = 33;
+		expected[7] = 0x00;
+		expected[8] = (byte) 0x80;
+
+		assertArrayEquals(expected, SignatureVerifier.toDer(signature));
+		// R 全为 0 时保留一个 0
+		assertArrayEquals(new byte[]{0x02, 0x01, 0x00}, Arrays.copyOfRange(SignatureVerifier.toDer(new byte[64]), 2, 5));
+	}
+
+	private static void assertVerifies(JwtKey key, int times) {
+		for (int i = 0; i < times; i++) {
+			final String token = write(key, "jti-" + i);
+			final int dot = token.lastIndexOf('.');
+			SignatureVerifier.verify(key, token, dot);
+			// 与 java-jwt 的验证结果一致
+			assertEquals("jti-" + i, JWT.require(key.getAlgorithm()).build().verify(token).getId());
+
+			final String compact = CompactTokenCodec.encode(key, ISSUER, "jti-" + i, new Date(), null, "10086",
+					new Date(System.currentTimeMillis() + 60_000L), "leigq");
+			SignatureVerifier.verify(key, compact, compact.lastIndexOf('.'));
+
+			final byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+			signature[i % signature.length] ^= 1;
+			assertRejected(key, token.substring(0, dot + 1) + Base64.getUrlEncoder().withoutPadding().encodeToString(signature));
+		}
+	}
+
+	private static void assertRejected(JwtKey key, String token) {
+		try {
+			SignatureVerifier.verify(key, token, token.lastIndexOf('.'));
+			fail("签名应验证失败：" + token);
+		} catch (SignatureVerificationException e) {
+			// expected
+		}
+	}
+
+	private static String write(JwtKey key, String jti) {
+		final Date issuedAt = new Date();
+		return TokenWriter.write(key, ISSUER, jti, issuedAt, null, "10086", new Date(issuedAt.getTime() + 60_000L), "leigq");
+	}
+
+	private static JwtKey key(SignAlgorithm algorithm, KeyPair keyPair) {
+		final Algorithm signer = algorithm.create(keyPair.getPublic(), keyPair.getPrivate());
+		return JwtKey.of(algorithm.name() + "-test", signer, keyPair.getPublic(), ISSUER);
+	}
+}
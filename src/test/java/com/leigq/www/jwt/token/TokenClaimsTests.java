@@ -0,0 +1,248 @@
+package com.leigq.www.jwt.token;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.InvalidClaimException;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.leigq.www.jwt.config.JwtProperties;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.ResolvableType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * TokenClaims 解析、验证测试
+ *
+ * @author leigq
+ * @date 2026-10-19 09:58:12
+ */
+public class TokenClaimsTests {
+
+	private static final String ISSUER = "jwt-test";
+
+	private JwtKeyRegistry registry;
+
+	private JwtKey signingKey;
+
+	@Before
+	public void setUp() {
+		registry = registry("token-claims-test-secret");
+		signingKey = registry.signingKey();
+	}
+
+	@Test
+	public void parseSkipsUnknownFields() {
+		final TokenClaims claims = TokenClaims.parse(("{\"extra\":{\"nested\":[1,{\"sub\":\"inner\"}]},\"iss\":\"jwt-test\","
+				+ "\"sub\":\"10086\",\"tags\":[\"a\",[\"b\"]],\"aud\":[{\"x\":1},\"leigq\",\"other\"],\"exp\":1700007200,"
+				+ "\"nbf\":1700000000.9,\"flag\":true,\"iat\":1700000000,\"jti\":\"jti-1\",\"ip\":\"127.0.0.1\",\"none\":null}")
+				.getBytes(StandardCharsets.UTF_8));
+
+		assertEquals("jwt-test", claims.getIssuer());
+		assertEquals("10086", claims.getSubject());
+		assertEquals("leigq", claims.getAudience());
+		assertEquals(1_700_007_200L, claims.getExpiresAt());
+		assertEquals(new Date(1_700_007_200_000L), claims.getExpiresAtDate());
+		assertEquals(1_700_000_000L, claims.getNotBefore());
+		assertEquals(1_700_000_000L, claims.getIssuedAt());
+		assertEquals("jti-1", claims.getId());
+		assertEquals("127.0.0.1", claims.getIp());
+	}
+
+	@Test
+	public void parseIgnoresWrongTypes() {
+		final TokenClaims claims = TokenClaims.parse(("{\"sub\":10086,\"aud\":\"leigq\",\"exp\":\"1700007200\","
+				+ "\"ip\":[\"127.0.0.1\"],\"jti\":{\"id\":1}}").getBytes(StandardCharsets.UTF_8));
+
+		assertNull(claims.getSubject());
+		assertEquals("leigq", claims.getAudience());
+		assertEquals(-1L, claims.getExpiresAt());
+		assertNull(claims.getExpiresAtDate());
+		assertNull(claims.getIp());
+		assertNull(claims.getId());
+	}
+
+	@Test
+	public void parseRejectsMalformed() {
+		for (String json : new String[]{"[]", "\"sub\"", "{\"sub\":\"10086\"", "{\"aud\":[\"leigq\"", "{\"sub\":}", ""}) {
+			try {
+				TokenClaims.parse(json.getBytes(StandardCharsets.UTF_8));
+				fail("负载应解析失败：" + json);
+			} catch (JWTDecodeException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void verify() {
+		final Date issuedAt = new Date();
+		final String token = TokenWriter.write(signingKey, ISSUER, "jti-1", issuedAt, Collections.singletonMap("ip", "127.0.0.1"),
+				"10086", new Date(issuedAt.getTime() + 60_000L), "leigq");
+
+		final TokenClaims claims = TokenClaims.verify(token, registry, ISSUER);
+		assertEquals("10086", claims.getSubject());
+		assertEquals("leigq", claims.getAudience());
+		assertEquals("jti-1", claims.getId());
+		assertEquals("127.0.0.1", claims.getIp());
+		assertEquals(issuedAt.getTime() / 1000, claims.getIssuedAt());
+		assertEquals(issuedAt.getTime() / 1000 + 60, claims.getExpiresAt());
+	}
+
+	@Test
+	public void writePairReturnsAccessJtiAndExpiresAt() {
+		final Date issuedAt = new Date();
+		final Date accessExpiresAt = new Date(issuedAt.getTime() + 60_789L);
+		final TokenPair pair = TokenWriter.writePair(signingKey, ISSUER, issuedAt, null, "10086", "access-jti", accessExpiresAt,
+				"refresh-jti", new Date(issuedAt.getTime() + 120_000L), "leigq");
+
+		// 与解码 access token 得到的一致，调用方不需要再解码
+		final TokenClaims claims = TokenClaims.decode(pair.getAccessToken());
+		assertEquals(claims.getId(), pair.getAccessTokenId());
+		assertEquals(claims.getExpiresAt() * 1000, pair.getAccessTokenExpiresAt());
+		assertEquals("refresh-jti", TokenClaims.decode(pair.getRefreshToken()).getId());
+	}
+
+	@Test
+	public void verifyTokenWithUnknownClaims() {
+		final Date issuedAt = new Date();
+		final String token = JWT.create()
+				.withKeyId(signingKey.getKid())
+				.withClaim("extra", "value")
+				.withArrayClaim("roles", new String[]{"admin", "user"})
+				.withClaim("level", 3)
+				.withIssuer(ISSUER)
+				.withSubject("10086")
+				.withAudience("leigq", "other")
+				.withJWTId("jti-1")
+				.withIssuedAt(issuedAt)
+				.withExpiresAt(new Date(issuedAt.getTime() + 60_000L))
+				.sign(signingKey.getAlgorithm());
+
+		final TokenClaims claims = TokenClaims.verify(token, registry, ISSUER);
+		assertEquals("10086", claims.getSubject());
+		assertEquals("leigq", claims.getAudience());
+		assertEquals("jti-1", claims.getId());
+		assertNull(claims.getIp());
+	}
+
+	@Test
+	public void verifyCompactToken() {
+		final Date issuedAt = new Date();
+		final String token = CompactTokenCodec.encode(signingKey, ISSUER, "jti-1", issuedAt, Collections.singletonMap("ip", "127.0.0.1"),
+				"10086", new Date(issuedAt.getTime() + 60_000L), "leigq");
+
+		final TokenClaims claims = TokenClaims.verify(token, registry, ISSUER);
+		assertEquals("10086", claims.getSubject());
+		assertEquals("leigq", claims.getAudience());
+		assertEquals("127.0.0.1", claims.getIp());
+	}
+
+	@Test
+	public void verifyRejectsWrongIssuer() {
+		assertVerifyFails(token(new Date(), Duration.ofMinutes(1)), "other-issuer", InvalidClaimException.class);
+	}
+
+	@Test
+	public void verifyRejectsExpired() {
+		final String token = token(new Date(System.currentTimeMillis() - 120_000L), Duration.ofMinutes(1));
+
+		final TokenRejectedException e = assertVerifyFails(token, ISSUER, TokenRejectedException.class);
+		assertEquals(TokenRejectedException.Reason.EXPIRED, e.getReason());
+	}
+
+	@Test
+	public void verifyRejectsNotYetValid() {
+		final String token = token(new Date(System.currentTimeMillis() + 120_000L), Duration.ofMinutes(5));
+
+		final TokenRejectedException e = assertVerifyFails(token, ISSUER, TokenRejectedException.class);
+		assertEquals(TokenRejectedException.Reason.NOT_YET_VALID, e.getReason());
+	}
+
+	@Test
+	public void verifyRejectsTamperedPayload() {
+		final String token = token(new Date(), Duration.ofMinutes(1));
+		final String[] parts = token.split("\\.");
+		final String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+		final String forged = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(payload.replace("\"10086\"", "\"10010\"").getBytes(StandardCharsets.UTF_8));
+
+		assertEquals("10010", TokenClaims.decode(parts[0] + "." + forged + "." + parts[2]).getSubject());
+		assertVerifyFails(parts[0] + "." + forged + "." + parts[2], ISSUER, SignatureVerificationException.class);
+	}
+
+	@Test
+	public void verifyRejectsTamperedSignature() {
+		final String token = token(new Date(), Duration.ofMinutes(1));
+		final int dot = token.lastIndexOf('.');
+		final byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+		signature[signature.length / 2] ^= 1;
+
+		assertVerifyFails(token.substring(0, dot + 1) + Base64.getUrlEncoder().withoutPadding().encodeToString(signature),
+				ISSUER, SignatureVerificationException.class);
+	}
+
+	@Test
+	public void verifyRejectsOtherSecret() {
+		final Date issuedAt = new Date();
+		final String token = TokenWriter.write(registry("another-secret").signingKey(), ISSUER, "jti-1", issuedAt, null,
+				"10086", new Date(issuedAt.getTime() + 60_000L), "leigq");
+
+		assertVerifyFails(token, ISSUER, SignatureVerificationException.class);
+	}
+
+	@Test
+	public void verifyRejectsMalformed() {
+		for (String token : new String[]{"", "a.b", "a.b.c.d", "e30..c2ln", "e30.e30.", "e30.e30!.c2ln", "e30.W10.c2ln"}) {
+			final TokenRejectedException e = assertVerifyFails(token, ISSUER, TokenRejectedException.class);
+			assertEquals(TokenRejectedException.Reason.MALFORMED, e.getReason());
+		}
+	}
+
+	@Test
+	public void decodeWithoutVerify() {
+		final String token = TokenWriter.write(registry("another-secret").signingKey(), "other-issuer", "jti-1", new Date(0L), null,
+				"10086", new Date(1000L), "leigq");
+
+		final TokenClaims claims = TokenClaims.decode(token);
+		assertEquals("other-issuer", claims.getIssuer());
+		assertEquals("10086", claims.getSubject());
+		assertEquals(1L, claims.getExpiresAt());
+	}
+
+	private String token(Date issuedAt, Duration expiresIn) {
+		return TokenWriter.write(signingKey, ISSUER, "jti-1", issuedAt, null, "10086",
+				new Date(issuedAt.getTime() + expiresIn.toMillis()), "leigq");
+	}
+
+	private <T extends JWTVerificationException> T assertVerifyFails(String token, String issuer, Class<T> type) {
+		try {
+			TokenClaims.verify(token, registry, issuer);
+		} catch (JWTVerificationException e) {
+			assertEquals(type, e.getClass());
+			return type.cast(e);
+		}
+		fail("token 应校验失败：" + token);
+		return null;
+	}
+
+	private static JwtKeyRegistry registry(String signSecret) {
+		final JwtProperties properties = new JwtProperties();
+		properties.setSignSecret(signSecret);
+		properties.setIssuer(ISSUER);
+		properties.setExpiresIn(Duration.ofHours(2));
+		final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		return new JwtKeyRegistry(properties, beanFactory.getBeanProvider(RejectedTokenCache.class),
+				beanFactory.getBeanProvider(ResolvableType.forClass(VerifiedTokenCache.class)));
+	}
+}
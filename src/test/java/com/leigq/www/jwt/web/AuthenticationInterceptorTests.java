@@ -0,0 +1,185 @@
+package com.leigq.www.jwt.web;
+
+import com.leigq.www.jwt.bean.CacheLoginUser;
+import com.leigq.www.jwt.bean.UserContext;
+import com.leigq.www.jwt.config.JwtProperties;
+import com.leigq.www.jwt.enums.Platform;
+import com.leigq.www.jwt.service.RedisTokenStore;
+import com.leigq.www.jwt.service.TokenRevocationList;
+import com.leigq.www.jwt.service.UserService;
+import com.leigq.www.jwt.token.TokenClaims;
+import com.leigq.www.jwt.util.JwtUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.servlet.http.Cookie;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 认证拦截器滑动续期测试，分别覆盖比对缓存 token 和启用撤销列表两种模式
+ *
+ * @author leigq
+ * @date 2026-10-19 11:26:37
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"jwt.renewal.enabled=true", "jwt.revocation.enabled=true"})
+public class AuthenticationInterceptorTests {
+
+	private static final long USER_ID = 10086L;
+
+	private static final String IP = "127.0.0.1";
+
+	@MockBean
+	private RedisTokenStore redisTokenStore;
+
+	@MockBean
+	private TokenRevocationList tokenRevocationList;
+
+	@Autowired
+	private JwtProperties jwtProperties;
+
+	@Autowired
+	private AuthenticationInterceptor interceptor;
+
+	private HandlerMethod handler;
+
+	/**
+	 * 即将过期、需要续期的 token
+	 */
+	private String token;
+
+	private TokenClaims claims;
+
+	@Before
+	public void setUp() throws NoSuchMethodException {
+		handler = new HandlerMethod(this, getClass().getMethod("handle"));
+		token = UserContext.genTokenPair(Collections.singletonMap("ip", IP), USER_ID,
+				new Date(System.currentTimeMillis() + 60_000L), new Date(System.currentTimeMillis() + 120_000L), "leigq")
+				.getAccessToken();
+		claims = JwtUtils.decode(token);
+		when(redisTokenStore.get(USER_ID, Platform.PC)).thenReturn(CacheLoginUser.builder()
+				.userId(USER_ID)
+				.userName("leigq")
+				.tokenId(claims.getId())
+				.tokenExpiresAt(claims.getExpiresAt() * 1000)
+				.build());
+		when(redisTokenStore.lockRenewal(eq(USER_ID), eq(Platform.PC), anyLong())).thenReturn(true);
+	}
+
+	@After
+	public void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	/**
+	 * 拦截器处理的 Controller 方法
+	 */
+	public void handle() {
+		// 仅作为 HandlerMethod
+	}
+
+	@Test
+	public void renewalRevokesPreviousToken() {
+		assertTrue(preHandle(interceptor, token));
+
+		final CacheLoginUser renewed = savedCacheUser();
+		assertEquals(claims.getId(), renewed.getPreviousTokenId());
+		assertNotEquals(claims.getId(), renewed.getTokenId());
+		verify(tokenRevocationList).revoke(claims.getId(), claims.getExpiresAt() * 1000);
+
+		// 续期前的 token 已撤销，宽限期内依然放行，且不会再次续期
+		when(tokenRevocationList.isRevoked(claims.getId())).thenReturn(true);
+		when(redisTokenStore.get(USER_ID, Platform.PC)).thenReturn(renewed);
+		assertTrue(preHandle(interceptor, token));
+		verify(redisTokenStore, times(1)).save(renewed, Platform.PC, (int) jwtProperties.getExpiresIn().getSeconds());
+
+		// 宽限期过后被拒绝
+		renewed.setPreviousTokenExpiresAt(System.currentTimeMillis() - 1);
+		assertRejected(interceptor, token);
+	}
+
+	@Test
+	public void revokedTokenWithoutGraceIsRejected() {
+		// 被踢下线的 token，缓存用户中既不是当前的也不是续期前的 token
+		when(tokenRevocationList.isRevoked(claims.getId())).thenReturn(true);
+		assertRejected(interceptor, token);
+		verify(redisTokenStore, never()).save(any(), any(), anyInt());
+	}
+
+	@Test
+	public void renewalWithoutRevocationList() {
+		// 未启用撤销列表，拦截器比对缓存中的 token，续期时不撤销
+		final ObjectProvider<TokenRevocationList> none = new DefaultListableBeanFactory().getBeanProvider(TokenRevocationList.class);
+		final AuthenticationInterceptor cacheInterceptor = new AuthenticationInterceptor(none, jwtProperties,
+				new UserService(jwtProperties, redisTokenStore, none));
+
+		assertTrue(preHandle(cacheInterceptor, token));
+		final CacheLoginUser renewed = savedCacheUser();
+		assertEquals(claims.getId(), renewed.getPreviousTokenId());
+
+		when(redisTokenStore.get(USER_ID, Platform.PC)).thenReturn(renewed);
+		assertTrue(preHandle(cacheInterceptor, token));
+		renewed.setPreviousTokenExpiresAt(System.currentTimeMillis() - 1);
+		assertRejected(cacheInterceptor, token);
+		verify(tokenRevocationList, never()).revoke(anyString(), anyLong());
+	}
+
+	private CacheLoginUser savedCacheUser() {
+		final ArgumentCaptor<CacheLoginUser> captor = ArgumentCaptor.forClass(CacheLoginUser.class);
+		verify(redisTokenStore).save(captor.capture(), eq(Platform.PC), eq((int) jwtProperties.getExpiresIn().getSeconds()));
+		assertNotNull(captor.getValue().getTokenId());
+		return captor.getValue();
+	}
+
+	private void assertRejected(AuthenticationInterceptor interceptor, String token) {
+		try {
+			preHandle(interceptor, token);
+			fail("token 应被拒绝");
+		} catch (ServiceException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * 模拟一次请求，每次请求的认证信息、缓存用户都重新读取
+	 */
+	private boolean preHandle(AuthenticationInterceptor interceptor, String token) {
+		final MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("user-agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
+		request.setRemoteAddr(IP);
+		request.setCookies(new Cookie(jwtProperties.getTokenCookieName(), token));
+		final MockHttpServletResponse response = new MockHttpServletResponse();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+		return interceptor.preHandle(request, response, handler);
+	}
+}